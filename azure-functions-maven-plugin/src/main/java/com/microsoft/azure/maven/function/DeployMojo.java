@@ -9,6 +9,7 @@ import com.azure.core.management.AzureEnvironment;
 import com.azure.core.management.exception.ManagementException;
 import com.microsoft.azure.functions.annotation.AuthorizationLevel;
 import com.microsoft.azure.maven.MavenDockerCredentialProvider;
+import com.microsoft.azure.maven.utils.TaskGraph;
 import com.microsoft.azure.toolkit.lib.Azure;
 import com.microsoft.azure.toolkit.lib.applicationinsights.ApplicationInsights;
 import com.microsoft.azure.toolkit.lib.applicationinsights.ApplicationInsightsEntity;
@@ -26,12 +27,15 @@ import com.microsoft.azure.toolkit.lib.appservice.service.IAppServiceUpdater;
 import com.microsoft.azure.toolkit.lib.appservice.service.IFunctionApp;
 import com.microsoft.azure.toolkit.lib.appservice.service.IFunctionAppBase;
 import com.microsoft.azure.toolkit.lib.appservice.service.IFunctionAppDeploymentSlot;
+import com.microsoft.azure.toolkit.lib.appservice.utils.ZipPackager;
 import com.microsoft.azure.toolkit.lib.auth.AzureAccount;
+import com.microsoft.azure.toolkit.lib.common.deploy.DeployLedger;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.model.Region;
 import com.microsoft.azure.toolkit.lib.common.model.ResourceGroup;
+import com.microsoft.azure.toolkit.lib.common.utils.Poller;
 import com.microsoft.azure.toolkit.lib.common.utils.Utils;
 import com.microsoft.azure.toolkit.lib.legacy.appservice.DeploymentSlotSetting;
 import com.microsoft.azure.toolkit.lib.resource.AzureGroup;
@@ -41,15 +45,19 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.artifact.versioning.ComparableVersion;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
-import org.zeroturnaround.zip.ZipUtil;
+import org.apache.maven.plugins.annotations.Parameter;
 
 import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.zip.Deflater;
 
 /**
  * Deploy artifacts to target Azure Functions in Azure. If target Azure Functions doesn't exist, it will be created.
@@ -112,9 +120,12 @@ public class DeployMojo extends AbstractFunctionMojo {
     private static final String UPDATE_FUNCTION_DONE = "Successfully updated Function App %s.";
     private static final String NO_ARTIFACT_FOUNDED = "Failed to find function artifact '%s.jar' in folder '%s', please re-package the project and try again.";
     private static final String LOCAL_SETTINGS_FILE = "local.settings.json";
-    private static final int LIST_TRIGGERS_MAX_RETRY = 3;
-    private static final int LIST_TRIGGERS_RETRY_PERIOD_IN_SECONDS = 10;
-    private static final String SYNCING_TRIGGERS_AND_FETCH_FUNCTION_INFORMATION = "Syncing triggers and fetching function information (Attempt %d/%d)...";
+    private static final String FAILED_TO_PACKAGE = "Failed to package staging directory %s.";
+    // triggers are usually available in seconds after deployment, poll frequently at first and back off up to 10s
+    private static final Duration LIST_TRIGGERS_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration LIST_TRIGGERS_INITIAL_INTERVAL = Duration.ofSeconds(2);
+    private static final Duration LIST_TRIGGERS_MAX_INTERVAL = Duration.ofSeconds(10);
+    private static final String SYNCING_TRIGGERS_AND_FETCH_FUNCTION_INFORMATION = "Syncing triggers and fetching function information (Attempt %d)...";
     private static final String NO_TRIGGERS_FOUNDED = "No triggers found in deployed function app, " +
             "please try recompile the project by `mvn clean package` and deploy again.";
     private static final String APP_NAME_PATTERN = "[a-zA-Z0-9\\-]{2,60}";
@@ -138,6 +149,16 @@ public class DeployMojo extends AbstractFunctionMojo {
     private static final String INVALID_PRICING_TIER = "Unsupported value %s for <pricingTier> in pom.xml";
     private static final String FAILED_TO_LIST_TRIGGERS = "Deployment succeeded, but failed to list http trigger urls.";
     private static final String SKIP_DEPLOYMENT_FOR_DOCKER_APP_SERVICE = "Skip deployment for docker app service";
+    private static final String INVALID_COMPRESSION_LEVEL = "Invalid value %d for <compressionLevel>, it should be -1 (default) or between 0 and 9.";
+
+    /**
+     * Deflate level of the package to deploy, from 0 (no compression) to 9 (best compression), -1 for the default level
+     * of zip. Jars in the package are stored as they are, since they are already compressed.
+     *
+     * @since 1.13.0
+     */
+    @Parameter(property = "functions.compressionLevel", defaultValue = "-1")
+    protected int compressionLevel = Deflater.DEFAULT_COMPRESSION;
 
     private AzureAppService az;
 
@@ -214,6 +235,11 @@ public class DeployMojo extends AbstractFunctionMojo {
         if (OperatingSystem.fromString(runtime.getOs()) == OperatingSystem.DOCKER && StringUtils.isEmpty(runtime.getImage())) {
             throw new AzureToolkitRuntimeException(EMPTY_IMAGE_NAME);
         }
+        // compression level
+        if (compressionLevel != Deflater.DEFAULT_COMPRESSION &&
+                (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)) {
+            throw new AzureToolkitRuntimeException(String.format(INVALID_COMPRESSION_LEVEL, compressionLevel));
+        }
     }
 
     protected IFunctionAppBase createOrUpdateResource() throws AzureExecutionException {
@@ -230,16 +256,25 @@ public class DeployMojo extends AbstractFunctionMojo {
 
     protected IFunctionApp createFunctionApp(final IFunctionApp functionApp) throws AzureExecutionException {
         getTelemetryProxy().addDefaultProperty(CREATE_NEW_FUNCTION_APP, String.valueOf(true));
-        final ResourceGroup resourceGroup = getOrCreateResourceGroup();
-        final IAppServicePlan appServicePlan = getOrCreateAppServicePlan();
-        AzureMessager.getMessager().info(String.format(CREATE_FUNCTION_APP, getAppName()));
-        final Runtime runtime = getRuntimeOrDefault();
         final Map appSettings = getAppSettings();
+        // provision the independent resources concurrently, only the function app has to wait for all of them
+        final TaskGraph graph = new TaskGraph();
+        final TaskGraph.Step<ResourceGroup> resourceGroup = graph.add("resource group", this::getOrCreateResourceGroup);
+        final IAppServicePlan plan = getAppServicePlan();
+        final TaskGraph.Step<Boolean> planExists = graph.add("app service plan lookup", plan::exists);
+        final TaskGraph.Step<IAppServicePlan> appServicePlan = graph.add("app service plan",
+                () -> planExists.get() ? plan : createAppServicePlan(plan), resourceGroup, planExists);
         // get/create ai instances only if user didn't specify ai connection string in app settings
-        bindApplicationInsights(appSettings, true);
+        graph.add("application insights", () -> {
+            bindApplicationInsights(appSettings, true);
+            return null;
+        }, resourceGroup);
+        graph.execute();
+        AzureMessager.getMessager().info(String.format(CREATE_FUNCTION_APP, getAppName()));
+        final Runtime runtime = getRuntimeOrDefault();
         final IFunctionApp result = (IFunctionApp) functionApp.create().withName(getAppName())
-                .withResourceGroup(resourceGroup.getName())
-                .withPlan(appServicePlan.id())
+                .withResourceGroup(resourceGroup.get().getName())
+                .withPlan(appServicePlan.get().id())
                 .withRuntime(runtime)
                 .withDockerConfiguration(getDockerConfiguration())
                 .withAppSettings(appSettings)
@@ -249,25 +284,32 @@ public class DeployMojo extends AbstractFunctionMojo {
     }
 
     private IAppServicePlan getOrCreateAppServicePlan() {
-        final String servicePlanName = StringUtils.isEmpty(getAppServicePlanName()) ?
-                String.format("asp-%s", getAppName()) : getAppServicePlanName();
-        final String servicePlanGroup = getServicePlanResourceGroup();
-        final IAppServicePlan appServicePlan = az.appServicePlan(servicePlanGroup, servicePlanName);
-        if (!appServicePlan.exists()) {
-            AzureMessager.getMessager().info(CREATE_APP_SERVICE_PLAN);
-            getTelemetryProxy().addDefaultProperty(CREATE_NEW_APP_SERVICE_PLAN, String.valueOf(true));
-            appServicePlan.create()
-                    .withName(servicePlanName)
-                    .withResourceGroup(servicePlanGroup)
-                    .withRegion(getParsedRegion())
-                    .withPricingTier(getParsedPricingTier())
-                    .withOperatingSystem(getRuntimeOrDefault().getOperatingSystem())
-                    .commit();
-            AzureMessager.getMessager().info(String.format(CREATE_APP_SERVICE_DONE, appServicePlan.name()));
-        }
+        final IAppServicePlan appServicePlan = getAppServicePlan();
+        return appServicePlan.exists() ? appServicePlan : createAppServicePlan(appServicePlan);
+    }
+
+    private IAppServicePlan getAppServicePlan() {
+        return az.appServicePlan(getServicePlanResourceGroup(), getServicePlanName());
+    }
+
+    private IAppServicePlan createAppServicePlan(final IAppServicePlan appServicePlan) {
+        AzureMessager.getMessager().info(CREATE_APP_SERVICE_PLAN);
+        getTelemetryProxy().addDefaultProperty(CREATE_NEW_APP_SERVICE_PLAN, String.valueOf(true));
+        appServicePlan.create()
+                .withName(getServicePlanName())
+                .withResourceGroup(getServicePlanResourceGroup())
+                .withRegion(getParsedRegion())
+                .withPricingTier(getParsedPricingTier())
+                .withOperatingSystem(getRuntimeOrDefault().getOperatingSystem())
+                .commit();
+        AzureMessager.getMessager().info(String.format(CREATE_APP_SERVICE_DONE, appServicePlan.name()));
         return appServicePlan;
     }
 
+    private String getServicePlanName() {
+        return StringUtils.isEmpty(getAppServicePlanName()) ? String.format("asp-%s", getAppName()) : getAppServicePlanName();
+    }
+
     private Region getParsedRegion() {
         return Optional.ofNullable(region).map(Region::fromName).orElse(Region.US_WEST);
     }
@@ -398,12 +440,21 @@ public class DeployMojo extends AbstractFunctionMojo {
         AzureMessager.getMessager().info(String.format(DEPLOY_FINISH, getResourcePortalUrl(target.id())));
     }
 
-    private File packageStagingDirectory() {
+    private File packageStagingDirectory() throws AzureExecutionException {
         final File zipFile = new File(getDeploymentStagingDirectoryPath() + ".zip");
         final File stagingDirectory = new File(getDeploymentStagingDirectoryPath());
-
-        ZipUtil.pack(stagingDirectory, zipFile);
-        ZipUtil.removeEntry(zipFile, LOCAL_SETTINGS_FILE);
+        final ZipPackager packager = ZipPackager.builder()
+                .filter(entry -> !StringUtils.equals(entry, LOCAL_SETTINGS_FILE))
+                .compressionLevel(compressionLevel)
+                .storeCompressedEntries(true)
+                .digestAlgorithm(DeployLedger.HASH_ALGORITHM)
+                .build();
+        try {
+            // the digest is computed while writing, so the deploy ledger doesn't need to read the package again
+            DeployLedger.registerHash(zipFile, packager.pack(stagingDirectory, zipFile));
+        } catch (IOException e) {
+            throw new AzureExecutionException(String.format(FAILED_TO_PACKAGE, stagingDirectory.getAbsolutePath()), e);
+        }
         return zipFile;
     }
 
@@ -437,24 +488,26 @@ public class DeployMojo extends AbstractFunctionMojo {
     }
 
     private List<FunctionEntity> listFunctions(final IFunctionApp functionApp) {
-        for (int i = 0; i < LIST_TRIGGERS_MAX_RETRY; i++) {
-            try {
-                AzureMessager.getMessager().info(String.format(SYNCING_TRIGGERS_AND_FETCH_FUNCTION_INFORMATION, i + 1, LIST_TRIGGERS_MAX_RETRY));
-                functionApp.syncTriggers();
-                final List<FunctionEntity> triggers = functionApp.listFunctions();
-                if (CollectionUtils.isNotEmpty(triggers)) {
-                    return triggers;
-                }
-            } catch (RuntimeException e) {
-                // swallow service exception while list triggers
-            }
-            try {
-                Thread.sleep(LIST_TRIGGERS_RETRY_PERIOD_IN_SECONDS * 1000);
-            } catch (InterruptedException e) {
-                // swallow interrupted exception
-            }
-        }
-        throw new AzureToolkitRuntimeException(NO_TRIGGERS_FOUNDED);
+        final AtomicInteger attempt = new AtomicInteger();
+        final Poller.Result<List<FunctionEntity>> result = Poller.builder()
+                .initialInterval(LIST_TRIGGERS_INITIAL_INTERVAL)
+                .maxInterval(LIST_TRIGGERS_MAX_INTERVAL)
+                .timeout(LIST_TRIGGERS_TIMEOUT)
+                .build()
+                .poll(() -> {
+                    try {
+                        AzureMessager.getMessager().info(String.format(SYNCING_TRIGGERS_AND_FETCH_FUNCTION_INFORMATION, attempt.incrementAndGet()));
+                        functionApp.syncTriggers();
+                        return functionApp.listFunctions();
+                    } catch (RuntimeException e) {
+                        // swallow service exception while list triggers
+                        return null;
+                    }
+                }, CollectionUtils::isNotEmpty);
+        if (!result.isDone()) {
+            throw new AzureToolkitRuntimeException(NO_TRIGGERS_FOUNDED);
+        }
+        return result.getValue();
     }
 
     protected void validateArtifactCompileVersion() throws AzureExecutionException {
@@ -18,11 +18,13 @@ import com.microsoft.applicationinsights.core.dependencies.apachecommons.lang3.S
 import com.microsoft.azure.maven.model.DeploymentResource;
 import com.microsoft.azure.toolkit.lib.common.utils.Utils;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
+import com.microsoft.azure.toolkit.lib.legacy.function.DependencyStager;
 import com.microsoft.azure.toolkit.lib.legacy.function.bindings.Binding;
 import com.microsoft.azure.toolkit.lib.legacy.function.bindings.BindingEnum;
 import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionConfiguration;
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.AnnotationHandler;
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.AnnotationHandlerImpl;
+import com.microsoft.azure.toolkit.lib.legacy.function.handlers.FunctionScanner;
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.CommandHandler;
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.CommandHandlerImpl;
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.FunctionCoreToolsHandler;
@@ -35,6 +37,7 @@ import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.DependencyResolutionRequiredException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 
 import java.io.File;
@@ -78,6 +81,12 @@ public class PackageMojo extends AbstractFunctionMojo {
     public static final String SAVE_SUCCESS = "Successfully saved to ";
     public static final String COPY_JARS = "Step 7 of 8: Copying JARs to staging directory";
     public static final String COPY_SUCCESS = "Copied successfully.";
+    public static final String FUNCTION_INDEX_FILE = "azure-functions-index.json";
+    // versions of Azure Functions Core Tools are shared by all the projects
+    public static final File FUNCTION_CORE_TOOLS_STATE_FILE = Paths.get(System.getProperty("user.home"),
+            ".azure", "azure-functions-core-tools.json").toFile();
+    public static final String STAGING_MANIFEST_SUFFIX = ".lib.json";
+    public static final String STAGE_DEPENDENCIES_RESULT = "Staged dependencies: %s.";
     public static final String INSTALL_EXTENSIONS = "Step 8 of 8: Installing function extensions if needed";
     public static final String SKIP_INSTALL_EXTENSIONS_HTTP = "Skip install Function extension for HTTP Trigger Functions";
     public static final String INSTALL_EXTENSIONS_FINISH = "Function extension installation done.";
@@ -97,6 +106,17 @@ public class PackageMojo extends AbstractFunctionMojo {
     private static final String EXTENSION_BUNDLE_ID = "Microsoft.Azure.Functions.ExtensionBundle";
     private static final String SKIP_INSTALL_EXTENSIONS_BUNDLE = "Extension bundle specified, skip install extension";
     private static final String CAN_NOT_FIND_ARTIFACT = "Cannot find the maven artifact, please run `mvn package` first.";
+
+    /**
+     * Hard link dependencies from the local maven repository into the staging directory instead of copying them, if the
+     * file system supports it. The staged jars share their content with the local repository then, so they must not be
+     * modified in place. Dependencies built in the same reactor are always copied.
+     *
+     * @since 1.13.0
+     */
+    @Parameter(property = "functions.linkDependencies", defaultValue = "false")
+    protected boolean linkDependencies;
+
     //region Entry Point
 
     @Override
@@ -152,7 +172,8 @@ public class PackageMojo extends AbstractFunctionMojo {
     //region Process annotations
 
     protected AnnotationHandler getAnnotationHandler() {
-        return new AnnotationHandlerImpl();
+        return new AnnotationHandlerImpl(buildDirectory == null ? null : new File(buildDirectory, FUNCTION_INDEX_FILE),
+                FunctionScanner.DEFAULT_JAR_INDEX_FILE);
     }
 
     protected Set<Method> findAnnotatedMethods(final AnnotationHandler handler) throws MalformedURLException {
@@ -320,14 +341,16 @@ public class PackageMojo extends AbstractFunctionMojo {
         Log.info("");
         Log.info(COPY_JARS + stagingDirectory);
         final File libFolder = Paths.get(stagingDirectory, "lib").toFile();
-        if (libFolder.exists()) {
-            FileUtils.cleanDirectory(libFolder);
-        }
-        for (final Artifact artifact : project.getArtifacts()) {
-            if (!StringUtils.equalsIgnoreCase(artifact.getArtifactId(), "azure-functions-java-library")) {
-                FileUtils.copyFileToDirectory(artifact.getFile(), libFolder);
-            }
-        }
+        final List<File> dependencies = project.getArtifacts().stream()
+                .filter(artifact -> !StringUtils.equalsIgnoreCase(artifact.getArtifactId(), "azure-functions-java-library"))
+                .map(Artifact::getFile)
+                .collect(Collectors.toList());
+        // keep the manifest out of staging directory, so that it won't be deployed
+        final File manifest = new File(stagingDirectory + STAGING_MANIFEST_SUFFIX);
+        final File localRepository = linkDependencies && session != null && session.getLocalRepository() != null ?
+                new File(session.getLocalRepository().getBasedir()) : null;
+        final DependencyStager.StageResult result = new DependencyStager(libFolder, manifest, localRepository).stage(dependencies);
+        Log.info(String.format(STAGE_DEPENDENCIES_RESULT, result));
         FileUtils.copyFileToDirectory(getArtifactFile(), new File(stagingDirectory));
         Log.info(COPY_SUCCESS);
     }
@@ -347,7 +370,7 @@ public class PackageMojo extends AbstractFunctionMojo {
     //region Azure Functions Core Tools task
 
     protected FunctionCoreToolsHandler getFunctionCoreToolsHandler(final CommandHandler commandHandler) {
-        return new FunctionCoreToolsHandlerImpl(commandHandler);
+        return new FunctionCoreToolsHandlerImpl(commandHandler, FUNCTION_CORE_TOOLS_STATE_FILE);
     }
 
     protected void installExtension(final FunctionCoreToolsHandler handler,
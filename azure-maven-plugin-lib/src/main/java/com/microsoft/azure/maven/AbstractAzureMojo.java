@@ -8,7 +8,6 @@ package com.microsoft.azure.maven;
 import com.azure.core.http.policy.HttpLogDetailLevel;
 import com.azure.core.management.AzureEnvironment;
 import com.azure.identity.DeviceCodeInfo;
-import com.microsoft.applicationinsights.internal.channel.common.ApacheSenderFactory;
 import com.microsoft.azure.maven.exception.MavenDecryptException;
 import com.microsoft.azure.maven.model.MavenAuthConfiguration;
 import com.microsoft.azure.maven.model.SubscriptionOption;
@@ -22,6 +21,7 @@ import com.microsoft.azure.toolkit.lib.Azure;
 import com.microsoft.azure.toolkit.lib.auth.Account;
 import com.microsoft.azure.toolkit.lib.auth.AzureAccount;
 import com.microsoft.azure.toolkit.lib.auth.AzureCloud;
+import com.microsoft.azure.toolkit.lib.auth.PersistentTokenCache;
 import com.microsoft.azure.toolkit.lib.auth.core.devicecode.DeviceCodeAccount;
 import com.microsoft.azure.toolkit.lib.auth.exception.AzureLoginException;
 import com.microsoft.azure.toolkit.lib.auth.exception.AzureToolkitAuthenticationException;
@@ -33,7 +33,10 @@ import com.microsoft.azure.toolkit.lib.common.logging.Log;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.model.Subscription;
 import com.microsoft.azure.toolkit.lib.common.proxy.ProxyManager;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+import com.microsoft.azure.toolkit.lib.common.task.HeadlessAzureTaskManager;
 import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemeter;
+import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTracer;
 import com.microsoft.azure.toolkit.lib.common.utils.InstallationIdUtils;
 import com.microsoft.azure.toolkit.lib.common.utils.TextUtils;
 import com.microsoft.azure.toolkit.maven.common.messager.MavenAzureMessager;
@@ -57,6 +60,7 @@ import org.beryx.textio.TextIoFactory;
 import reactor.core.publisher.Mono;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -65,6 +69,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.management.ManagementFactory;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -73,6 +78,10 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
@@ -88,6 +97,8 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
     private static final String AUTH_TYPE = "authType";
     private static final String AUTH_METHOD = "authMethod";
     private static final String TELEMETRY_NOT_ALLOWED = "TelemetryNotAllowed";
+    private static final Duration TELEMETRY_FLUSH_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration TASK_SHUTDOWN_TIMEOUT = Duration.ofSeconds(1);
     private static final String INIT_FAILURE = "InitFailure";
     private static final String AZURE_INIT_FAIL = "Failed to authenticate with Azure. Please check your configuration.";
     private static final String FAILURE_REASON = "failureReason";
@@ -95,6 +106,10 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
     private static final String CONFIGURATION_PATH = Paths.get(System.getProperty("user.home"),
             ".azure", "mavenplugins.properties").toString();
     private static final String FIRST_RUN_KEY = "first.run";
+    private static final String INSTALLATION_ID_PROPERTY_KEY = "installation.id";
+    // resolved once per machine and persisted, in background so that mojo startup only waits for it when it's needed
+    private static final CompletableFuture<String> INSTALLATION_ID = CompletableFuture.supplyAsync(AbstractAzureMojo::loadInstallationId)
+            .exceptionally(e -> null);
     private static final String PRIVACY_STATEMENT = "\nData/Telemetry\n" +
             "---------\n" +
             "This project collects usage data and sends it to Microsoft to help improve our products and services.\n" +
@@ -195,6 +210,14 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
     @Parameter(property = "auth")
     protected MavenAuthConfiguration auth;
 
+    /**
+     * Write the spans of azure operations to this file in Chrome trace-event format after the goal is executed, open it
+     * in chrome://tracing or https://ui.perfetto.dev to see which call takes the time, e.g. {@code -DtraceFile=target/azure-trace.json}.
+     * Spans of all the goals executed in the same build are written to the file.
+     */
+    @Parameter(property = "traceFile")
+    protected File traceFile;
+
     @Component
     protected SettingsDecrypter settingsDecrypter;
 
@@ -207,11 +230,12 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
     @Getter
     protected Map<String, String> telemetries = new HashMap<>();
 
+    // completes when the opt-out event is queued, it must be queued before the telemetry is flushed
+    private CompletableFuture<Void> telemetryNotAllowedEvent = CompletableFuture.completedFuture(null);
+
     @Getter
     private final String sessionId = UUID.randomUUID().toString();
 
-    private final String installationId = InstallationIdUtils.getHashMac();
-
     //endregion
 
     public String getBuildDirectoryAbsolutePath() {
@@ -219,7 +243,7 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
     }
 
     public String getInstallationId() {
-        return installationId == null ? "" : installationId;
+        return StringUtils.defaultString(INSTALLATION_ID.join());
     }
 
     public String getPluginName() {
@@ -236,6 +260,14 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
                 : String.format("%s/%s", getPluginName(), getPluginVersion());
     }
 
+    /**
+     * User agent without waiting for the installation id, which is added when the agent is set again before login.
+     */
+    private String getInitialUserAgent() {
+        return !isAllowTelemetry() || INSTALLATION_ID.isDone() ? getUserAgent() :
+                String.format("%s/%s %s:%s", getPluginName(), getPluginVersion(), SESSION_ID_KEY, getSessionId());
+    }
+
     public int getHttpProxyPort() {
         return NumberUtils.toInt(httpProxyPort, 0);
     }
@@ -407,8 +439,11 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
     protected void initTelemetryProxy() {
         telemetryProxy = new AppInsightsProxy(this);
         if (!isAllowTelemetry()) {
-            telemetryProxy.trackEvent(TELEMETRY_NOT_ALLOWED);
             telemetryProxy.disable();
+            // the opt-out event is the only one sent, queue it once the installation id is resolved instead of waiting
+            final AppInsightsProxy proxy = telemetryProxy;
+            telemetryNotAllowedEvent = INSTALLATION_ID.thenAccept(id -> proxy.trackDisabledEvent(TELEMETRY_NOT_ALLOWED,
+                    Collections.singletonMap(INSTALLATION_ID_KEY, StringUtils.defaultString(id))));
         } else {
             AzureTelemeter.setClient(telemetryProxy.getClient());
             AzureTelemeter.setCommonProperties(this.getTelemetryProperties());
@@ -432,7 +467,8 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
     @Override
     public Map<String, String> getTelemetryProperties() {
         final Map<String, String> map = new HashMap<>();
-        map.put(INSTALLATION_ID_KEY, getInstallationId());
+        // only wait for the installation id if the properties are going to be sent
+        map.put(INSTALLATION_ID_KEY, isAllowTelemetry() ? getInstallationId() : StringUtils.defaultString(INSTALLATION_ID.getNow(null)));
         map.put(PLUGIN_NAME_KEY, getPluginName());
         map.put(PLUGIN_VERSION_KEY, getPluginVersion());
         map.put(SUBSCRIPTION_ID_KEY, getSubscriptionId());
@@ -454,10 +490,17 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
 
     @Override
     public void execute() throws MojoExecutionException {
+        final long start = System.nanoTime();
+        if (traceFile != null) {
+            AzureTracer.getInstance().setEnabled(true);
+        }
+        HeadlessAzureTaskManager taskManager = null;
         try {
             AzureMessager.setDefaultMessager(new MavenAzureMessager());
+            AzureTaskManager.register(new HeadlessAzureTaskManager());
+            taskManager = acquireTaskManager();
             Azure.az().config().setLogLevel(HttpLogDetailLevel.NONE.name());
-            Azure.az().config().setUserAgent(getUserAgent());
+            Azure.az().config().setUserAgent(getInitialUserAgent());
             // init proxy manager
             ProxyUtils.initProxy(Optional.ofNullable(this.session).map(MavenSession::getRequest).orElse(null));
             initTelemetryProxy();
@@ -471,7 +514,7 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
             final Properties prop = new Properties();
             if (isFirstRun(prop)) {
                 infoWithMultipleLines(PRIVACY_STATEMENT);
-                updateConfigurationFile(prop);
+                updateConfigurationFile(FIRST_RUN_KEY, "false");
             }
 
             if (isSkipMojo()) {
@@ -490,17 +533,63 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
             }
             onMojoError(e);
         } finally {
-            // When maven goal executes too quick, The HTTPClient of AI SDK may not fully initialized and will step
-            // into endless loop when close, we need to call it in main thread.
-            // Refer here for detail codes: https://github.com/Microsoft/ApplicationInsights-Java/blob/master/core/src
-            // /main/java/com/microsoft/applicationinsights/internal/channel/common/ApacheSender43.java#L103
-            try {
-                // Sleep to wait ai sdk flush telemetries
-                Thread.sleep(2 * 1000);
-            } catch (InterruptedException e) {
-                // swallow this exception
+            // Events are sent in background, wait until they are handed to the channel or the deadline is reached
+            // instead of sleeping for a fixed time, the channel is stopped when the JVM exits.
+            if (telemetryProxy != null) {
+                awaitTelemetryNotAllowedEvent();
+                telemetryProxy.flush(TELEMETRY_FLUSH_TIMEOUT);
+            }
+            releaseTaskManager(taskManager);
+            exportTrace(start);
+            if (PersistentTokenCache.getInstance().getHitCount() > 0) {
+                Log.debug(String.format("%d access token(s) served from persistent token cache.", PersistentTokenCache.getInstance().getHitCount()));
             }
-            ApacheSenderFactory.INSTANCE.create().close();
+        }
+    }
+
+    private void awaitTelemetryNotAllowedEvent() {
+        try {
+            telemetryNotAllowedEvent.get(TELEMETRY_FLUSH_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            Log.debug(String.format("Failed to queue telemetry event %s: %s", TELEMETRY_NOT_ALLOWED, e.getMessage()));
+        }
+    }
+
+    @Nullable
+    private static HeadlessAzureTaskManager acquireTaskManager() {
+        final AzureTaskManager manager = AzureTaskManager.getInstance();
+        if (manager instanceof HeadlessAzureTaskManager) {
+            ((HeadlessAzureTaskManager) manager).acquire();
+            return (HeadlessAzureTaskManager) manager;
+        }
+        return null;
+    }
+
+    // the manager is shared by goals run in parallel (mvn -T), it's only shut down when the last running goal ends
+    private static void releaseTaskManager(@Nullable final HeadlessAzureTaskManager manager) {
+        if (manager == null) {
+            return;
+        }
+        final HeadlessAzureTaskManager.Stats stats = manager.getStats();
+        if (!manager.release(TASK_SHUTDOWN_TIMEOUT)) {
+            Log.debug("Background tasks are not finished before the goal ends, they are interrupted.");
+        }
+        Log.debug(String.format("Background tasks completed: %d, queued: %d, active: %d, run by caller: %d, rejected: %d, max threads: %d.",
+            stats.getCompleted(), stats.getQueued(), stats.getActive(), stats.getCallerRuns(), stats.getRejected(), stats.getLargestPoolSize()));
+    }
+
+    private void exportTrace(final long start) {
+        if (traceFile == null) {
+            return;
+        }
+        AzureTracer.getInstance().record(this.getClass().getSimpleName(), "goal", start, System.nanoTime());
+        try {
+            AzureTracer.getInstance().export(traceFile);
+            Log.info(String.format("Trace of azure operations is written to %s", traceFile.getAbsolutePath()));
+        } catch (IOException e) {
+            Log.warn(String.format("Failed to write trace of azure operations to %s: %s", traceFile.getAbsolutePath(), e.getMessage()));
         }
     }
 
@@ -594,9 +683,11 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
         return true;
     }
 
-    private void updateConfigurationFile(Properties prop) {
+    private static synchronized void updateConfigurationFile(String key, String value) {
+        // reload the file as it may be updated by the installation id resolver in background
+        final Properties prop = loadConfigurationFile();
         try (OutputStream output = new FileOutputStream(CONFIGURATION_PATH)) {
-            prop.setProperty(FIRST_RUN_KEY, "false");
+            prop.setProperty(key, value);
             prop.store(output, "Azure Maven Plugin configurations");
         } catch (Exception e) {
             // catch exceptions here to avoid blocking mojo execution.
@@ -604,6 +695,32 @@ public abstract class AbstractAzureMojo extends AbstractMojo implements Telemetr
         }
     }
 
+    private static Properties loadConfigurationFile() {
+        final Properties prop = new Properties();
+        final File configurationFile = new File(CONFIGURATION_PATH);
+        if (configurationFile.exists()) {
+            try (InputStream input = new FileInputStream(configurationFile)) {
+                prop.load(input);
+            } catch (Exception e) {
+                Log.debug(e.getMessage());
+            }
+        }
+        return prop;
+    }
+
+    private static String loadInstallationId() {
+        final String persisted = loadConfigurationFile().getProperty(INSTALLATION_ID_PROPERTY_KEY);
+        if (InstallationIdUtils.isValidHashMac(persisted)) {
+            return persisted;
+        }
+        final String installationId = InstallationIdUtils.getHashMac();
+        if (InstallationIdUtils.isValidHashMac(installationId)) {
+            new File(CONFIGURATION_PATH).getParentFile().mkdirs();
+            updateConfigurationFile(INSTALLATION_ID_PROPERTY_KEY, installationId);
+        }
+        return installationId;
+    }
+
     protected static class DefaultUncaughtExceptionHandler implements Thread.UncaughtExceptionHandler {
         @Override
         public void uncaughtException(Thread t, Throwable e) {
@@ -7,6 +7,7 @@ package com.microsoft.azure.maven.telemetry;
 
 import com.microsoft.applicationinsights.TelemetryClient;
 import com.microsoft.applicationinsights.internal.channel.common.ApacheSenderFactory;
+import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemetryQueue;
 import com.microsoft.azure.toolkit.lib.common.utils.InstallationIdUtils;
 
 import java.util.HashMap;
@@ -54,9 +55,11 @@ public enum AppInsightHelper implements TelemetryProxy {
             return;
         }
         try {
-            final Map<String, String> properties = mergeProperties(customProperties, overrideDefaultProperties);
-            client.trackEvent(eventName, properties, null);
-            client.flush();
+            final Map<String, String> properties;
+            synchronized (this) {
+                properties = mergeProperties(customProperties, overrideDefaultProperties);
+            }
+            AzureTelemetryQueue.getInstance().offer(client, eventName, properties);
         } catch (Exception ex) {
             // swallow this exception
             ex.printStackTrace();
@@ -83,14 +86,15 @@ public enum AppInsightHelper implements TelemetryProxy {
         return InstallationIdUtils.getHashMac();
     }
 
-    public void addDefaultProperty(String key, String value) {
+    public synchronized void addDefaultProperty(String key, String value) {
         defaultProperties.put(key, value);
     }
 
     protected Map<String, String> mergeProperties(Map<String, String> customProperties,
                                                   boolean overrideDefaultProperties) {
+        // the result is sent by the telemetry thread, never hand it the live default properties
         if (customProperties == null) {
-            return defaultProperties;
+            return new HashMap<>(defaultProperties);
         }
 
         final Map<String, String> baseMap = overrideDefaultProperties ? defaultProperties : customProperties;
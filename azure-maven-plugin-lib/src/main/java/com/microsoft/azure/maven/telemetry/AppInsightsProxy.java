@@ -9,25 +9,32 @@ import com.microsoft.applicationinsights.TelemetryClient;
 import com.microsoft.applicationinsights.channel.TelemetryChannel;
 import com.microsoft.applicationinsights.channel.concrete.TelemetryChannelBase;
 import com.microsoft.applicationinsights.channel.concrete.inprocess.InProcessTelemetryChannel;
+import com.microsoft.applicationinsights.internal.channel.common.ApacheSenderFactory;
 import com.microsoft.applicationinsights.internal.config.TelemetryConfigurationFactory;
+import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemetryQueue;
 
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+@Slf4j
 public class AppInsightsProxy implements TelemetryProxy {
 
     public static final String CONFIGURATION_FILE = "ApplicationInsights.xml";
     public static final Pattern INSTRUMENTATION_KEY_PATTERN = Pattern.compile("<InstrumentationKey>(.*)" +
         "</InstrumentationKey>");
+    private static final long CHANNEL_STOP_TIMEOUT_MILLIS = 1000;
     @Getter
     protected TelemetryClient client;
 
@@ -55,11 +62,7 @@ public class AppInsightsProxy implements TelemetryProxy {
     private com.microsoft.applicationinsights.TelemetryConfiguration readConfigurationFromFile() {
         final com.microsoft.applicationinsights.TelemetryConfiguration telemetryConfiguration =
             new com.microsoft.applicationinsights.TelemetryConfiguration();
-        final Map<String, String> channelProperties = new HashMap<>();
-        channelProperties.put(TelemetryChannelBase.FLUSH_BUFFER_TIMEOUT_IN_SECONDS_NAME, "1");
-        final TelemetryChannel channel = new InProcessTelemetryChannel(channelProperties);
-
-        telemetryConfiguration.setChannel(channel);
+        telemetryConfiguration.setChannel(ChannelHolder.CHANNEL);
 
         final String key = readInstrumentationKeyFromConfiguration();
         if (StringUtils.isNotEmpty(key)) {
@@ -94,7 +97,8 @@ public class AppInsightsProxy implements TelemetryProxy {
     }
     // end
 
-    public void addDefaultProperty(String key, String value) {
+    // could be called concurrently, e.g. by steps of a TaskGraph
+    public synchronized void addDefaultProperty(String key, String value) {
         if (StringUtils.isEmpty(key)) {
             return;
         }
@@ -126,23 +130,42 @@ public class AppInsightsProxy implements TelemetryProxy {
         if (!isEnabled) {
             return;
         }
+        sendEvent(eventName, customProperties, overrideDefaultProperties);
+    }
+
+    /**
+     * Track the event even if the proxy is disabled, it's used to report that telemetry is not allowed.
+     */
+    public void trackDisabledEvent(final String eventName, final Map<String, String> customProperties) {
+        sendEvent(eventName, customProperties, true);
+    }
 
-        final Map<String, String> properties = mergeProperties(getDefaultProperties(), customProperties,
-            overrideDefaultProperties);
+    private void sendEvent(final String eventName, final Map<String, String> customProperties,
+                           final boolean overrideDefaultProperties) {
+        // the merged map is sent by the telemetry thread, so it must be a copy taken while no default is being added
+        final Map<String, String> properties;
+        synchronized (this) {
+            properties = mergeProperties(getDefaultProperties(), customProperties, overrideDefaultProperties);
+        }
 
-        client.trackEvent(eventName, properties, null);
-        client.flush();
+        AzureTelemetryQueue.getInstance().offer(client, eventName, properties);
+    }
+
+    /**
+     * Hand all tracked events to the channel, waiting at most {@code timeout}. The channel keeps sending them in
+     * background, it's shared by all the goals run in the JVM and only stopped when the JVM exits.
+     */
+    public void flush(final Duration timeout) {
+        AzureTelemetryQueue.getInstance().drain(timeout);
     }
 
     protected Map<String, String> mergeProperties(Map<String, String> defaultProperties,
                                                   Map<String, String> customProperties,
                                                   boolean overrideDefaultProperties) {
-        if (customProperties == null) {
-            return defaultProperties;
-        }
-
         final Map<String, String> merged = new HashMap<>();
-        if (overrideDefaultProperties) {
+        if (customProperties == null) {
+            merged.putAll(defaultProperties);
+        } else if (overrideDefaultProperties) {
             merged.putAll(defaultProperties);
             merged.putAll(customProperties);
         } else {
@@ -157,4 +180,38 @@ public class AppInsightsProxy implements TelemetryProxy {
         }
         return merged;
     }
+
+    private static class ChannelHolder {
+        private static final TelemetryChannel CHANNEL = createChannel();
+
+        private static TelemetryChannel createChannel() {
+            final Map<String, String> channelProperties = new HashMap<>();
+            channelProperties.put(TelemetryChannelBase.FLUSH_BUFFER_TIMEOUT_IN_SECONDS_NAME, "1");
+            final TelemetryChannel channel = new InProcessTelemetryChannel(channelProperties);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> stop(channel), "azure-telemetry-shutdown"));
+            return channel;
+        }
+
+        /**
+         * Send the buffered events and close the http client of AI SDK, which is shared by all channels. Closing it waits
+         * (spinning) until the client is created by another thread, which may never finish if the JVM is exiting, so it's
+         * done in a daemon thread and the JVM exit is delayed by at most {@link #CHANNEL_STOP_TIMEOUT_MILLIS}.
+         */
+        private static void stop(final TelemetryChannel channel) {
+            final Thread stopper = new Thread(() -> {
+                channel.stop(CHANNEL_STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                ApacheSenderFactory.INSTANCE.create().close();
+            }, "azure-telemetry-stop");
+            stopper.setDaemon(true);
+            stopper.start();
+            try {
+                stopper.join(CHANNEL_STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (stopper.isAlive()) {
+                log.debug("Telemetry channel is not stopped before the JVM exits.");
+            }
+        }
+    }
 }
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.maven.utils;
+
+import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
+import com.microsoft.azure.toolkit.lib.common.logging.Log;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+import com.microsoft.azure.toolkit.lib.common.task.HeadlessAzureTaskManager;
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Run steps (e.g. looking up or creating azure resources, each waiting on its own long running operation) concurrently
+ * with bounded parallelism, a step is started as soon as all the steps it depends on are finished. Steps are added in
+ * dependency order, so the graph is always acyclic, e.g.
+ * <pre>
+ * final TaskGraph graph = new TaskGraph();
+ * final TaskGraph.Step&lt;ResourceGroup&gt; group = graph.add("resource group", this::getOrCreateResourceGroup);
+ * final TaskGraph.Step&lt;IAppServicePlan&gt; plan = graph.add("app service plan", this::getOrCreateAppServicePlan, group);
+ * graph.execute();
+ * </pre>
+ * Steps run on pooled threads of the registered {@link AzureTaskManager}, or of a task manager owned by the graph if
+ * none is registered. Parallelism could be tuned with system property {@value #PARALLELISM}, 4 by default.
+ */
+public class TaskGraph {
+    public static final String PARALLELISM = "azure.provision.parallelism";
+
+    private final int parallelism;
+    private final List<Step<?>> steps = new ArrayList<>();
+
+    public TaskGraph() {
+        this(Integer.getInteger(PARALLELISM, 4));
+    }
+
+    public TaskGraph(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * @param dependencies steps which must be finished successfully before this step starts, results of them could
+     *                     be got by {@link Step#get()} in {@code callable}
+     */
+    @Nonnull
+    public <T> Step<T> add(@Nonnull final String name, @Nonnull final Callable<T> callable, final Step<?>... dependencies) {
+        final Step<T> step = new Step<>(name, callable, Arrays.asList(dependencies));
+        steps.add(step);
+        return step;
+    }
+
+    /**
+     * Run all the steps and wait until all of them are finished, a step is skipped if any of its dependencies fails.
+     *
+     * @throws AzureExecutionException the failure of the first failed step (in the order they are added), unchecked
+     *                                 exceptions are rethrown as they are
+     */
+    public void execute() throws AzureExecutionException {
+        if (steps.isEmpty()) {
+            return;
+        }
+        final AzureTaskManager registered = AzureTaskManager.getInstance();
+        final HeadlessAzureTaskManager owned = registered == null ? new HeadlessAzureTaskManager(parallelism) : null;
+        final AzureTaskManager manager = registered == null ? owned : registered;
+        final BlockingQueue<Step<?>> finished = new LinkedBlockingQueue<>();
+        final List<Step<?>> pending = new ArrayList<>(steps);
+        final long start = System.nanoTime();
+        int running = 0;
+        try {
+            // steps are submitted from this thread only, so that they are children of the operation executing the graph
+            while (!pending.isEmpty() || running > 0) {
+                final Iterator<Step<?>> iterator = pending.iterator();
+                while (iterator.hasNext() && running < parallelism) {
+                    final Step<?> step = iterator.next();
+                    final Optional<Step<?>> failed = step.dependencies.stream().filter(d -> d.future.isCompletedExceptionally()).findFirst();
+                    if (failed.isPresent()) {
+                        step.skip(failed.get());
+                        iterator.remove();
+                    } else if (step.dependencies.stream().allMatch(d -> d.future.isDone())) {
+                        iterator.remove();
+                        running++;
+                        step.submit(manager, start, finished);
+                    }
+                }
+                if (running == 0 && pending.isEmpty()) {
+                    // the rest of the steps are all skipped
+                    break;
+                } else if (running == 0) {
+                    throw new IllegalStateException(String.format("Steps %s depend on steps not in this graph.",
+                            pending.stream().map(Step::getName).collect(Collectors.toList())));
+                }
+                // keep waiting for the others even if a step fails, long running operations already sent can't be cancelled anyway
+                finished.take();
+                running--;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureExecutionException("Interrupted while provisioning resources.", e);
+        } finally {
+            if (owned != null) {
+                owned.shutdown(Duration.ZERO);
+            }
+        }
+        final long sequential = steps.stream().mapToLong(step -> step.getDuration().toMillis()).sum();
+        Log.debug(String.format("%d steps finished in %d ms, %d ms in sequence.", steps.size(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis(), sequential));
+        for (final Step<?> step : steps) {
+            if (step.failure != null) {
+                throwFailure(step.failure);
+            }
+        }
+    }
+
+    private static void throwFailure(@Nonnull final Throwable failure) throws AzureExecutionException {
+        if (failure instanceof AzureExecutionException) {
+            throw (AzureExecutionException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        throw new AzureExecutionException(failure.getMessage(), failure);
+    }
+
+    public static class Step<T> {
+        @Getter
+        private final String name;
+        private final Callable<T> callable;
+        private final List<Step<?>> dependencies;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        @Nullable
+        private volatile T result;
+        @Nullable
+        private volatile Throwable failure;
+        /**
+         * offset from the start of the graph
+         */
+        @Getter
+        private volatile Duration startTime = Duration.ZERO;
+        @Getter
+        private volatile Duration duration = Duration.ZERO;
+
+        private Step(final String name, final Callable<T> callable, final List<Step<?>> dependencies) {
+            this.name = name;
+            this.callable = callable;
+            this.dependencies = dependencies;
+        }
+
+        /**
+         * @return result of the step, only available in dependent steps or after {@link TaskGraph#execute()}
+         */
+        public T get() {
+            if (!future.isDone()) {
+                throw new IllegalStateException(String.format("Step '%s' is not finished yet.", name));
+            }
+            return future.join();
+        }
+
+        private void submit(final AzureTaskManager manager, final long graphStart, final BlockingQueue<Step<?>> finished) {
+            manager.runOnPooledThreadAsObservable(new AzureTask<>(name, () -> run(graphStart)))
+                    .subscribe(ignore -> {
+                    }, error -> finish(error, finished), () -> finish(null, finished));
+        }
+
+        private void finish(@Nullable final Throwable error, final BlockingQueue<Step<?>> finished) {
+            if (failure == null && error != null) {
+                failure = error;
+            }
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+            finished.add(this);
+        }
+
+        private void skip(final Step<?> failed) {
+            future.completeExceptionally(new CompletionException(String.format("Step '%s' is skipped as step '%s' failed.", name, failed.name),
+                    failed.failure));
+        }
+
+        /**
+         * failures are kept instead of thrown, they are rethrown by {@link TaskGraph#execute()}.
+         */
+        private void run(final long graphStart) {
+            final long start = System.nanoTime();
+            startTime = Duration.ofNanos(start - graphStart);
+            try {
+                result = callable.call();
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                duration = Duration.ofNanos(System.nanoTime() - start);
+                Log.debug(String.format("Step '%s' %s in %d ms (started at +%d ms).", name, failure == null ? "finished" : "failed",
+                        duration.toMillis(), startTime.toMillis()));
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.maven.telemetry;
+
+import com.microsoft.applicationinsights.TelemetryClient;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class AppInsightsProxyTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private TelemetryConfiguration configuration;
+
+    @Before
+    public void setUp() {
+        configuration = () -> new HashMap<>();
+    }
+
+    @Test
+    public void flushSendsEventsOfEachGoal() {
+        final TelemetryClient client = mock(TelemetryClient.class);
+        final AppInsightsProxy first = createProxy(client);
+        first.trackEvent("first.start");
+        first.flush(TIMEOUT);
+        verify(client).trackEvent(eq("first.start"), any(), any());
+        verify(client, atLeastOnce()).flush();
+
+        // events of the next goal in the same JVM are still sent after the previous goal is flushed
+        final AppInsightsProxy second = createProxy(client);
+        second.trackEvent("second.start");
+        second.flush(TIMEOUT);
+        verify(client).trackEvent(eq("second.start"), any(), any());
+    }
+
+    @Test
+    public void disabledProxyTracksNothing() {
+        final TelemetryClient client = mock(TelemetryClient.class);
+        final AppInsightsProxy proxy = createProxy(client);
+        proxy.disable();
+        proxy.trackEvent("disabled");
+        proxy.flush(TIMEOUT);
+        verify(client, never()).trackEvent(eq("disabled"), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void defaultPropertiesAddedAfterTrackingAreNotSent() {
+        final TelemetryClient client = mock(TelemetryClient.class);
+        final AppInsightsProxy proxy = createProxy(client);
+        proxy.addDefaultProperty("goal", "deploy");
+        proxy.addDefaultProperty("empty", "");
+        proxy.trackEvent("skip");
+        proxy.addDefaultProperty("later", "value");
+        proxy.addDefaultProperty("goal", "changed");
+        proxy.flush(TIMEOUT);
+
+        final ArgumentCaptor<Map<String, String>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(client).trackEvent(eq("skip"), captor.capture(), any());
+        final Map<String, String> sent = captor.getValue();
+        assertNotSame(proxy.getDefaultProperties(), sent);
+        assertEquals("deploy", sent.get("goal"));
+        assertFalse(sent.containsKey("later"));
+        assertFalse(sent.containsKey("empty"));
+    }
+
+    private AppInsightsProxy createProxy(final TelemetryClient client) {
+        final AppInsightsProxy proxy = new AppInsightsProxy(configuration);
+        proxy.client = client;
+        proxy.enable();
+        return proxy;
+    }
+}
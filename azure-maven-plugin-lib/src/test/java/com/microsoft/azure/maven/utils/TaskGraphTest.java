@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+package com.microsoft.azure.maven.utils;
+
+import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
+import com.microsoft.azure.toolkit.lib.common.operation.IAzureOperation;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+import com.microsoft.azure.toolkit.lib.common.task.HeadlessAzureTaskManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+public class TaskGraphTest {
+    private static final long LOOKUP_MILLIS = 200;
+    private static final long CREATE_MILLIS = 600;
+
+    private MockArm arm;
+
+    @Before
+    public void setUp() {
+        arm = new MockArm();
+    }
+
+    @Test
+    public void testExecuteConcurrently() throws Exception {
+        final TaskGraph graph = new TaskGraph();
+        final TaskGraph.Step<String> group = graph.add("resource group", () -> arm.call("group", LOOKUP_MILLIS));
+        final TaskGraph.Step<String> planLookup = graph.add("plan lookup", () -> arm.call("planLookup", LOOKUP_MILLIS));
+        final TaskGraph.Step<String> plan = graph.add("plan", () -> arm.call("plan", CREATE_MILLIS), group, planLookup);
+        final TaskGraph.Step<String> insights = graph.add("insights", () -> arm.call("insights", CREATE_MILLIS), group);
+        final TaskGraph.Step<String> app = graph.add("app", () -> {
+            assertEquals("plan", plan.get());
+            assertEquals("insights", insights.get());
+            return arm.call("app", CREATE_MILLIS);
+        }, plan, insights);
+        graph.execute();
+
+        assertEquals("app", app.get());
+        arm.assertBefore("group", "plan");
+        arm.assertBefore("planLookup", "plan");
+        arm.assertBefore("group", "insights");
+        arm.assertBefore("plan", "app");
+        arm.assertBefore("insights", "app");
+        // independent calls overlap instead of running in sequence
+        arm.assertOverlap("group", "planLookup");
+        arm.assertOverlap("plan", "insights");
+        assertTrue(app.getStartTime().toMillis() >= LOOKUP_MILLIS + CREATE_MILLIS);
+    }
+
+    @Test
+    public void testExecuteWithBoundedParallelism() throws Exception {
+        final TaskGraph graph = new TaskGraph(1);
+        graph.add("group", () -> arm.call("group", LOOKUP_MILLIS));
+        graph.add("planLookup", () -> arm.call("planLookup", LOOKUP_MILLIS));
+        graph.add("insights", () -> arm.call("insights", LOOKUP_MILLIS));
+        graph.execute();
+        // independent calls still run one at a time
+        arm.assertBefore("group", "planLookup");
+        arm.assertBefore("planLookup", "insights");
+    }
+
+    @Test
+    public void testExecuteWithFailure() throws Exception {
+        final RuntimeException failure = new IllegalStateException("resource group quota exceeded");
+        final TaskGraph graph = new TaskGraph();
+        final TaskGraph.Step<String> group = graph.add("group", () -> {
+            arm.call("group", LOOKUP_MILLIS);
+            throw failure;
+        });
+        final TaskGraph.Step<String> planLookup = graph.add("planLookup", () -> arm.call("planLookup", LOOKUP_MILLIS));
+        final TaskGraph.Step<String> plan = graph.add("plan", () -> arm.call("plan", CREATE_MILLIS), group, planLookup);
+        final TaskGraph.Step<String> app = graph.add("app", () -> arm.call("app", CREATE_MILLIS), plan);
+        try {
+            graph.execute();
+            fail("failure of step should be rethrown");
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+        }
+        // independent steps still run, dependents of the failed step are skipped
+        assertEquals("planLookup", planLookup.get());
+        assertFalse(arm.isCalled("plan"));
+        assertFalse(arm.isCalled("app"));
+        assertEquals(Duration.ZERO, app.getDuration());
+    }
+
+    @Test
+    public void testExecuteWithCheckedException() {
+        final AzureExecutionException failure = new AzureExecutionException("invalid instrumentation key");
+        final TaskGraph graph = new TaskGraph();
+        graph.add("insights", () -> {
+            throw failure;
+        });
+        try {
+            graph.execute();
+            fail("failure of step should be rethrown");
+        } catch (AzureExecutionException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    @Test
+    public void testStepsAreChildrenOfCurrentOperation() {
+        final HeadlessAzureTaskManager manager = new HeadlessAzureTaskManager();
+        final AtomicReference<IAzureOperation> deploy = new AtomicReference<>();
+        final AtomicReference<IAzureOperation> step = new AtomicReference<>();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        manager.runAndWait(new AzureTask<>("deploy", () -> {
+            deploy.set(IAzureOperation.current());
+            final TaskGraph graph = new TaskGraph();
+            graph.add("group", () -> {
+                step.set(IAzureOperation.current());
+                return arm.call("group", 0);
+            });
+            try {
+                graph.execute();
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        }));
+        assertNull(failure.get());
+        assertNotNull(step.get());
+        assertEquals("group", ((AzureTask<?>) step.get()).getTitle().toString());
+        assertSame(deploy.get(), step.get().getParent());
+    }
+
+    @Test
+    public void testStepsRunOnRegisteredTaskManager() throws Exception {
+        AzureTaskManager.register(new HeadlessAzureTaskManager());
+        assumeTrue(AzureTaskManager.getInstance() instanceof HeadlessAzureTaskManager);
+        final HeadlessAzureTaskManager manager = (HeadlessAzureTaskManager) AzureTaskManager.getInstance();
+        final TaskGraph graph = new TaskGraph();
+        final TaskGraph.Step<Integer> group = graph.add("group", () -> manager.getStats().getActive());
+        final TaskGraph.Step<Integer> plan = graph.add("plan", () -> manager.getStats().getActive(), group);
+        graph.execute();
+        // the step itself is an active task of the registered manager
+        assertTrue(group.get() >= 1);
+        assertTrue(plan.get() >= 1);
+    }
+
+    /**
+     * Simulates long running operations of azure resource manager, records when each of them starts and ends.
+     */
+    private static class MockArm {
+        private final Map<String, Long> starts = new ConcurrentHashMap<>();
+        private final Map<String, Long> ends = new ConcurrentHashMap<>();
+
+        String call(final String resource, final long millis) throws InterruptedException {
+            starts.put(resource, System.nanoTime());
+            Thread.sleep(millis);
+            ends.put(resource, System.nanoTime());
+            return resource;
+        }
+
+        boolean isCalled(final String resource) {
+            return ends.containsKey(resource);
+        }
+
+        void assertBefore(final String first, final String then) {
+            assertTrue(String.format("%s should finish before %s starts", first, then), ends.get(first) <= starts.get(then));
+        }
+
+        void assertOverlap(final String one, final String another) {
+            assertTrue(String.format("%s and %s should run concurrently", one, another),
+                    starts.get(one) < ends.get(another) && starts.get(another) < ends.get(one));
+        }
+    }
+}
@@ -30,6 +30,7 @@ import com.microsoft.azure.toolkit.lib.appservice.service.impl.WebAppDeploymentS
 import com.microsoft.azure.toolkit.lib.appservice.utils.Utils;
 import com.microsoft.azure.toolkit.lib.auth.Account;
 import com.microsoft.azure.toolkit.lib.auth.AzureAccount;
+import com.microsoft.azure.toolkit.lib.auth.util.HttpClientProvider;
 import com.microsoft.azure.toolkit.lib.common.cache.Cacheable;
 import com.microsoft.azure.toolkit.lib.common.cache.Preload;
 import com.microsoft.azure.toolkit.lib.common.entity.IAzureResourceEntity;
@@ -232,6 +233,7 @@ public class AzureAppService extends SubscriptionScoped<AzureAppService> impleme
         final HttpLogDetailLevel logLevel = Optional.ofNullable(config.getLogLevel()).map(HttpLogDetailLevel::valueOf).orElse(HttpLogDetailLevel.NONE);
         final AzureProfile azureProfile = new AzureProfile(account.getEnvironment());
         return AzureResourceManager.configure()
+                .withHttpClient(HttpClientProvider.getHttpClient())
                 .withLogLevel(logLevel)
                 .withPolicy(getUserAgentPolicy(userAgent)) // set user agent with policy
                 .authenticate(account.getTokenCredential(sid), azureProfile)
@@ -8,6 +8,7 @@ package com.microsoft.azure.toolkit.lib.appservice.manager;
 import com.azure.core.annotation.BodyParam;
 import com.azure.core.annotation.Delete;
 import com.azure.core.annotation.Get;
+import com.azure.core.annotation.HeaderParam;
 import com.azure.core.annotation.Headers;
 import com.azure.core.annotation.Host;
 import com.azure.core.annotation.HostParam;
@@ -34,6 +35,7 @@ import com.microsoft.azure.toolkit.lib.appservice.model.TunnelStatus;
 import com.microsoft.azure.toolkit.lib.appservice.service.IAppService;
 import com.microsoft.azure.toolkit.lib.appservice.service.IFileClient;
 import com.microsoft.azure.toolkit.lib.appservice.service.IProcessClient;
+import com.microsoft.azure.toolkit.lib.appservice.utils.FileSyncUtils;
 import com.microsoft.azure.toolkit.lib.appservice.utils.Utils;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
@@ -49,6 +51,7 @@ import java.nio.ByteBuffer;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class AppServiceKuduManager implements IFileClient, IProcessClient {
@@ -113,6 +116,23 @@ public class AppServiceKuduManager implements IFileClient, IProcessClient {
         this.kuduService.saveFile(host, path, content).block();
     }
 
+    public void uploadFileToPath(Flux<ByteBuffer> content, long length, String path) {
+        this.kuduService.saveFileStream(host, path, content, length).block();
+    }
+
+    /**
+     * Upload files under local directory which are new or changed compared with the remote directory.
+     *
+     * @return number of uploaded files
+     */
+    public int syncDirectory(File localDirectory, String remoteDirectory) {
+        return syncDirectory(localDirectory, remoteDirectory, FileSyncUtils.DEFAULT_SYNC_CONCURRENCY);
+    }
+
+    public int syncDirectory(File localDirectory, String remoteDirectory, int concurrency) {
+        return FileSyncUtils.syncDirectory(this, localDirectory, remoteDirectory, concurrency);
+    }
+
     public void createDirectory(String path) {
         this.kuduService.createDirectory(host, path).block();
     }
@@ -134,6 +154,13 @@ public class AppServiceKuduManager implements IFileClient, IProcessClient {
         return this.kuduService.getAppServiceTunnelStatus(host).block().getValue();
     }
 
+    /**
+     * Get the app settings which are visible to the running kudu (scm) site, they may lag behind ARM until the site restarts.
+     */
+    public Map<String, String> getAppSettings() {
+        return this.kuduService.getAppSettings(host).block().getValue();
+    }
+
     @Host("{$host}")
     @ServiceInterface(name = "KuduService")
     private interface KuduService {
@@ -156,6 +183,14 @@ public class AppServiceKuduManager implements IFileClient, IProcessClient {
         @Put("api/vfs/{path}")
         Mono<Void> saveFile(@HostParam("$host") String host, @PathParam("path") String path, @BodyParam("application/octet-stream") String content);
 
+        @Headers({
+                "Content-Type: application/octet-stream",
+                "If-Match: *"
+        })
+        @Put("api/vfs/{path}")
+        Mono<Void> saveFileStream(@HostParam("$host") String host, @PathParam("path") String path,
+                                  @BodyParam("application/octet-stream") Flux<ByteBuffer> content, @HeaderParam("Content-Length") long length);
+
         @Headers({
                 "Content-Type: application/json; charset=utf-8"
         })
@@ -188,6 +223,13 @@ public class AppServiceKuduManager implements IFileClient, IProcessClient {
         })
         @Get("AppServiceTunnel/Tunnel.ashx?GetStatus&GetStatusAPIVer=2")
         Mono<Response<TunnelStatus>> getAppServiceTunnelStatus(@HostParam("$host") String host);
+
+        @Headers({
+                "Content-Type: application/json; charset=utf-8",
+                "x-ms-body-logging: false"
+        })
+        @Get("api/settings")
+        Mono<Response<Map<String, String>>> getAppSettings(@HostParam("$host") String host);
     }
 
     @Data
@@ -8,6 +8,7 @@ package com.microsoft.azure.toolkit.lib.appservice.manager;
 import com.azure.core.annotation.BodyParam;
 import com.azure.core.annotation.Delete;
 import com.azure.core.annotation.Get;
+import com.azure.core.annotation.HeaderParam;
 import com.azure.core.annotation.Headers;
 import com.azure.core.annotation.Host;
 import com.azure.core.annotation.HostParam;
@@ -33,6 +34,7 @@ import com.microsoft.azure.toolkit.lib.appservice.model.AppServiceFile;
 import com.microsoft.azure.toolkit.lib.appservice.model.OperatingSystem;
 import com.microsoft.azure.toolkit.lib.appservice.service.IFileClient;
 import com.microsoft.azure.toolkit.lib.appservice.service.IFunctionAppBase;
+import com.microsoft.azure.toolkit.lib.appservice.utils.FileSyncUtils;
 import com.microsoft.azure.toolkit.lib.appservice.utils.Utils;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import org.apache.commons.lang3.StringUtils;
@@ -104,6 +106,23 @@ public class AzureFunctionsResourceManager implements IFileClient {
         this.functionsService.saveFile(host, getFixedPath(path), content).block();
     }
 
+    public void uploadFileToPath(Flux<ByteBuffer> content, long length, String path) {
+        this.functionsService.saveFileStream(host, getFixedPath(path), content, length).block();
+    }
+
+    /**
+     * Upload files under local directory which are new or changed compared with the remote directory.
+     *
+     * @return number of uploaded files
+     */
+    public int syncDirectory(File localDirectory, String remoteDirectory) {
+        return syncDirectory(localDirectory, remoteDirectory, FileSyncUtils.DEFAULT_SYNC_CONCURRENCY);
+    }
+
+    public int syncDirectory(File localDirectory, String remoteDirectory, int concurrency) {
+        return FileSyncUtils.syncDirectory(this, localDirectory, remoteDirectory, concurrency);
+    }
+
     public void createDirectory(String path) {
         this.functionsService.createDirectory(host, getFixedPath(path)).block();
     }
@@ -139,6 +158,14 @@ public class AzureFunctionsResourceManager implements IFileClient {
         @Put("admin/vfs/{path}")
         Mono<Void> saveFile(@HostParam("$host") String host, @PathParam("path") String path, @BodyParam("application/octet-stream") String content);
 
+        @Headers({
+                "Content-Type: application/octet-stream",
+                "If-Match: *"
+        })
+        @Put("admin/vfs/{path}")
+        Mono<Void> saveFileStream(@HostParam("$host") String host, @PathParam("path") String path,
+                                  @BodyParam("application/octet-stream") Flux<ByteBuffer> content, @HeaderParam("Content-Length") long length);
+
         @Headers({
                 "Content-Type: application/json; charset=utf-8"
         })
@@ -5,9 +5,11 @@
 
 package com.microsoft.azure.toolkit.lib.appservice.service;
 
+import com.azure.core.util.FluxUtil;
 import com.microsoft.azure.toolkit.lib.appservice.model.AppServiceFile;
 import reactor.core.publisher.Flux;
 
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.util.List;
 
@@ -20,6 +22,17 @@ public interface IFileClient {
 
     void uploadFileToPath(String content, String path);
 
+    /**
+     * Upload content to path without buffering it in memory, {@code length} must be the exact size of the content.
+     */
+    default void uploadFileToPath(Flux<ByteBuffer> content, long length, String path) {
+        throw new UnsupportedOperationException(String.format("%s does not support streaming upload", getClass().getSimpleName()));
+    }
+
+    default void uploadFileToPath(InputStream content, long length, String path) {
+        uploadFileToPath(FluxUtil.toFluxByteBuffer(content), length, path);
+    }
+
     void createDirectory(String path);
 
     void deleteFile(String path);
@@ -22,19 +22,31 @@ import com.microsoft.azure.toolkit.lib.appservice.model.TunnelStatus;
 import com.microsoft.azure.toolkit.lib.appservice.service.IAppService;
 import com.microsoft.azure.toolkit.lib.appservice.service.IFileClient;
 import com.microsoft.azure.toolkit.lib.appservice.service.IProcessClient;
+import com.microsoft.azure.toolkit.lib.common.deploy.DeployLedger;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import reactor.core.publisher.Flux;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
+@Slf4j
 abstract class AbstractAppService<T extends WebAppBase, R extends AppServiceBaseEntity> implements IAppService<R> {
+    private static final String DEPLOYMENT_FINGERPRINT_TAG = "azure-toolkit-deployment";
+    private static final String SKIP_DEPLOYMENT = "Skip deploying %s as it is identical to the last deployment to %s, set -D%s=true to deploy it anyway.";
 
     protected AppServiceKuduManager kuduManager;
     protected R entity;
@@ -142,6 +154,11 @@ abstract class AbstractAppService<T extends WebAppBase, R extends AppServiceBase
         getFileClient().uploadFileToPath(content, path);
     }
 
+    @Override
+    public void uploadFileToPath(Flux<ByteBuffer> content, long length, String path) {
+        getFileClient().uploadFileToPath(content, length, path);
+    }
+
     @Override
     public void createDirectory(String path) {
         getFileClient().createDirectory(path);
@@ -177,6 +194,61 @@ abstract class AbstractAppService<T extends WebAppBase, R extends AppServiceBase
         return getProcessClient().getAppServiceTunnelStatus();
     }
 
+    /**
+     * Run the deployment unless the artifact, deployed in the same way (described by qualifiers), is the last one deployed
+     * to the path of this app.
+     *
+     * @param path path in the app the artifact is deployed to, {@code null} for the root
+     */
+    protected void deployIfChanged(@Nonnull final File artifact, @Nullable final String path, @Nonnull final Runnable deployment,
+                                   final String... qualifiers) {
+        final DeployLedger ledger = DeployLedger.getInstance();
+        final String fingerprint = getDeploymentFingerprint(artifact, path, qualifiers);
+        if (fingerprint != null && isDeployed(ledger, artifact, path, fingerprint)) {
+            AzureMessager.getMessager().info(String.format(SKIP_DEPLOYMENT, artifact.getName(), name(), DeployLedger.FORCE_PROPERTY));
+            return;
+        }
+        deployment.run();
+        if (fingerprint != null) {
+            ledger.record(id(), path, artifact.getName(), fingerprint);
+            if (ledger.isRemoteCheck()) {
+                updateDeploymentFingerprintTag(fingerprint);
+            }
+        }
+    }
+
+    private boolean isDeployed(@Nonnull final DeployLedger ledger, @Nonnull final File artifact, @Nullable final String path,
+                               @Nonnull final String fingerprint) {
+        if (ledger.isRemoteCheck()) {
+            // the tag only keeps the last deployment of the app, so only repeated deployments of a single artifact are skipped
+            final Map<String, String> tags = ledger.isForce() ? null : getRemoteResource().tags();
+            return tags != null && StringUtils.equals(tags.get(DEPLOYMENT_FINGERPRINT_TAG), fingerprint);
+        }
+        return ledger.isDeployed(id(), path, artifact.getName(), fingerprint);
+    }
+
+    @Nullable
+    private String getDeploymentFingerprint(@Nonnull final File artifact, @Nullable final String path, final String... qualifiers) {
+        try {
+            return DeployLedger.fingerprint(DeployLedger.hash(artifact), ArrayUtils.add(qualifiers, path));
+        } catch (IOException e) {
+            log.warn(String.format("Failed to compute hash of %s: %s", artifact.getAbsolutePath(), e.getMessage()));
+            return null;
+        }
+    }
+
+    private void updateDeploymentFingerprintTag(@Nonnull final String fingerprint) {
+        try {
+            final T app = getRemoteResource();
+            final Map<String, String> tags = new HashMap<>(Optional.ofNullable(app.tags()).orElse(Collections.emptyMap()));
+            tags.put(DEPLOYMENT_FINGERPRINT_TAG, fingerprint);
+            // tags api updates the tags only, which won't restart the app
+            app.manager().resourceManager().tagOperations().updateTags(app, tags);
+        } catch (RuntimeException e) {
+            log.warn(String.format("Failed to record the deployment on %s: %s", name(), e.getMessage()));
+        }
+    }
+
     protected IFileClient getFileClient() {
         return getKuduManager();
     }
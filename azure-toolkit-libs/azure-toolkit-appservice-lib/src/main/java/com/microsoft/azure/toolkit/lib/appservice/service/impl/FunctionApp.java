@@ -29,6 +29,7 @@ import com.microsoft.azure.toolkit.lib.appservice.service.IAppServiceUpdater;
 import com.microsoft.azure.toolkit.lib.appservice.service.IFunctionApp;
 import com.microsoft.azure.toolkit.lib.appservice.service.IFunctionAppDeploymentSlot;
 import com.microsoft.azure.toolkit.lib.common.cache.Cacheable;
+import com.microsoft.azure.toolkit.lib.common.deploy.DeployLedger;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import io.jsonwebtoken.lang.Collections;
 import org.apache.commons.codec.binary.Hex;
@@ -180,6 +181,7 @@ public class FunctionApp extends FunctionAppBase<com.azure.resourcemanager.appse
                 AppServiceUtils.defineDiagnosticConfigurationForWebAppBase(withCreate, getDiagnosticConfig().get());
             }
             FunctionApp.this.remote = withCreate.create();
+            DeployLedger.getInstance().invalidate(FunctionApp.this.remote.id());
             FunctionApp.this.entity = AppServiceUtils.fromFunctionApp(FunctionApp.this.remote);
             return FunctionApp.this;
         }
@@ -31,7 +31,8 @@ public abstract class FunctionAppBase<T extends WebAppBase, R extends AppService
 
     @Override
     public void deploy(File targetFile, FunctionDeployType functionDeployType) {
-        getDeployHandlerByType(functionDeployType).deploy(targetFile, getRemoteResource());
+        deployIfChanged(targetFile, null, () -> getDeployHandlerByType(functionDeployType).deploy(targetFile, getRemoteResource()),
+                functionDeployType.name());
     }
 
     @Override
@@ -61,7 +62,7 @@ public abstract class FunctionAppBase<T extends WebAppBase, R extends AppService
             case MSDEPLOY:
                 return new MSFunctionDeployHandler();
             case RUN_FROM_ZIP:
-                return new RunFromZipFunctionDeployHandler();
+                return new RunFromZipFunctionDeployHandler(getKuduManager());
             case RUN_FROM_BLOB:
                 return new RunFromBlobFunctionDeployHandler();
             default:
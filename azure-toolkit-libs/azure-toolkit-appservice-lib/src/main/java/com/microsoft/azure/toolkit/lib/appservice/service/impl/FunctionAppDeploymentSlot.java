@@ -17,6 +17,7 @@ import com.microsoft.azure.toolkit.lib.appservice.entity.FunctionAppDeploymentSl
 import com.microsoft.azure.toolkit.lib.appservice.model.DiagnosticConfig;
 import com.microsoft.azure.toolkit.lib.appservice.service.IFunctionApp;
 import com.microsoft.azure.toolkit.lib.appservice.service.IFunctionAppDeploymentSlot;
+import com.microsoft.azure.toolkit.lib.common.deploy.DeployLedger;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
@@ -154,6 +155,7 @@ public class FunctionAppDeploymentSlot extends FunctionAppBase<FunctionDeploymen
                 AppServiceUtils.defineDiagnosticConfigurationForWebAppBase(withCreate, getDiagnosticConfig());
             }
             FunctionAppDeploymentSlot.this.remote = withCreate.create();
+            DeployLedger.getInstance().invalidate(FunctionAppDeploymentSlot.this.remote.id());
             FunctionAppDeploymentSlot.this.entity = AppServiceUtils.fromFunctionAppDeploymentSlot(FunctionAppDeploymentSlot.this.remote);
             return FunctionAppDeploymentSlot.this;
         }
@@ -26,6 +26,7 @@ import com.microsoft.azure.toolkit.lib.appservice.service.IAppServicePlan;
 import com.microsoft.azure.toolkit.lib.appservice.service.IWebApp;
 import com.microsoft.azure.toolkit.lib.appservice.service.IWebAppDeploymentSlot;
 import com.microsoft.azure.toolkit.lib.common.cache.Cacheable;
+import com.microsoft.azure.toolkit.lib.common.deploy.DeployLedger;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.common.utils.TextUtils;
 import io.jsonwebtoken.lang.Collections;
@@ -85,7 +86,8 @@ public class WebApp extends AbstractAppService<com.azure.resourcemanager.appserv
         LOGGER.info(String.format("Deploying (%s)[%s] %s ...", TextUtils.cyan(targetFile.toString()),
                 TextUtils.cyan(deployType.toString()),
                 StringUtils.isBlank(targetPath) ? "" : (" to " + TextUtils.green(targetPath))));
-        getRemoteResource().deploy(com.azure.resourcemanager.appservice.models.DeployType.fromString(deployType.getValue()), targetFile, options);
+        deployIfChanged(targetFile, targetPath, () -> getRemoteResource().deploy(
+                com.azure.resourcemanager.appservice.models.DeployType.fromString(deployType.getValue()), targetFile, options), deployType.getValue());
     }
 
     @Override
@@ -149,6 +151,7 @@ public class WebApp extends AbstractAppService<com.azure.resourcemanager.appserv
                 AppServiceUtils.defineDiagnosticConfigurationForWebAppBase(withCreate, getDiagnosticConfig().get());
             }
             WebApp.this.remote = withCreate.create();
+            DeployLedger.getInstance().invalidate(WebApp.this.remote.id());
             WebApp.this.entity = AppServiceUtils.fromWebApp(WebApp.this.remote);
             return WebApp.this;
         }
@@ -18,6 +18,7 @@ import com.microsoft.azure.toolkit.lib.appservice.model.DeployType;
 import com.microsoft.azure.toolkit.lib.appservice.model.DiagnosticConfig;
 import com.microsoft.azure.toolkit.lib.appservice.service.IWebApp;
 import com.microsoft.azure.toolkit.lib.appservice.service.IWebAppDeploymentSlot;
+import com.microsoft.azure.toolkit.lib.common.deploy.DeployLedger;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
@@ -76,7 +77,8 @@ public class WebAppDeploymentSlot extends AbstractAppService<DeploymentSlot, Web
     @Override
     public void deploy(DeployType deployType, File targetFile, String targetPath) {
         final DeployOptions options = new DeployOptions().withPath(targetPath);
-        getRemoteResource().deploy(com.azure.resourcemanager.appservice.models.DeployType.fromString(deployType.getValue()), targetFile, options);
+        deployIfChanged(targetFile, targetPath, () -> getRemoteResource().deploy(
+                com.azure.resourcemanager.appservice.models.DeployType.fromString(deployType.getValue()), targetFile, options), deployType.getValue());
     }
 
     private WebApp getParentWebApp() {
@@ -152,6 +154,7 @@ public class WebAppDeploymentSlot extends AbstractAppService<DeploymentSlot, Web
                 AppServiceUtils.defineDiagnosticConfigurationForWebAppBase(withCreate, getDiagnosticConfig());
             }
             WebAppDeploymentSlot.this.remote = withCreate.create();
+            DeployLedger.getInstance().invalidate(WebAppDeploymentSlot.this.remote.id());
             WebAppDeploymentSlot.this.entity = AppServiceUtils.fromWebAppDeploymentSlot(WebAppDeploymentSlot.this.remote);
             return WebAppDeploymentSlot.this;
         }
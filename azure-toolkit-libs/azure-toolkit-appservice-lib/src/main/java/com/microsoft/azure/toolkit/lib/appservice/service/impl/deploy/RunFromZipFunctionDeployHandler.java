@@ -4,25 +4,93 @@
  */
 package com.microsoft.azure.toolkit.lib.appservice.service.impl.deploy;
 
+import com.azure.resourcemanager.appservice.models.AppSetting;
 import com.azure.resourcemanager.appservice.models.WebAppBase;
+import com.microsoft.azure.toolkit.lib.appservice.manager.AppServiceKuduManager;
+import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
+import com.microsoft.azure.toolkit.lib.common.utils.Poller;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 
+import javax.annotation.Nonnull;
 import java.io.File;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
 
+@Slf4j
 public class RunFromZipFunctionDeployHandler extends ZIPFunctionDeployHandler {
     private static final String APP_SETTING_WEBSITE_RUN_FROM_PACKAGE = "WEBSITE_RUN_FROM_PACKAGE";
     private static final String RUN_FROM_PACKAGE_VALUE = "1";
+    private static final Duration INITIAL_POLLING_INTERVAL = Duration.ofMillis(500);
+    private static final Duration MAX_POLLING_INTERVAL = Duration.ofSeconds(5);
+    private static final Duration MAX_WAITING_TIME = Duration.ofSeconds(60);
+    private static final String WAITING_FOR_APP_SETTING = "Waiting for app setting %s to take effect...";
+    private static final String APP_SETTING_UPDATED = "App setting %s took effect in %.1f seconds.";
+    private static final String APP_SETTING_TIMEOUT = "App setting %s did not take effect in %d seconds, continue deploying.";
+
+    private final AppServiceKuduManager kuduManager;
+    private final Duration initialPollingInterval;
+    private final Duration maxPollingInterval;
+    private final Duration maxWaitingTime;
+
+    public RunFromZipFunctionDeployHandler(@Nonnull final AppServiceKuduManager kuduManager) {
+        this(kuduManager, INITIAL_POLLING_INTERVAL, MAX_POLLING_INTERVAL, MAX_WAITING_TIME);
+    }
+
+    RunFromZipFunctionDeployHandler(@Nonnull final AppServiceKuduManager kuduManager, final Duration initialPollingInterval,
+                                    final Duration maxPollingInterval, final Duration maxWaitingTime) {
+        this.kuduManager = kuduManager;
+        this.initialPollingInterval = initialPollingInterval;
+        this.maxPollingInterval = maxPollingInterval;
+        this.maxWaitingTime = maxWaitingTime;
+    }
 
     @Override
     public void deploy(File file, WebAppBase functionApp) {
-        DeployUtils.updateFunctionAppSetting(functionApp, APP_SETTING_WEBSITE_RUN_FROM_PACKAGE, RUN_FROM_PACKAGE_VALUE);
-        // todo: Check status from kudu api, refers https://github.com/Azure/azure-functions-core-tools/blob/dev/src/Azure.Functions.Cli/
-        //  Actions/AzureActions/PublishFunctionAppAction.cs#L515
-        try {
+        // updating app settings restarts the app, skip it (and the waiting) if run from package is already enabled
+        final String value = Optional.ofNullable(functionApp.getAppSettings())
+                .map(settings -> settings.get(APP_SETTING_WEBSITE_RUN_FROM_PACKAGE))
+                .map(AppSetting::value).orElse(null);
+        if (!StringUtils.equals(value, RUN_FROM_PACKAGE_VALUE)) {
+            DeployUtils.updateFunctionAppSetting(functionApp, APP_SETTING_WEBSITE_RUN_FROM_PACKAGE, RUN_FROM_PACKAGE_VALUE);
             // work around for issue https://dev.azure.com/msazure/Unified%20Platform%20KPIs/_workitems/edit/7481871
-            Thread.sleep(20 * 1000);
-        } catch (InterruptedException e) {
-            // Sorrow exception here as we just wait for 20s for kudu app settings update, which is not required in normal cases
+            // refers https://github.com/Azure/azure-functions-core-tools/blob/dev/src/Azure.Functions.Cli/
+            //  Actions/AzureActions/PublishFunctionAppAction.cs#L515
+            waitForAppSettingUpdated(APP_SETTING_WEBSITE_RUN_FROM_PACKAGE, RUN_FROM_PACKAGE_VALUE);
         }
         super.deploy(file, functionApp);
     }
+
+    /**
+     * Poll kudu with exponential backoff until it sees the new app setting, which means the scm site has been restarted.
+     *
+     * @return the time spent on waiting
+     */
+    Duration waitForAppSettingUpdated(final String key, final String value) {
+        AzureMessager.getMessager().info(String.format(WAITING_FOR_APP_SETTING, key));
+        final Poller.Result<Boolean> result = Poller.builder()
+                .initialInterval(initialPollingInterval)
+                .maxInterval(maxPollingInterval)
+                .timeout(maxWaitingTime)
+                .build()
+                .poll(() -> isAppSettingUpdated(key, value), Boolean::booleanValue);
+        if (result.isDone()) {
+            AzureMessager.getMessager().info(String.format(APP_SETTING_UPDATED, key, result.getElapsed().toMillis() / 1000.0));
+        } else if (result.getStatus() == Poller.Status.TIMEOUT) {
+            AzureMessager.getMessager().warning(String.format(APP_SETTING_TIMEOUT, key, maxWaitingTime.getSeconds()));
+        }
+        return result.getElapsed();
+    }
+
+    private boolean isAppSettingUpdated(final String key, final String value) {
+        try {
+            final Map<String, String> settings = kuduManager.getAppSettings();
+            return settings != null && StringUtils.equals(settings.get(key), value);
+        } catch (RuntimeException e) {
+            // kudu may be unavailable while the site is restarting
+            log.debug(e.getMessage(), e);
+            return false;
+        }
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+package com.microsoft.azure.toolkit.lib.appservice.utils;
+
+import com.azure.core.exception.HttpResponseException;
+import com.azure.core.util.FluxUtil;
+import com.microsoft.azure.toolkit.lib.appservice.model.AppServiceFile;
+import com.microsoft.azure.toolkit.lib.appservice.service.IFileClient;
+import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
+import com.microsoft.azure.toolkit.lib.common.messager.IAzureMessager;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+public class FileSyncUtils {
+    public static final int DEFAULT_SYNC_CONCURRENCY = 4;
+    private static final String SYNC_START = "Synchronizing %s to %s...";
+    private static final String SYNC_FINISH = "%d file(s) uploaded, %d file(s) are up to date.";
+    private static final String UPLOAD_FILE = "Uploaded %s to %s";
+
+    /**
+     * Read the file in chunks, the file is opened on subscription and closed when the flux terminates.
+     */
+    public static Flux<ByteBuffer> readFile(@Nonnull final File file) {
+        return Flux.using(() -> AsynchronousFileChannel.open(file.toPath(), StandardOpenOption.READ),
+                FluxUtil::readFile, FileSyncUtils::close);
+    }
+
+    /**
+     * Upload the files under local directory which are missing on remote, have different size or are newer than the remote ones.
+     * Files are uploaded in parallel, and reported by the calling thread as they are done.
+     *
+     * @return number of uploaded files
+     */
+    public static int syncDirectory(@Nonnull final IFileClient client, @Nonnull final File localDirectory,
+                                    @Nonnull final String remoteDirectory, final int concurrency) {
+        final IAzureMessager messager = AzureMessager.getMessager();
+        messager.info(String.format(SYNC_START, localDirectory.getAbsolutePath(), remoteDirectory));
+        final Map<File, String> localFiles = new LinkedHashMap<>();
+        listLocalFiles(localDirectory, StringUtils.removeEnd(remoteDirectory, "/"), localFiles);
+        final Map<String, AppServiceFile> remoteFiles = new HashMap<>();
+        listRemoteFiles(client, StringUtils.removeEnd(remoteDirectory, "/"), remoteFiles);
+
+        final Map<File, String> changedFiles = new LinkedHashMap<>();
+        localFiles.forEach((file, path) -> {
+            if (isChanged(file, remoteFiles.get(path))) {
+                changedFiles.put(file, path);
+            }
+        });
+        // the messager is bound to the context of the calling thread, so uploads only emit the files they are done with
+        final Iterable<Map.Entry<File, String>> uploaded = Flux.fromIterable(changedFiles.entrySet())
+                .flatMap(entry -> Mono.fromCallable(() -> {
+                    client.uploadFileToPath(readFile(entry.getKey()), entry.getKey().length(), entry.getValue());
+                    return entry;
+                }).subscribeOn(Schedulers.boundedElastic()), Math.max(concurrency, 1))
+                .toIterable();
+        for (final Map.Entry<File, String> entry : uploaded) {
+            messager.info(String.format(UPLOAD_FILE, entry.getKey().getAbsolutePath(), entry.getValue()));
+        }
+        messager.info(String.format(SYNC_FINISH, changedFiles.size(), localFiles.size() - changedFiles.size()));
+        return changedFiles.size();
+    }
+
+    private static boolean isChanged(@Nonnull final File file, @Nullable final AppServiceFile remoteFile) {
+        if (remoteFile == null || remoteFile.getType() != AppServiceFile.Type.FILE || remoteFile.getSize() != file.length() ||
+                StringUtils.isEmpty(remoteFile.getMtime())) {
+            return true;
+        }
+        try {
+            return file.lastModified() > OffsetDateTime.parse(remoteFile.getMtime()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return true;
+        }
+    }
+
+    private static void listLocalFiles(final File directory, final String remoteDirectory, final Map<File, String> result) {
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (final File file : files) {
+            final String remotePath = remoteDirectory + "/" + file.getName();
+            if (file.isDirectory()) {
+                listLocalFiles(file, remotePath, result);
+            } else {
+                result.put(file, remotePath);
+            }
+        }
+    }
+
+    private static void listRemoteFiles(final IFileClient client, final String remoteDirectory, final Map<String, AppServiceFile> result) {
+        for (final AppServiceFile file : getFilesInDirectory(client, remoteDirectory)) {
+            final String remotePath = remoteDirectory + "/" + file.getName();
+            if (file.getType() == AppServiceFile.Type.DIRECTORY) {
+                listRemoteFiles(client, remotePath, result);
+            } else {
+                result.put(remotePath, file);
+            }
+        }
+    }
+
+    private static List<? extends AppServiceFile> getFilesInDirectory(final IFileClient client, final String remoteDirectory) {
+        try {
+            return client.getFilesInDirectory(remoteDirectory);
+        } catch (HttpResponseException e) {
+            if (e.getResponse() == null || e.getResponse().getStatusCode() != 404) {
+                throw e;
+            }
+            // remote directory does not exist yet, all files will be uploaded
+            log.debug(e.getMessage(), e);
+            return Collections.emptyList();
+        }
+    }
+
+    private static void close(final AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
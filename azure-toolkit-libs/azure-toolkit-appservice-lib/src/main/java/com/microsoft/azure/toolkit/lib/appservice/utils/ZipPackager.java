@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.utils;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.DeferredFileOutputStream;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.GregorianCalendar;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Pack a directory into a zip file in a single pass. Entries are written in sorted order with a fixed time, so the same
+ * content always gives the same archive no matter when the files are written, excluded entries are never written, and
+ * the digest of the archive could be computed while writing it.
+ */
+@Getter
+@Builder
+public class ZipPackager {
+    private static final String[] COMPRESSED_EXTENSIONS = {"jar", "war", "ear", "zip", "gz", "png", "jpg", "jpeg", "gif"};
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * stored entries larger than this are spooled to a temp file instead of memory
+     */
+    private static final int SPOOL_THRESHOLD = 16 * 1024 * 1024;
+    /**
+     * 1980-01-01 00:00:00, the earliest time of zip entries, in local time as entry times are converted to local time
+     */
+    private static final long ENTRY_TIME = new GregorianCalendar(1980, Calendar.JANUARY, 1).getTimeInMillis();
+
+    /**
+     * Level of {@link Deflater}, from 0 (no compression) to 9 (best compression).
+     */
+    @Builder.Default
+    private final int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    /**
+     * Store entries which are already compressed (e.g. jars) without deflating them again.
+     */
+    @Builder.Default
+    private final boolean storeCompressedEntries = false;
+    /**
+     * Filter on the entry name (path relative to the source directory, separated by '/'), entries not accepted are skipped.
+     */
+    @Nullable
+    private final Predicate<String> filter;
+    /**
+     * Algorithm of the archive digest, e.g. SHA-256, no digest is computed if it is empty.
+     */
+    @Nullable
+    private final String digestAlgorithm;
+
+    /**
+     * @return hex digest of the archive, or null if {@link #digestAlgorithm} is not set
+     */
+    @Nullable
+    public String pack(@Nonnull final File sourceDirectory, @Nonnull final File zipFile) throws IOException {
+        final MessageDigest digest = createDigest();
+        try (final OutputStream fileStream = new BufferedOutputStream(new FileOutputStream(zipFile), BUFFER_SIZE);
+             final ZipOutputStream zipStream = new ZipOutputStream(digest == null ? fileStream : new DigestOutputStream(fileStream, digest))) {
+            zipStream.setLevel(compressionLevel);
+            addDirectory(zipStream, sourceDirectory, StringUtils.EMPTY);
+        }
+        return digest == null ? null : Hex.encodeHexString(digest.digest());
+    }
+
+    private void addDirectory(final ZipOutputStream zipStream, final File directory, final String prefix) throws IOException {
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparing(File::getName));
+        for (final File file : files) {
+            final String name = prefix + file.getName();
+            if (file.isDirectory()) {
+                final String directoryName = name + "/";
+                if (isIncluded(directoryName)) {
+                    final ZipEntry entry = new ZipEntry(directoryName);
+                    entry.setTime(ENTRY_TIME);
+                    zipStream.putNextEntry(entry);
+                    zipStream.closeEntry();
+                    addDirectory(zipStream, file, directoryName);
+                }
+            } else if (isIncluded(name)) {
+                addFile(zipStream, file, name);
+            }
+        }
+    }
+
+    private void addFile(final ZipOutputStream zipStream, final File file, final String name) throws IOException {
+        final ZipEntry entry = new ZipEntry(name);
+        entry.setTime(ENTRY_TIME);
+        if (storeCompressedEntries && FilenameUtils.isExtension(file.getName().toLowerCase(), COMPRESSED_EXTENSIONS)) {
+            addStoredFile(zipStream, file, entry);
+            return;
+        }
+        zipStream.putNextEntry(entry);
+        try (final InputStream input = new FileInputStream(file)) {
+            IOUtils.copy(input, zipStream, BUFFER_SIZE);
+        }
+        zipStream.closeEntry();
+    }
+
+    /**
+     * stored entries require size and crc before the data, so the file is spooled while computing them, and then written
+     * from the spool, the file itself is read only once.
+     */
+    private void addStoredFile(final ZipOutputStream zipStream, final File file, final ZipEntry entry) throws IOException {
+        final CRC32 crc = new CRC32();
+        final DeferredFileOutputStream spool = new DeferredFileOutputStream(SPOOL_THRESHOLD, "azure-zip-", ".tmp", null);
+        try {
+            try (final InputStream input = new CheckedInputStream(new FileInputStream(file), crc)) {
+                IOUtils.copy(input, spool, BUFFER_SIZE);
+            } finally {
+                spool.close();
+            }
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(spool.getByteCount());
+            entry.setCompressedSize(spool.getByteCount());
+            entry.setCrc(crc.getValue());
+            zipStream.putNextEntry(entry);
+            spool.writeTo(zipStream);
+            zipStream.closeEntry();
+        } finally {
+            if (!spool.isInMemory()) {
+                Files.deleteIfExists(spool.getFile().toPath());
+            }
+        }
+    }
+
+    private boolean isIncluded(final String name) {
+        return filter == null || filter.test(name);
+    }
+
+    @Nullable
+    private MessageDigest createDigest() throws IOException {
+        if (StringUtils.isEmpty(digestAlgorithm)) {
+            return null;
+        }
+        try {
+            return MessageDigest.getInstance(digestAlgorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
@@ -5,34 +5,76 @@
 
 package com.microsoft.azure.toolkit.lib.legacy.appservice.handlers.artifact;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.messager.IAzureMessager;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.net.ftp.FTP;
 import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPFile;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
- * Utility class to upload directory to FTP server
+ * Utility class to upload directory to FTP server.
+ * Files are uploaded through a number of parallel FTP sessions, a file is retried on its own when it fails,
+ * and files whose remote size and modification time match the local one are skipped.
+ * Progress of the sessions is reported by the calling thread.
  */
 @Slf4j
 public class FTPUploader {
+    public static final int DEFAULT_CONCURRENCY = 4;
     public static final String UPLOAD_START = "Uploading files to FTP server: ";
     public static final String UPLOAD_SUCCESS = "Successfully uploaded files to FTP server: ";
-    public static final String UPLOAD_FAILURE = "Failed to upload files to FTP server, retrying immediately (%d/%d)";
-    public static final String UPLOAD_RETRY_FAILURE = "Failed to upload files to FTP server after %d retries...";
-    public static final String UPLOAD_DIR_START = "Uploading directory: %s --> %s";
-    public static final String UPLOAD_DIR_FINISH = "Successfully uploaded directory: %s --> %s";
-    public static final String UPLOAD_DIR_FAILURE = "Failed to upload directory: %s --> %s";
-    public static final String UPLOAD_DIR = "%s[DIR] %s --> %s";
-    public static final String UPLOAD_FILE = "%s[FILE] %s --> %s";
-    public static final String UPLOAD_FILE_REPLY = "%s.......Reply Message : %s";
+    public static final String UPLOAD_SUMMARY = "%d file(s) uploaded, %d file(s) skipped as they are up to date.";
+    public static final String UPLOAD_FAILURE = "Failed to upload file %s, retrying immediately (%d/%d)";
+    public static final String UPLOAD_RETRY_FAILURE = "Failed to upload %d file(s) to FTP server after %d retries...";
+    public static final String UPLOAD_FILE = "[FILE] %s --> %s";
+    public static final String UPLOAD_FILE_SKIP = "[SKIP] %s is up to date";
+    public static final String UPLOAD_FILE_REPLY = "Reply Message : %s";
+    public static final String MAKE_DIRECTORY_FAILURE = "Failed to create target directories on FTP server: %s";
+    private static final String UPLOAD_THREAD_NAME = "azure-ftp-upload-%d";
+    private static final String MODIFICATION_TIME_FORMAT = "yyyyMMddHHmmss";
+    private static final long REPORT_INTERVAL_MILLIS = 100;
+
+    @Getter
+    private final int concurrency;
+
+    public FTPUploader() {
+        this(DEFAULT_CONCURRENCY);
+    }
+
+    public FTPUploader(final int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency should be greater than 0.");
+        }
+        this.concurrency = concurrency;
+    }
 
     /**
      * Upload directory to specified FTP server with retries.
@@ -40,97 +82,174 @@ public class FTPUploader {
     public void uploadDirectoryWithRetries(final String ftpServer, final String username, final String password,
                                            final String sourceDirectory, final String targetDirectory,
                                            final int maxRetryCount) throws AzureExecutionException {
-        int retryCount = 0;
-        while (retryCount < maxRetryCount) {
-            retryCount++;
-            final IAzureMessager messager = AzureMessager.getMessager();
-            messager.info(UPLOAD_START + ftpServer);
-            if (uploadDirectory(ftpServer, username, password, sourceDirectory, targetDirectory)) {
-                messager.success(UPLOAD_SUCCESS + ftpServer);
-                return;
-            } else {
-                messager.warning(String.format(UPLOAD_FAILURE, retryCount, maxRetryCount));
-            }
-        }
-        // Reaching here means all retries failed.
-        throw new AzureExecutionException(String.format(UPLOAD_RETRY_FAILURE, maxRetryCount));
+        final List<FileToUpload> files = new ArrayList<>();
+        listFiles(new File(sourceDirectory), targetDirectory, files);
+        uploadFilesWithRetries(ftpServer, username, password, files, maxRetryCount);
     }
 
     /**
-     * Upload directory to specified FTP server without retries.
-     * @return Boolean to indicate whether uploading is successful.
+     * Upload files to specified FTP server, each file will be retried at most {@code maxRetryCount} times.
+     *
+     * @param files local files and the target directories on FTP server, a file may be uploaded to several directories
      */
-    protected boolean uploadDirectory(final String ftpServer, final String username, final String password,
-                                      final String sourceDirectoryPath, final String targetDirectoryPath) {
+    public void uploadFilesWithRetries(final String ftpServer, final String username, final String password,
+                                       final List<FileToUpload> files, final int maxRetryCount) throws AzureExecutionException {
         final IAzureMessager messager = AzureMessager.getMessager();
+        messager.info(UPLOAD_START + ftpServer);
+        if (files.isEmpty()) {
+            messager.success(UPLOAD_SUCCESS + ftpServer);
+            return;
+        }
         log.debug("FTP username: " + username);
-        try {
-            final FTPClient ftpClient = getFTPClient(ftpServer, username, password);
-
-            messager.info(String.format(UPLOAD_DIR_START, sourceDirectoryPath, targetDirectoryPath));
-            uploadDirectory(ftpClient, sourceDirectoryPath, targetDirectoryPath, "");
-            messager.success(String.format(UPLOAD_DIR_FINISH, sourceDirectoryPath, targetDirectoryPath));
+        final UploadContext context = new UploadContext(ftpServer, username, password, maxRetryCount);
+        context.getQueue().addAll(files);
 
-            ftpClient.disconnect();
-            return true;
-        } catch (Exception e) {
-            log.debug(e.getMessage(), e);
-            messager.error(String.format(UPLOAD_DIR_FAILURE, sourceDirectoryPath, targetDirectoryPath));
+        // create all target directories once with the first session, then share the file queue among all sessions
+        final Set<String> directories = files.stream().map(FileToUpload::getTargetDirectory).collect(Collectors.toCollection(TreeSet::new));
+        final FTPClient ftpClient = makeDirectoriesWithRetries(context, directories);
+        final int sessions = Math.min(concurrency, files.size());
+        final ExecutorService executor = Executors.newFixedThreadPool(sessions,
+                new ThreadFactoryBuilder().setNameFormat(UPLOAD_THREAD_NAME).setDaemon(true).build());
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> uploadFiles(ftpClient, context)));
+            for (int i = 1; i < sessions; i++) {
+                futures.add(executor.submit(() -> uploadFiles(null, context)));
+            }
+            // sessions only queue their progress, which is reported here in the calling thread
+            while (!futures.stream().allMatch(Future::isDone)) {
+                final Consumer<IAzureMessager> report = context.getReports().poll(REPORT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (report != null) {
+                    report.accept(messager);
+                }
+            }
+            for (Consumer<IAzureMessager> report = context.getReports().poll(); report != null; report = context.getReports().poll()) {
+                report.accept(messager);
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureExecutionException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            throw new AzureExecutionException(e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
 
-        return false;
+        if (!context.getFailedFiles().isEmpty()) {
+            throw new AzureExecutionException(String.format(UPLOAD_RETRY_FAILURE, context.getFailedFiles().size(), maxRetryCount));
+        }
+        messager.info(String.format(UPLOAD_SUMMARY, context.getUploaded().get(), context.getSkipped().get()));
+        messager.success(UPLOAD_SUCCESS + ftpServer);
     }
 
     /**
-     * Recursively upload a directory to FTP server with the provided FTP client object.
+     * Take files from the shared queue and upload them with one FTP session until the queue is drained.
      */
-    protected void uploadDirectory(final FTPClient ftpClient, final String sourceDirectoryPath,
-                                   final String targetDirectoryPath, final String logPrefix) throws IOException {
-        final IAzureMessager messager = AzureMessager.getMessager();
-        messager.info(String.format(UPLOAD_DIR, logPrefix, sourceDirectoryPath, targetDirectoryPath));
-        final File sourceDirectory = new File(sourceDirectoryPath);
-        final File[] files = sourceDirectory.listFiles();
-        if (files == null || files.length == 0) {
-            messager.info(String.format("%sEmpty directory at %s", logPrefix, sourceDirectoryPath));
-            return;
-        }
-
-        // Make sure target directory exists
-        final boolean isTargetDirectoryExist = ftpClient.changeWorkingDirectory(targetDirectoryPath);
-        if (!isTargetDirectoryExist) {
-            ftpClient.makeDirectory(targetDirectoryPath);
-        }
-
-        final String nextLevelPrefix = logPrefix + "..";
-        for (final File file : files) {
-            if (file.isFile()) {
-                uploadFile(ftpClient, file.getAbsolutePath(), targetDirectoryPath, nextLevelPrefix);
-            } else {
-                uploadDirectory(ftpClient, Paths.get(sourceDirectoryPath, file.getName()).toString(),
-                        targetDirectoryPath + "/" + file.getName(), nextLevelPrefix);
+    protected void uploadFiles(final FTPClient client, final UploadContext context) {
+        FTPClient ftpClient = client;
+        try {
+            for (FileToUpload entry = context.getQueue().poll(); entry != null; entry = context.getQueue().poll()) {
+                final File file = entry.getFile();
+                final String targetFilePath = entry.getTargetDirectory() + "/" + file.getName();
+                for (int retryCount = 1; ; retryCount++) {
+                    try {
+                        if (ftpClient == null || !ftpClient.isConnected()) {
+                            ftpClient = getFTPClient(context.getFtpServer(), context.getUsername(), context.getPassword());
+                        }
+                        if (isUpToDate(ftpClient, file, targetFilePath)) {
+                            context.report(m -> m.info(String.format(UPLOAD_FILE_SKIP, targetFilePath)));
+                            context.getSkipped().incrementAndGet();
+                        } else {
+                            context.report(m -> m.info(String.format(UPLOAD_FILE, file.getAbsolutePath(), targetFilePath)));
+                            uploadFile(ftpClient, file, targetFilePath);
+                            context.getUploaded().incrementAndGet();
+                        }
+                        break;
+                    } catch (IOException e) {
+                        log.debug(e.getMessage(), e);
+                        // the session may be broken, reconnect before the next attempt
+                        disconnectQuietly(ftpClient);
+                        ftpClient = null;
+                        if (retryCount >= context.getMaxRetryCount()) {
+                            context.report(m -> m.error(e.getMessage()));
+                            context.getFailedFiles().add(file);
+                            break;
+                        }
+                        final int attempt = retryCount;
+                        context.report(m -> m.warning(String.format(UPLOAD_FAILURE, file.getAbsolutePath(), attempt, context.getMaxRetryCount())));
+                    }
+                }
             }
+        } finally {
+            disconnectQuietly(ftpClient);
         }
     }
 
     /**
      * Upload a single file to FTP server with the provided FTP client object.
      */
-    protected void uploadFile(final FTPClient ftpClient, final String sourceFilePath, final String targetFilePath,
-                              final String logPrefix) throws IOException {
-        final IAzureMessager messager = AzureMessager.getMessager();
-        messager.info(String.format(UPLOAD_FILE, logPrefix, sourceFilePath, targetFilePath));
-        final File sourceFile = new File(sourceFilePath);
+    protected void uploadFile(final FTPClient ftpClient, final File sourceFile, final String targetFilePath) throws IOException {
         try (final InputStream is = new FileInputStream(sourceFile)) {
-            ftpClient.changeWorkingDirectory(targetFilePath);
-            ftpClient.storeFile(sourceFile.getName(), is);
+            ftpClient.storeFile(targetFilePath, is);
 
             final int replyCode = ftpClient.getReplyCode();
             final String replyMessage = ftpClient.getReplyString();
             if (isCommandFailed(replyCode)) {
-                messager.error(String.format(UPLOAD_FILE_REPLY, logPrefix, replyMessage));
-                throw new IOException("Failed to upload file: " + sourceFilePath);
+                throw new IOException(String.format("Failed to upload file: %s, %s", sourceFile.getAbsolutePath(),
+                        String.format(UPLOAD_FILE_REPLY, replyMessage)));
             } else {
-                messager.info(String.format(UPLOAD_FILE_REPLY, logPrefix, replyMessage));
+                log.debug(String.format(UPLOAD_FILE_REPLY, replyMessage));
+            }
+        }
+        // keep remote modification time in sync with the local file, so it could be skipped next time
+        ftpClient.setModificationTime(targetFilePath, formatModificationTime(sourceFile.lastModified()));
+    }
+
+    protected boolean isUpToDate(final FTPClient ftpClient, final File sourceFile, final String targetFilePath) throws IOException {
+        final FTPFile remoteFile = ftpClient.mlistFile(targetFilePath);
+        if (remoteFile == null || !remoteFile.isFile() || remoteFile.getTimestamp() == null) {
+            return false;
+        }
+        // MLST only provides timestamp in seconds
+        return remoteFile.getSize() == sourceFile.length() &&
+                remoteFile.getTimestamp().getTimeInMillis() / 1000 == sourceFile.lastModified() / 1000;
+    }
+
+    private FTPClient makeDirectoriesWithRetries(final UploadContext context, final Set<String> targetDirectories)
+            throws AzureExecutionException {
+        for (int retryCount = 1; ; retryCount++) {
+            FTPClient ftpClient = null;
+            try {
+                ftpClient = getFTPClient(context.getFtpServer(), context.getUsername(), context.getPassword());
+                makeDirectories(ftpClient, targetDirectories);
+                return ftpClient;
+            } catch (IOException e) {
+                log.debug(e.getMessage(), e);
+                disconnectQuietly(ftpClient);
+                if (retryCount >= context.getMaxRetryCount()) {
+                    throw new AzureExecutionException(String.format(MAKE_DIRECTORY_FAILURE, context.getFtpServer()), e);
+                }
+            }
+        }
+    }
+
+    protected void makeDirectories(final FTPClient ftpClient, final Set<String> targetDirectories) throws IOException {
+        final Set<String> directories = new TreeSet<>();
+        for (final String targetDirectory : targetDirectories) {
+            int index = targetDirectory.indexOf('/', 1);
+            while (index > 0) {
+                directories.add(targetDirectory.substring(0, index));
+                index = targetDirectory.indexOf('/', index + 1);
+            }
+            directories.add(targetDirectory);
+        }
+        // parent directories always come before their children in lexicographical order
+        for (final String directory : directories) {
+            if (!ftpClient.changeWorkingDirectory(directory)) {
+                ftpClient.makeDirectory(directory);
             }
         }
     }
@@ -145,9 +264,74 @@ public class FTPUploader {
         return ftpClient;
     }
 
+    private static void listFiles(final File sourceDirectory, final String targetDirectoryPath, final List<FileToUpload> result) {
+        final File[] files = sourceDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (final File file : files) {
+            if (file.isFile()) {
+                result.add(new FileToUpload(file, targetDirectoryPath));
+            } else {
+                listFiles(file, targetDirectoryPath + "/" + file.getName(), result);
+            }
+        }
+    }
+
+    private static String formatModificationTime(final long time) {
+        final SimpleDateFormat format = new SimpleDateFormat(MODIFICATION_TIME_FORMAT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date(time));
+    }
+
+    private static void disconnectQuietly(final FTPClient ftpClient) {
+        if (ftpClient == null || !ftpClient.isConnected()) {
+            return;
+        }
+        try {
+            ftpClient.disconnect();
+        } catch (IOException e) {
+            log.debug(e.getMessage(), e);
+        }
+    }
+
     private boolean isCommandFailed(final int replyCode) {
         // https://en.wikipedia.org/wiki/List_of_FTP_server_return_codes
         // 2xx means command has been successfully completed
         return replyCode >= 300;
     }
+
+    @Getter
+    @AllArgsConstructor
+    public static class FileToUpload {
+        private final File file;
+        private final String targetDirectory;
+    }
+
+    @Getter
+    protected static class UploadContext {
+        private final String ftpServer;
+        private final String username;
+        private final String password;
+        private final int maxRetryCount;
+        private final Queue<FileToUpload> queue = new ConcurrentLinkedQueue<>();
+        private final Queue<File> failedFiles = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger uploaded = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        /**
+         * messages of the sessions, the messager is not accessed from the upload threads
+         */
+        private final BlockingQueue<Consumer<IAzureMessager>> reports = new LinkedBlockingQueue<>();
+
+        UploadContext(final String ftpServer, final String username, final String password, final int maxRetryCount) {
+            this.ftpServer = ftpServer;
+            this.username = username;
+            this.password = password;
+            this.maxRetryCount = maxRetryCount;
+        }
+
+        void report(final Consumer<IAzureMessager> report) {
+            reports.add(report);
+        }
+    }
 }
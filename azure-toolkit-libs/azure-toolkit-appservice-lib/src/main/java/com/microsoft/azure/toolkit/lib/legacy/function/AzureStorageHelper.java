@@ -18,8 +18,6 @@ import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.legacy.function.utils.DateUtils;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
 import java.net.URISyntaxException;
 import java.security.InvalidKeyException;
 import java.time.LocalDateTime;
@@ -34,14 +32,20 @@ public class AzureStorageHelper {
 
     public static CloudBlockBlob uploadFileAsBlob(final File fileToUpload, final CloudStorageAccount storageAccount,
             final String containerName, final String blobName, final BlobContainerPublicAccessType accessType) throws AzureExecutionException {
+        return uploadFileAsBlob(fileToUpload, storageAccount, containerName, blobName, accessType, new BlockBlobUploader());
+    }
+
+    public static CloudBlockBlob uploadFileAsBlob(final File fileToUpload, final CloudStorageAccount storageAccount,
+            final String containerName, final String blobName, final BlobContainerPublicAccessType accessType,
+            final BlockBlobUploader uploader) throws AzureExecutionException {
         try {
             final CloudBlobContainer blobContainer = getBlobContainer(storageAccount, containerName);
             blobContainer.createIfNotExists(accessType, null, null);
 
             final CloudBlockBlob blob = blobContainer.getBlockBlobReference(blobName);
-            blob.upload(new FileInputStream(fileToUpload), fileToUpload.length());
+            uploader.upload(fileToUpload, blob);
             return blob;
-        } catch (URISyntaxException | StorageException | IOException e) {
+        } catch (URISyntaxException | StorageException e) {
             throw new AzureExecutionException(FAIL_TO_UPLOAD_BLOB, e);
         }
     }
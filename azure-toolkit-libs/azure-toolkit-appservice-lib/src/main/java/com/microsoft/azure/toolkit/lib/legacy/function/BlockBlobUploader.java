@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.function;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonParseException;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.BlobRequestOptions;
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockListingFilter;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
+import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Upload a local file to a block blob block by block, with several blocks in flight at the same time.
+ * Uploaded blocks are recorded in a manifest next to the source file, so an interrupted upload to the
+ * same blob only puts the blocks which are missing on the next run.
+ */
+@Slf4j
+public class BlockBlobUploader {
+    public static final int DEFAULT_BLOCK_SIZE = 4 * 1024 * 1024;
+    public static final int DEFAULT_CONCURRENCY = 4;
+    // https://docs.microsoft.com/en-us/rest/api/storageservices/put-block#remarks
+    private static final int MAX_BLOCK_SIZE = 100 * 1024 * 1024;
+    private static final int MAX_BLOCK_COUNT = 50000;
+    private static final String BLOCK_ID_FORMAT = "%06d";
+    private static final String MANIFEST_NAME_FORMAT = ".%s.blocks.json";
+    private static final String UPLOAD_THREAD_NAME = "azure-blob-upload-%d";
+    private static final String INVALID_BLOCK_SIZE = "Block size should be between 1 and %d bytes.";
+    private static final String INVALID_CONCURRENCY = "Concurrency should be greater than 0.";
+    private static final String TOO_MANY_BLOCKS = "File '%s' needs %d blocks with block size %d, which exceeds the limit of %d blocks.";
+    private static final String FAIL_TO_UPLOAD_BLOCK = "Fail to upload block %d of file '%s'";
+    private static final String FAIL_TO_COMMIT_BLOCKS = "Fail to commit blocks of file '%s'";
+    private static final String UPLOAD_INTERRUPTED = "Upload of file '%s' was interrupted";
+    private static final String RESUME_UPLOAD = "Resuming upload of '%s', %d of %d blocks are already uploaded.";
+
+    @Getter
+    private final int blockSize;
+    @Getter
+    private final int concurrency;
+
+    public BlockBlobUploader() {
+        this(DEFAULT_BLOCK_SIZE, DEFAULT_CONCURRENCY);
+    }
+
+    public BlockBlobUploader(final int blockSize, final int concurrency) {
+        if (blockSize <= 0 || blockSize > MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException(String.format(INVALID_BLOCK_SIZE, MAX_BLOCK_SIZE));
+        }
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException(INVALID_CONCURRENCY);
+        }
+        this.blockSize = blockSize;
+        this.concurrency = concurrency;
+    }
+
+    public void upload(final File file, final CloudBlockBlob blob) throws AzureExecutionException {
+        final int blockCount = getBlockCount(file.length());
+        if (blockCount > MAX_BLOCK_COUNT) {
+            throw new AzureExecutionException(String.format(TOO_MANY_BLOCKS, file.getAbsolutePath(), blockCount, blockSize, MAX_BLOCK_COUNT));
+        }
+        final File manifestFile = getManifestFile(file);
+        final BlockManifest manifest = loadManifest(manifestFile, file, blob);
+        final Set<Integer> uploadedBlocks = getUploadedBlocks(file, blob, manifest, blockCount);
+        if (!uploadedBlocks.isEmpty()) {
+            log.info(String.format(RESUME_UPLOAD, file.getName(), uploadedBlocks.size(), blockCount));
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, Math.max(blockCount, 1)),
+                new ThreadFactoryBuilder().setNameFormat(UPLOAD_THREAD_NAME).setDaemon(true).build());
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int index = 0; index < blockCount; index++) {
+                if (uploadedBlocks.contains(index)) {
+                    continue;
+                }
+                final int blockIndex = index;
+                futures.add(executor.submit(() -> {
+                    uploadBlock(file, blob, blockIndex, manifest);
+                    saveManifest(manifestFile, manifest);
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                waitForBlock(future, file);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try {
+            final List<BlockEntry> blockList = new ArrayList<>();
+            for (int index = 0; index < blockCount; index++) {
+                blockList.add(new BlockEntry(getBlockId(index)));
+            }
+            blob.commitBlockList(blockList);
+        } catch (StorageException e) {
+            throw new AzureExecutionException(String.format(FAIL_TO_COMMIT_BLOCKS, file.getAbsolutePath()), e);
+        }
+        FileUtils.deleteQuietly(manifestFile);
+    }
+
+    static String getBlockId(final int index) {
+        // block ids of one blob must have the same length before base64 encoding
+        return Base64.getEncoder().encodeToString(String.format(BLOCK_ID_FORMAT, index).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static File getManifestFile(final File file) {
+        return new File(file.getAbsoluteFile().getParentFile(), String.format(MANIFEST_NAME_FORMAT, file.getName()));
+    }
+
+    private int getBlockCount(final long fileLength) {
+        return (int) ((fileLength + blockSize - 1) / blockSize);
+    }
+
+    private void uploadBlock(final File file, final CloudBlockBlob blob, final int index, final BlockManifest manifest)
+            throws AzureExecutionException {
+        try {
+            final byte[] block = readBlock(file, index);
+            final BlobRequestOptions options = new BlobRequestOptions();
+            // let the service verify the block against the Content-MD5 header
+            options.setUseTransactionalContentMD5(true);
+            blob.uploadBlock(getBlockId(index), new ByteArrayInputStream(block), block.length, null, options, null);
+            manifest.getBlocks().put(index, DigestUtils.md5Hex(block));
+        } catch (StorageException | IOException e) {
+            throw new AzureExecutionException(String.format(FAIL_TO_UPLOAD_BLOCK, index, file.getAbsolutePath()), e);
+        }
+    }
+
+    private byte[] readBlock(final File file, final int index) throws IOException {
+        final long offset = (long) index * blockSize;
+        final byte[] block = new byte[(int) Math.min(blockSize, file.length() - offset)];
+        try (final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            randomAccessFile.seek(offset);
+            randomAccessFile.readFully(block);
+        }
+        return block;
+    }
+
+    private Set<Integer> getUploadedBlocks(final File file, final CloudBlockBlob blob, final BlockManifest manifest, final int blockCount) {
+        final Set<Integer> result = new HashSet<>();
+        if (manifest.getBlocks().isEmpty()) {
+            return result;
+        }
+        final Set<String> uncommittedBlocks = new HashSet<>();
+        try {
+            for (final BlockEntry entry : blob.downloadBlockList(BlockListingFilter.UNCOMMITTED, null, null, null)) {
+                uncommittedBlocks.add(entry.getId());
+            }
+        } catch (StorageException e) {
+            // the blob may not exist yet or the uncommitted blocks were garbage collected, upload everything again
+            log.debug(e.getMessage(), e);
+            manifest.getBlocks().clear();
+            return result;
+        }
+        for (final Map.Entry<Integer, String> entry : manifest.getBlocks().entrySet()) {
+            final int index = entry.getKey();
+            if (index < blockCount && uncommittedBlocks.contains(getBlockId(index)) && isBlockUnchanged(file, index, entry.getValue())) {
+                result.add(index);
+            }
+        }
+        manifest.getBlocks().keySet().retainAll(result);
+        return result;
+    }
+
+    private boolean isBlockUnchanged(final File file, final int index, final String md5) {
+        try {
+            return Objects.equals(md5, DigestUtils.md5Hex(readBlock(file, index)));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void waitForBlock(final Future<?> future, final File file) throws AzureExecutionException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureExecutionException(String.format(UPLOAD_INTERRUPTED, file.getAbsolutePath()), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AzureExecutionException) {
+                throw (AzureExecutionException) e.getCause();
+            }
+            throw new AzureExecutionException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private BlockManifest loadManifest(final File manifestFile, final File file, final CloudBlockBlob blob) {
+        final BlockManifest expected = new BlockManifest(blob.getUri().toString(), file.length(), file.lastModified(), blockSize);
+        if (!manifestFile.isFile()) {
+            return expected;
+        }
+        try {
+            final BlockManifest manifest = JsonUtils.fromJson(FileUtils.readFileToString(manifestFile, StandardCharsets.UTF_8), BlockManifest.class);
+            if (expected.isSameUpload(manifest)) {
+                expected.getBlocks().putAll(manifest.getBlocks());
+            }
+            return expected;
+        } catch (IOException | JsonParseException e) {
+            log.debug(e.getMessage(), e);
+            return expected;
+        }
+    }
+
+    private static synchronized void saveManifest(final File manifestFile, final BlockManifest manifest) {
+        try {
+            FileUtils.writeStringToFile(manifestFile, JsonUtils.toJson(manifest), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // manifest is only used to resume interrupted uploads
+            log.debug(e.getMessage(), e);
+        }
+    }
+
+    @Getter
+    static class BlockManifest {
+        private final String blobUri;
+        private final long fileLength;
+        private final long fileLastModified;
+        private final int blockSize;
+        private final Map<Integer, String> blocks = new ConcurrentHashMap<>();
+
+        BlockManifest(final String blobUri, final long fileLength, final long fileLastModified, final int blockSize) {
+            this.blobUri = blobUri;
+            this.fileLength = fileLength;
+            this.fileLastModified = fileLastModified;
+            this.blockSize = blockSize;
+        }
+
+        boolean isSameUpload(final BlockManifest other) {
+            return other != null && other.blocks != null && Objects.equals(blobUri, other.blobUri) &&
+                    fileLength == other.fileLength && fileLastModified == other.fileLastModified && blockSize == other.blockSize;
+        }
+    }
+}
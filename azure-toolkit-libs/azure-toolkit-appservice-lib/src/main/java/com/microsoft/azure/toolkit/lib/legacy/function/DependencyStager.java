@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.function;
+
+import com.google.gson.JsonParseException;
+import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stage files into a flat directory incrementally. A manifest with the source path, size, last modified time and hash of
+ * every staged file is kept outside of the directory, so only files which are added, changed or removed since the last run
+ * are touched. Files are copied by default.
+ * <p>
+ * Files under {@code linkableDirectory} could be hard linked instead when the file system supports it. A hard link shares
+ * the content with its source, so it's only safe for a directory whose files are never rewritten in place, e.g. the local
+ * maven repository, and the staged files should be treated as read-only as well. Files elsewhere, e.g. jars built by other
+ * modules of the reactor, are always copied.
+ */
+@Slf4j
+public class DependencyStager {
+    private final File directory;
+    private final File manifestFile;
+    @Nullable
+    private final Path linkableDirectory;
+    private boolean linkSupported;
+
+    public DependencyStager(final File directory, final File manifestFile) {
+        this(directory, manifestFile, null);
+    }
+
+    /**
+     * @param linkableDirectory files under this directory are hard linked instead of copied, {@code null} to copy all files
+     */
+    public DependencyStager(final File directory, final File manifestFile, @Nullable final File linkableDirectory) {
+        this.directory = directory;
+        this.manifestFile = manifestFile;
+        this.linkableDirectory = linkableDirectory == null ? null : linkableDirectory.toPath().toAbsolutePath().normalize();
+        this.linkSupported = linkableDirectory != null;
+    }
+
+    /**
+     * Make the directory contain exactly the given files, later files win if several files share the same name.
+     */
+    public StageResult stage(final Collection<File> files) throws IOException {
+        final Map<String, File> targets = new LinkedHashMap<>();
+        for (final File file : files) {
+            targets.put(file.getName(), file);
+        }
+        FileUtils.forceMkdir(directory);
+        final Manifest manifest = loadManifest();
+        final Manifest newManifest = new Manifest();
+        final StageResult result = new StageResult();
+
+        final File[] existingFiles = directory.listFiles();
+        if (existingFiles != null) {
+            for (final File existing : existingFiles) {
+                if (!targets.containsKey(existing.getName())) {
+                    FileUtils.forceDelete(existing);
+                    result.deleted++;
+                }
+            }
+        }
+
+        for (final Map.Entry<String, File> entry : targets.entrySet()) {
+            final File source = entry.getValue();
+            final File target = new File(directory, entry.getKey());
+            final Entry previous = manifest.files.get(entry.getKey());
+            final Entry current;
+            if (previous != null && target.isFile() && target.length() == source.length() &&
+                    StringUtils.equals(previous.path, source.getAbsolutePath()) &&
+                    previous.size == source.length() && previous.lastModified == source.lastModified()) {
+                // source is not touched since last staging, skip hashing it
+                current = previous;
+                result.unchanged++;
+            } else {
+                current = new Entry(source.getAbsolutePath(), source.length(), source.lastModified(), sha256(source));
+                if (previous != null && target.isFile() && target.length() == source.length() &&
+                        StringUtils.equals(previous.sha256, current.sha256)) {
+                    result.unchanged++;
+                } else {
+                    if (target.exists()) {
+                        FileUtils.forceDelete(target);
+                        result.updated++;
+                    } else {
+                        result.added++;
+                    }
+                    place(source, target);
+                }
+            }
+            newManifest.files.put(entry.getKey(), current);
+        }
+        FileUtils.writeStringToFile(manifestFile, JsonUtils.toJson(newManifest), StandardCharsets.UTF_8);
+        return result;
+    }
+
+    private void place(final File source, final File target) throws IOException {
+        if (linkSupported && isLinkable(source)) {
+            try {
+                Files.createLink(target.toPath(), source.toPath());
+                return;
+            } catch (IOException | UnsupportedOperationException | SecurityException e) {
+                // e.g. source and target are on different volumes, don't try linking again in this run
+                log.debug(String.format("Fail to create hard link for '%s', fall back to copy.", source.getAbsolutePath()), e);
+                linkSupported = false;
+            }
+        }
+        Files.copy(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+    }
+
+    private boolean isLinkable(final File source) {
+        return linkableDirectory != null && source.toPath().toAbsolutePath().normalize().startsWith(linkableDirectory);
+    }
+
+    private Manifest loadManifest() {
+        if (!manifestFile.isFile()) {
+            return new Manifest();
+        }
+        try {
+            final Manifest manifest = JsonUtils.fromJson(FileUtils.readFileToString(manifestFile, StandardCharsets.UTF_8), Manifest.class);
+            return manifest == null || manifest.files == null ? new Manifest() : manifest;
+        } catch (IOException | JsonParseException e) {
+            log.debug(String.format("Fail to read staging manifest '%s', all files will be staged again.", manifestFile.getAbsolutePath()), e);
+            return new Manifest();
+        }
+    }
+
+    private static String sha256(final File file) throws IOException {
+        try (final InputStream input = new FileInputStream(file)) {
+            return DigestUtils.sha256Hex(input);
+        }
+    }
+
+    @Getter
+    public static class StageResult {
+        private int added;
+        private int updated;
+        private int deleted;
+        private int unchanged;
+
+        @Override
+        public String toString() {
+            return String.format("%d added, %d updated, %d deleted, %d unchanged", added, updated, deleted, unchanged);
+        }
+    }
+
+    private static class Manifest {
+        private Map<String, Entry> files = new HashMap<>();
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    private static class Entry {
+        private String path;
+        private long size;
+        private long lastModified;
+        private String sha256;
+    }
+}
@@ -17,10 +17,9 @@ import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionCo
 import com.microsoft.azure.toolkit.lib.legacy.function.configurations.Retry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.reflections.Reflections;
-import org.reflections.scanners.MethodAnnotationsScanner;
-import org.reflections.util.ConfigurationBuilder;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
@@ -42,14 +41,29 @@ public class AnnotationHandlerImpl implements AnnotationHandler {
     private static final String MULTI_RETRY_ANNOTATION = "Fixed delay retry and exponential backoff retry are not compatible, " +
             "please use either of them for one trigger";
 
+    private final FunctionScanner scanner;
+
+    public AnnotationHandlerImpl() {
+        this(null);
+    }
+
+    /**
+     * @param indexFile file to cache scanning results, so unchanged classes and jars are not scanned again on next build
+     */
+    public AnnotationHandlerImpl(@Nullable final File indexFile) {
+        this(indexFile, null);
+    }
+
+    /**
+     * @param jarIndexFile file to cache scanning results of jars, shared by builds of all projects
+     */
+    public AnnotationHandlerImpl(@Nullable final File indexFile, @Nullable final File jarIndexFile) {
+        this.scanner = new FunctionScanner(indexFile, jarIndexFile);
+    }
+
     @Override
     public Set<Method> findFunctions(final List<URL> urls) {
-        return new Reflections(
-                new ConfigurationBuilder()
-                        .addUrls(urls)
-                        .setScanners(new MethodAnnotationsScanner())
-                        .addClassLoader(getClassLoader(urls)))
-                .getMethodsAnnotatedWith(FunctionName.class);
+        return scanner.findFunctions(urls, getClassLoader(urls));
     }
 
     protected ClassLoader getClassLoader(final List<URL> urlList) {
@@ -7,6 +7,7 @@ package com.microsoft.azure.toolkit.lib.legacy.function.handlers;
 
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 
+import java.time.Duration;
 import java.util.List;
 
 public interface CommandHandler {
@@ -20,4 +21,14 @@ public interface CommandHandler {
     String runCommandAndGetOutput(final String command,
                                   final boolean showStdout,
                                   final String workingDirectory) throws AzureExecutionException;
+
+    /**
+     * @param timeout the command is killed and {@link AzureExecutionException} is thrown if it's not finished in time
+     */
+    default String runCommandAndGetOutput(final String command,
+                                          final boolean showStdout,
+                                          final String workingDirectory,
+                                          final Duration timeout) throws AzureExecutionException {
+        return runCommandAndGetOutput(command, showStdout, workingDirectory);
+    }
 }
@@ -8,17 +8,19 @@ package com.microsoft.azure.toolkit.lib.legacy.function.handlers;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.legacy.function.utils.CommandUtils;
+import com.microsoft.azure.toolkit.lib.legacy.function.utils.ProcessRunner;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 
-import java.io.BufferedReader;
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Slf4j
 public class CommandHandlerImpl implements CommandHandler {
@@ -28,11 +30,19 @@ public class CommandHandlerImpl implements CommandHandler {
                                               final String workingDirectory,
                                               final List<Long> validReturnCodes,
                                               final String errorMessage) throws AzureExecutionException {
+        // standard output and error of the sub-process, kept to show on failure if they are not shown
+        final List<String> output = Collections.synchronizedList(new ArrayList<>());
         try {
-            final Process process = runCommand(command, showStdout, workingDirectory);
+            final ProcessRunner.Result result = runCommand(command, workingDirectory,
+                    showStdout ? System.out::println : output::add, showStdout ? System.err::println : output::add, null);
 
-            handleExitValue(process.exitValue(), validReturnCodes, errorMessage, process.getInputStream());
-        } catch (IOException | InterruptedException ex) {
+            handleExitValue(result.getExitCode(), validReturnCodes, errorMessage, String.join("\n", output));
+        } catch (IOException ex) {
+            // the executable is not found, which was reported by the shell as an exit value before
+            log.debug(String.format("Cannot execute '%s': %s", command, ex.getMessage()));
+            AzureMessager.getMessager().error(errorMessage);
+            throw new AzureExecutionException(errorMessage, ex);
+        } catch (InterruptedException ex) {
             throw new AzureExecutionException("Cannot execute '" + command + "'", ex);
         }
     }
@@ -41,74 +51,68 @@ public class CommandHandlerImpl implements CommandHandler {
     public String runCommandAndGetOutput(final String command,
                                          final boolean showStdout,
                                          final String workingDirectory) throws AzureExecutionException {
-        try {
-            final Process process = runCommand(command, showStdout, workingDirectory);
-            return getOutputFromProcess(process);
-        } catch (IOException | InterruptedException ex) {
-            throw new AzureExecutionException("Cannot execute '" + command + "'", ex);
-        }
+        return runCommandAndGetOutput(command, showStdout, workingDirectory, null);
     }
 
-    protected String getOutputFromProcess(final Process process) throws IOException {
-        try (final BufferedReader stdInput = new BufferedReader(
-                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-            final StringBuilder stdout = new StringBuilder();
-            String s;
-            while ((s = stdInput.readLine()) != null) {
-                stdout.append(s);
+    @Override
+    public String runCommandAndGetOutput(final String command,
+                                         final boolean showStdout,
+                                         final String workingDirectory,
+                                         final Duration timeout) throws AzureExecutionException {
+        final StringBuffer stdout = new StringBuffer();
+        try {
+            final ProcessRunner.Result result = runCommand(command, workingDirectory, line -> {
+                if (showStdout) {
+                    System.out.println(line);
+                }
+                stdout.append(line);
+            }, showStdout ? System.err::println : null, timeout);
+            if (result.isTimedOut()) {
+                throw new AzureExecutionException(String.format("Command '%s' is not finished in %d seconds", command, timeout.getSeconds()));
             }
             return stdout.toString().trim();
+        } catch (IOException | InterruptedException ex) {
+            throw new AzureExecutionException("Cannot execute '" + command + "'", ex);
         }
     }
 
-    protected Process runCommand(final String command,
-                                 final boolean showStdout,
-                                 final String workingDirectory) throws IOException, InterruptedException {
-        log.debug("Executing command: " + StringUtils.join(command, " "));
-
-        final ProcessBuilder.Redirect redirect = getStdoutRedirect(showStdout);
-        final ProcessBuilder processBuilder = new ProcessBuilder(buildCommand(command))
-                .redirectOutput(redirect)
-                .redirectErrorStream(true);
-
-        if (workingDirectory != null) {
-            processBuilder.directory(new File(workingDirectory));
-        }
-
-        final Process process = processBuilder.start();
-
-        process.waitFor();
-
-        return process;
+    protected ProcessRunner.Result runCommand(final String command,
+                                              final String workingDirectory,
+                                              final Consumer<String> stdoutConsumer,
+                                              final Consumer<String> stderrConsumer,
+                                              @Nullable final Duration timeout) throws IOException, InterruptedException {
+        return ProcessRunner.builder()
+                .command(Arrays.asList(buildCommand(command)))
+                .directory(workingDirectory == null ? null : new File(workingDirectory))
+                .stdoutConsumer(stdoutConsumer)
+                .stderrConsumer(stderrConsumer)
+                .timeout(timeout)
+                .build()
+                .run();
     }
 
     protected static String[] buildCommand(final String command) {
+        // `func` and `npm` are batch scripts on windows, which could only be resolved by cmd.exe
         return CommandUtils.isWindows() ?
                 new String[]{"cmd.exe", "/c", command} :
-                new String[]{"sh", "-c", command};
-    }
-
-    protected static ProcessBuilder.Redirect getStdoutRedirect(boolean showStdout) {
-        return showStdout ? ProcessBuilder.Redirect.INHERIT : ProcessBuilder.Redirect.PIPE;
+                CommandUtils.splitArguments(command).toArray(new String[0]);
     }
 
     protected void handleExitValue(int exitValue,
                                    final List<Long> validReturnCodes,
                                    final String errorMessage,
-                                   final InputStream inputStream) throws AzureExecutionException, IOException {
+                                   final String output) throws AzureExecutionException {
         log.debug("Process exit value: " + exitValue);
         if (!validReturnCodes.contains(Integer.toUnsignedLong(exitValue))) {
-            // input stream is a merge of standard output and standard error of the sub-process
-            showErrorIfAny(inputStream);
+            showErrorIfAny(output);
             AzureMessager.getMessager().error(errorMessage);
             throw new AzureExecutionException(errorMessage);
         }
     }
 
-    protected void showErrorIfAny(final InputStream inputStream) throws IOException {
-        if (inputStream != null) {
-            final String input = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
-            AzureMessager.getMessager().error(StringUtils.strip(input, "\n"));
+    protected void showErrorIfAny(final String output) {
+        if (StringUtils.isNotBlank(output)) {
+            AzureMessager.getMessager().error(StringUtils.strip(output, "\n"));
         }
     }
 }
@@ -6,17 +6,51 @@
 package com.microsoft.azure.toolkit.lib.legacy.function.handlers;
 
 import com.github.zafarkhaja.semver.Version;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.gson.JsonParseException;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.messager.IAzureMessager;
+import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
 import com.microsoft.azure.toolkit.lib.legacy.function.utils.CommandUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.filefilter.NameFileFilter;
+import org.apache.commons.io.filefilter.NotFileFilter;
+import org.apache.commons.lang3.StringUtils;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
+/**
+ * Versions of the local and latest Azure Functions Core Tools are cached in a state file (if provided): the local
+ * version is keyed by the path and modified time of the {@code func} executable, the latest version expires after a while.
+ * The latest version is looked up in background and only waited for a short while, so a slow or offline npm registry
+ * never blocks packaging. The installation of extensions is skipped if its inputs are not changed since last time.
+ */
+@Slf4j
 public class FunctionCoreToolsHandlerImpl implements FunctionCoreToolsHandler {
 
     public static final String FUNC_EXTENSIONS_INSTALL_TEMPLATE = "func extensions install -c \"%s\" --java";
     public static final String INSTALL_FUNCTION_EXTENSIONS_FAIL = "Failed to install the Function extensions";
+    public static final String SKIP_INSTALL_FUNCTION_EXTENSIONS = "Function extensions are up to date, skip installation.";
     public static final String CANNOT_AUTO_INSTALL = "Local Azure Functions Core Tools does not " +
             "exist or is too old to support function extension installation, skip package phase." +
             " To install or update it, see: https://aka.ms/azfunc-install";
@@ -28,17 +62,50 @@ public class FunctionCoreToolsHandlerImpl implements FunctionCoreToolsHandler {
     public static final String GET_LOCAL_VERSION_CMD = "func --version";
     public static final String GET_LOCAL_VERSION_FAIL = "Failed to get Azure Functions Core Tools version locally";
     public static final Version LEAST_SUPPORTED_VERSION = Version.valueOf("2.0.1-beta.26");
+    private static final String FUNC_EXECUTABLE = "func";
+    private static final String EXTENSIONS_STAMP_SUFFIX = ".extensions.sha256";
+    private static final String EXTENSIONS_OUTPUT_DIRECTORY = "bin";
+    private static final String EXTENSIONS_CSPROJ = "extensions.csproj";
+    private static final String[] EXTENSIONS_INPUTS = {"function.json", "host.json"};
+    private static final Duration LATEST_VERSION_TTL = Duration.ofDays(1);
+    private static final Duration LATEST_VERSION_FAILURE_TTL = Duration.ofHours(1);
+    private static final Duration LATEST_VERSION_CMD_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration LATEST_VERSION_WAIT_TIMEOUT = Duration.ofSeconds(2);
 
     private final CommandHandler commandHandler;
+    @Nullable
+    private final File stateFile;
 
     public FunctionCoreToolsHandlerImpl(final CommandHandler commandHandler) {
+        this(commandHandler, null);
+    }
+
+    /**
+     * @param stateFile file to cache the versions of Azure Functions Core Tools, nothing is cached if null
+     */
+    public FunctionCoreToolsHandlerImpl(final CommandHandler commandHandler, @Nullable final File stateFile) {
         this.commandHandler = commandHandler;
+        this.stateFile = stateFile;
     }
 
     @Override
     public void installExtension(File stagingDirectory, File basedir) throws AzureExecutionException {
+        final File stamp = new File(stagingDirectory.getParentFile(), stagingDirectory.getName() + EXTENSIONS_STAMP_SUFFIX);
+        final String inputsHash = hashExtensionInputs(stagingDirectory, basedir);
+        if (inputsHash != null && new File(stagingDirectory, EXTENSIONS_OUTPUT_DIRECTORY).isDirectory() && stamp.isFile() &&
+                StringUtils.equals(inputsHash, readQuietly(stamp))) {
+            AzureMessager.getMessager().info(SKIP_INSTALL_FUNCTION_EXTENSIONS);
+            return;
+        }
         assureRequirementAddressed();
         installFunctionExtension(stagingDirectory, basedir);
+        if (inputsHash != null) {
+            try {
+                FileUtils.writeStringToFile(stamp, inputsHash, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                log.debug(String.format("Failed to save %s: %s", stamp.getAbsolutePath(), e.getMessage()));
+            }
+        }
     }
 
     protected void installFunctionExtension(File stagingDirector, File basedir) throws AzureExecutionException {
@@ -52,13 +119,24 @@ public class FunctionCoreToolsHandlerImpl implements FunctionCoreToolsHandler {
     }
 
     protected void assureRequirementAddressed() throws AzureExecutionException {
+        final CompletableFuture<String> latestVersionFuture = CompletableFuture.supplyAsync(this::getLatestFunctionCoreToolsVersion);
         final String localVersion = getLocalFunctionCoreToolsVersion();
-        final String latestCoreVersion = getLatestFunctionCoreToolsVersion();
         // Ensure azure function core tools has been installed and support extension auto-install
         if (localVersion == null || LEAST_SUPPORTED_VERSION.greaterThan(Version.valueOf(localVersion))) {
             throw new AzureExecutionException(CANNOT_AUTO_INSTALL);
         }
         final IAzureMessager messager = AzureMessager.getMessager();
+        final String latestCoreVersion;
+        try {
+            latestCoreVersion = latestVersionFuture.get(LATEST_VERSION_WAIT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // the result will still be cached when it's done, if the jvm is alive
+            log.debug("Skip checking update for Azure Functions Core Tools as the latest version is not available in time.");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
         // Verify whether local function core tools is the latest version
         if (latestCoreVersion == null) {
             messager.warning(GET_LATEST_VERSION_FAIL);
@@ -68,21 +146,38 @@ public class FunctionCoreToolsHandlerImpl implements FunctionCoreToolsHandler {
     }
 
     protected String getLatestFunctionCoreToolsVersion() {
+        final State cached = loadState();
+        final long now = System.currentTimeMillis();
+        if (cached != null && now - cached.latestVersionCheckedAt <
+                (cached.latestVersion == null ? LATEST_VERSION_FAILURE_TTL : LATEST_VERSION_TTL).toMillis()) {
+            return cached.latestVersion;
+        }
+        String latestCoreVersion = null;
         try {
-            final String latestCoreVersion = commandHandler.runCommandAndGetOutput(
+            latestCoreVersion = commandHandler.runCommandAndGetOutput(
                     GET_LATEST_VERSION_CMD,
                     false, /* showStdout */
-                    null /* workingDirectory */
+                    null, /* workingDirectory */
+                    LATEST_VERSION_CMD_TIMEOUT
             );
             Version.valueOf(latestCoreVersion);
-            return latestCoreVersion;
         } catch (Exception e) {
-            AzureMessager.getMessager().warning(GET_LATEST_VERSION_FAIL);
-            return null;
+            latestCoreVersion = null;
         }
+        final String result = latestCoreVersion;
+        updateState(state -> {
+            state.latestVersion = result;
+            state.latestVersionCheckedAt = now;
+        });
+        return result;
     }
 
     protected String getLocalFunctionCoreToolsVersion() {
+        final String key = getFuncExecutableKey();
+        final State cached = key == null ? null : loadState();
+        if (cached != null && cached.localVersions.containsKey(key)) {
+            return cached.localVersions.get(key);
+        }
         try {
             final String localVersion = commandHandler.runCommandAndGetOutput(
                     GET_LOCAL_VERSION_CMD,
@@ -90,10 +185,126 @@ public class FunctionCoreToolsHandlerImpl implements FunctionCoreToolsHandler {
                     null /* workingDirectory */
             );
             Version.valueOf(localVersion);
+            if (key != null) {
+                // only the current executable matters, versions of replaced ones are dropped
+                updateState(state -> {
+                    state.localVersions.clear();
+                    state.localVersions.put(key, localVersion);
+                });
+            }
             return localVersion;
         } catch (Exception e) {
             AzureMessager.getMessager().warning(GET_LOCAL_VERSION_FAIL);
             return null;
         }
     }
+
+    /**
+     * @return {@code <real path>:<modified time>} of the {@code func} executable on PATH, which changes when it's updated, or null if not found
+     */
+    @Nullable
+    private static String getFuncExecutableKey() {
+        final List<String> suffixes = new ArrayList<>();
+        if (CommandUtils.isWindows()) {
+            Collections.addAll(suffixes, StringUtils.split(StringUtils.defaultIfBlank(System.getenv("PATHEXT"), ".COM;.EXE;.BAT;.CMD"), ';'));
+        } else {
+            suffixes.add("");
+        }
+        for (final String directory : StringUtils.split(StringUtils.defaultString(System.getenv("PATH")), File.pathSeparator)) {
+            for (final String suffix : suffixes) {
+                final File file = new File(directory, FUNC_EXECUTABLE + suffix);
+                if (file.isFile() && file.canExecute()) {
+                    try {
+                        final File real = file.toPath().toRealPath().toFile();
+                        return String.format("%s:%d", real.getAbsolutePath(), real.lastModified());
+                    } catch (IOException e) {
+                        return null;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return hash of the function.json and host.json files in the staging directory, extensions.csproj in the project
+     * and the `func` executable, or null if the staging directory doesn't exist
+     */
+    @Nullable
+    private static String hashExtensionInputs(File stagingDirectory, File basedir) {
+        if (!stagingDirectory.isDirectory()) {
+            return null;
+        }
+        try {
+            final List<File> inputs = new ArrayList<>(FileUtils.listFiles(stagingDirectory,
+                    new NameFileFilter(EXTENSIONS_INPUTS), new NotFileFilter(new NameFileFilter(EXTENSIONS_OUTPUT_DIRECTORY))));
+            inputs.sort(Comparator.comparing(File::getAbsolutePath));
+            final Hasher hasher = Hashing.sha256().newHasher();
+            final int prefixLength = stagingDirectory.getAbsolutePath().length();
+            for (final File input : inputs) {
+                hasher.putString(input.getAbsolutePath().substring(prefixLength), StandardCharsets.UTF_8);
+                hasher.putBytes(FileUtils.readFileToByteArray(input));
+            }
+            final File csproj = new File(basedir, EXTENSIONS_CSPROJ);
+            if (csproj.isFile()) {
+                hasher.putBytes(FileUtils.readFileToByteArray(csproj));
+            }
+            hasher.putString(StringUtils.defaultString(getFuncExecutableKey()), StandardCharsets.UTF_8);
+            return hasher.hash().toString();
+        } catch (IOException e) {
+            log.debug(String.format("Failed to hash inputs of function extensions: %s", e.getMessage()));
+            return null;
+        }
+    }
+
+    @Nullable
+    private static String readQuietly(File file) {
+        try {
+            return FileUtils.readFileToString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private synchronized State loadState() {
+        if (stateFile == null || !stateFile.isFile()) {
+            return null;
+        }
+        try {
+            final State state = JsonUtils.getGson().fromJson(FileUtils.readFileToString(stateFile, StandardCharsets.UTF_8), State.class);
+            if (state != null && state.localVersions == null) {
+                state.localVersions = new HashMap<>();
+            }
+            return state;
+        } catch (IOException | JsonParseException e) {
+            log.debug(String.format("Failed to read %s: %s", stateFile.getAbsolutePath(), e.getMessage()));
+            return null;
+        }
+    }
+
+    private synchronized void updateState(Consumer<State> updater) {
+        if (stateFile == null) {
+            return;
+        }
+        final State loaded = loadState();
+        final State state = loaded == null ? new State() : loaded;
+        updater.accept(state);
+        try {
+            FileUtils.forceMkdirParent(stateFile);
+            // write to a temp file and move it, so concurrent builds never read a partially written state
+            final File temp = File.createTempFile(stateFile.getName(), ".tmp", stateFile.getParentFile());
+            FileUtils.writeStringToFile(temp, JsonUtils.toJson(state), StandardCharsets.UTF_8);
+            Files.move(temp.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.debug(String.format("Failed to save %s: %s", stateFile.getAbsolutePath(), e.getMessage()));
+        }
+    }
+
+    private static class State {
+        private Map<String, String> localVersions = new HashMap<>();
+        @Nullable
+        private String latestVersion;
+        private long latestVersionCheckedAt;
+    }
 }
@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.function.handlers;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Find methods annotated with {@link FunctionName} by reading class files with ASM, classes are never loaded during scanning.
+ * Only the constant pool of a class is read to check whether it references the annotation, the rest of the class is read
+ * and parsed only if it does. Results of each classpath entry are cached in an index file, keyed by the hash of the class
+ * files (for directories) or the size and modified time (for jars), so unchanged entries are not scanned again. Results of
+ * jars are also cached in a shared index (e.g. in user home), since dependencies rarely change between clean builds.
+ */
+@Slf4j
+public class FunctionScanner {
+    public static final File DEFAULT_JAR_INDEX_FILE = Paths.get(System.getProperty("user.home"), ".azure", "azure-functions-jar-index.json").toFile();
+    private static final String FUNCTION_NAME_DESCRIPTOR = Type.getDescriptor(FunctionName.class);
+    private static final byte[] FUNCTION_NAME_BYTES = FUNCTION_NAME_DESCRIPTOR.getBytes(StandardCharsets.UTF_8);
+    private static final int CLASS_MAGIC = 0xCAFEBABE;
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String METHOD_SEPARATOR = "#";
+    private static final java.lang.reflect.Type INDEX_TYPE = new TypeToken<Map<String, IndexEntry>>() {
+    }.getType();
+
+    @Nullable
+    private final File indexFile;
+    @Nullable
+    private final File jarIndexFile;
+
+    public FunctionScanner(@Nullable final File indexFile) {
+        this(indexFile, null);
+    }
+
+    /**
+     * @param indexFile    file to cache results of all the classpath entries of a project
+     * @param jarIndexFile file to cache results of jars, shared by projects
+     */
+    public FunctionScanner(@Nullable final File indexFile, @Nullable final File jarIndexFile) {
+        this.indexFile = indexFile;
+        this.jarIndexFile = jarIndexFile;
+    }
+
+    public Set<Method> findFunctions(final List<URL> urls, final ClassLoader classLoader) {
+        final Map<String, IndexEntry> index = loadIndex(indexFile);
+        final Map<String, IndexEntry> jarIndex = loadIndex(jarIndexFile);
+        final Map<String, IndexEntry> newIndex = new HashMap<>();
+        final Map<String, IndexEntry> newJarEntries = new HashMap<>();
+        final Set<String> methods = new LinkedHashSet<>();
+        for (final URL url : urls) {
+            final File file = toFile(url);
+            if (file == null || !file.exists()) {
+                continue;
+            }
+            try {
+                final String path = file.getAbsolutePath();
+                final String key = getKey(file);
+                IndexEntry entry = Optional.ofNullable(index.get(path)).filter(e -> StringUtils.equals(e.key, key))
+                        .orElseGet(() -> Optional.ofNullable(jarIndex.get(path)).filter(e -> StringUtils.equals(e.key, key)).orElse(null));
+                if (entry == null) {
+                    entry = new IndexEntry(key, scan(file));
+                    if (file.isFile()) {
+                        newJarEntries.put(path, entry);
+                    }
+                }
+                newIndex.put(path, entry);
+                methods.addAll(entry.methods);
+            } catch (IOException e) {
+                log.warn(String.format("Failed to scan %s for functions: %s", file.getAbsolutePath(), e.getMessage()));
+            }
+        }
+        saveIndex(indexFile, newIndex);
+        if (!newJarEntries.isEmpty()) {
+            // re-read the shared index to keep entries added by other builds meanwhile, and forget the deleted jars
+            final Map<String, IndexEntry> latest = loadIndex(jarIndexFile);
+            latest.putAll(newJarEntries);
+            latest.keySet().removeIf(path -> !new File(path).isFile());
+            saveIndex(jarIndexFile, latest);
+        }
+        return resolveMethods(methods, classLoader);
+    }
+
+    private static Set<Method> resolveMethods(final Collection<String> methods, final ClassLoader classLoader) {
+        final Set<Method> result = new LinkedHashSet<>();
+        for (final String method : methods) {
+            final String[] parts = method.split(METHOD_SEPARATOR);
+            try {
+                final Class<?> clazz = Class.forName(parts[0], false, classLoader);
+                Arrays.stream(clazz.getDeclaredMethods())
+                        .filter(m -> StringUtils.equals(m.getName(), parts[1]) && StringUtils.equals(Type.getMethodDescriptor(m), parts[2]))
+                        .forEach(result::add);
+            } catch (ClassNotFoundException e) {
+                log.warn(String.format("Failed to load class %s: %s", parts[0], e.getMessage()));
+            }
+        }
+        return result;
+    }
+
+    private static List<String> scan(final File file) throws IOException {
+        final List<String> result = new ArrayList<>();
+        if (file.isDirectory()) {
+            for (final File classFile : listClassFiles(file)) {
+                final boolean referenced;
+                try (final InputStream input = new FileInputStream(classFile)) {
+                    referenced = referencesFunctionName(input);
+                }
+                if (referenced) {
+                    scanClass(FileUtils.readFileToByteArray(classFile), result);
+                }
+            }
+        } else {
+            try (final JarFile jar = new JarFile(file)) {
+                final Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    final JarEntry entry = entries.nextElement();
+                    if (entry.isDirectory() || !entry.getName().endsWith(CLASS_SUFFIX)) {
+                        continue;
+                    }
+                    final boolean referenced;
+                    try (final InputStream input = jar.getInputStream(entry)) {
+                        referenced = referencesFunctionName(input);
+                    }
+                    if (referenced) {
+                        try (final InputStream input = jar.getInputStream(entry)) {
+                            scanClass(IOUtils.toByteArray(input), result);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read the constant pool of a class file and stop there, the annotation descriptor is in the constant pool of any class
+     * using it. Fields, methods and their code, which are most of a class file, are never read (or inflated, in a jar) for
+     * classes not referencing the annotation.
+     */
+    static boolean referencesFunctionName(final InputStream classFile) throws IOException {
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(classFile));
+        if (input.readInt() != CLASS_MAGIC) {
+            return false;
+        }
+        input.skipBytes(4); // minor and major version
+        final int count = input.readUnsignedShort();
+        int index = 1;
+        while (index < count) {
+            final int tag = input.readUnsignedByte();
+            index++;
+            switch (tag) {
+                case 1: // Utf8
+                    final int length = input.readUnsignedShort();
+                    if (length == FUNCTION_NAME_BYTES.length) {
+                        final byte[] bytes = new byte[length];
+                        input.readFully(bytes);
+                        if (Arrays.equals(bytes, FUNCTION_NAME_BYTES)) {
+                            return true;
+                        }
+                    } else {
+                        skipFully(input, length);
+                    }
+                    break;
+                case 7: // Class
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    skipFully(input, 2);
+                    break;
+                case 15: // MethodHandle
+                    skipFully(input, 3);
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    skipFully(input, 4);
+                    break;
+                case 5: // Long
+                case 6: // Double, takes two entries
+                    skipFully(input, 8);
+                    index++;
+                    break;
+                default:
+                    throw new IOException(String.format("invalid constant pool tag %d", tag));
+            }
+        }
+        return false;
+    }
+
+    private static void skipFully(final DataInputStream input, final int length) throws IOException {
+        if (input.skipBytes(length) != length) {
+            throw new IOException("unexpected end of class file");
+        }
+    }
+
+    private static void scanClass(final byte[] bytes, final List<String> result) {
+        new ClassReader(bytes).accept(new ClassVisitor(Opcodes.ASM9) {
+            private String className;
+
+            @Override
+            public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+                this.className = Type.getObjectType(name).getClassName();
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                return new MethodVisitor(Opcodes.ASM9) {
+                    @Override
+                    public AnnotationVisitor visitAnnotation(String annotationDescriptor, boolean visible) {
+                        if (StringUtils.equals(annotationDescriptor, FUNCTION_NAME_DESCRIPTOR)) {
+                            result.add(String.join(METHOD_SEPARATOR, className, name, descriptor));
+                        }
+                        return null;
+                    }
+                };
+            }
+        }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+    }
+
+    private static String getKey(final File file) throws IOException {
+        if (!file.isDirectory()) {
+            // jars on the classpath are rarely rebuilt in place, path, size and modified time are good enough
+            return String.format("%d:%d", file.length(), file.lastModified());
+        }
+        final Hasher hasher = Hashing.sha256().newHasher();
+        final int prefixLength = file.getAbsolutePath().length();
+        for (final File classFile : listClassFiles(file)) {
+            hasher.putString(classFile.getAbsolutePath().substring(prefixLength), StandardCharsets.UTF_8);
+            hasher.putBytes(FileUtils.readFileToByteArray(classFile));
+        }
+        return hasher.hash().toString();
+    }
+
+    private static List<File> listClassFiles(final File directory) {
+        final List<File> files = new ArrayList<>(FileUtils.listFiles(directory, new String[]{"class"}, true));
+        files.sort(Comparator.comparing(File::getAbsolutePath));
+        return files;
+    }
+
+    @Nullable
+    private static File toFile(final URL url) {
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            log.debug(String.format("Skip scanning %s: %s", url, e.getMessage()));
+            return null;
+        }
+    }
+
+    private static Map<String, IndexEntry> loadIndex(@Nullable final File indexFile) {
+        if (indexFile == null || !indexFile.isFile()) {
+            return new HashMap<>();
+        }
+        try {
+            final Map<String, IndexEntry> index = JsonUtils.getGson().fromJson(FileUtils.readFileToString(indexFile, StandardCharsets.UTF_8), INDEX_TYPE);
+            return index == null ? new HashMap<>() : index;
+        } catch (IOException | JsonParseException e) {
+            log.debug(String.format("Failed to read function index %s: %s", indexFile.getAbsolutePath(), e.getMessage()));
+            return new HashMap<>();
+        }
+    }
+
+    private static void saveIndex(@Nullable final File indexFile, final Map<String, IndexEntry> index) {
+        if (indexFile == null) {
+            return;
+        }
+        try {
+            // write to a temp file and move it, so builds running in parallel never read a partially written index
+            FileUtils.forceMkdirParent(indexFile);
+            final File temp = File.createTempFile(indexFile.getName(), ".tmp", indexFile.getParentFile());
+            FileUtils.writeStringToFile(temp, JsonUtils.toJson(index), StandardCharsets.UTF_8);
+            try {
+                Files.move(temp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                FileUtils.deleteQuietly(temp);
+            }
+        } catch (IOException e) {
+            log.debug(String.format("Failed to save function index %s: %s", indexFile.getAbsolutePath(), e.getMessage()));
+        }
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    private static class IndexEntry {
+        private String key;
+        private List<String> methods = new ArrayList<>();
+    }
+}
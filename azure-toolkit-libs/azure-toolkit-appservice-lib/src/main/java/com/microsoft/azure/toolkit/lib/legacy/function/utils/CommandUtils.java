@@ -7,6 +7,7 @@ package com.microsoft.azure.toolkit.lib.legacy.function.utils;
 
 import org.apache.commons.lang3.SystemUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -27,4 +28,41 @@ public class CommandUtils {
                 // Linux return code of CTRL-C is 130
                 Arrays.asList(0L, 130L);
     }
+
+    /**
+     * Split a command line into arguments by whitespaces, whitespaces inside single or double quotes are kept and
+     * the quotes are removed, e.g. {@code func extensions install -c "/my project"} results in
+     * {@code [func, extensions, install, -c, /my project]}.
+     */
+    public static List<String> splitArguments(final String command) {
+        final List<String> result = new ArrayList<>();
+        final StringBuilder current = new StringBuilder();
+        boolean inArgument = false;
+        char quote = 0;
+        for (final char c : command.toCharArray()) {
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+                inArgument = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inArgument) {
+                    result.add(current.toString());
+                    current.setLength(0);
+                    inArgument = false;
+                }
+            } else {
+                current.append(c);
+                inArgument = true;
+            }
+        }
+        if (inArgument) {
+            result.add(current.toString());
+        }
+        return result;
+    }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.function.utils;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Run a process without a shell, its standard output and error are drained concurrently line by line into the
+ * consumers while it's running, so a child writing more than the pipe buffer never blocks, and output is available
+ * before the process exits. Output of a stream without consumer is discarded.
+ */
+@Slf4j
+@Builder
+public class ProcessRunner {
+    private static final String DRAIN_THREAD_NAME = "azure-process-output-%d";
+    // grandchildren may inherit and keep the pipes open after the process exits, don't wait for them forever
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(5);
+    private static final ExecutorService DRAIN_EXECUTOR = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat(DRAIN_THREAD_NAME).setDaemon(true).build());
+
+    @NonNull
+    private final List<String> command;
+    @Nullable
+    private final File directory;
+    @Nullable
+    private final Consumer<String> stdoutConsumer;
+    @Nullable
+    private final Consumer<String> stderrConsumer;
+    /**
+     * the process is killed when it's not finished in time, no timeout if null
+     */
+    @Nullable
+    private final Duration timeout;
+
+    public Result run() throws IOException, InterruptedException {
+        log.debug("Executing command: " + String.join(" ", command));
+        final long start = System.nanoTime();
+        final ProcessBuilder builder = new ProcessBuilder(command);
+        if (directory != null) {
+            builder.directory(directory);
+        }
+        final Process process = builder.start();
+        final Future<?> stdout = DRAIN_EXECUTOR.submit(() -> drain(process.getInputStream(), stdoutConsumer));
+        final Future<?> stderr = DRAIN_EXECUTOR.submit(() -> drain(process.getErrorStream(), stderrConsumer));
+        boolean timedOut = false;
+        try {
+            if (timeout == null) {
+                process.waitFor();
+            } else if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                timedOut = true;
+                process.destroyForcibly().waitFor();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            throw e;
+        } finally {
+            awaitDrained(stdout, process.getInputStream());
+            awaitDrained(stderr, process.getErrorStream());
+        }
+        final Result result = new Result(process.exitValue(), Duration.ofNanos(System.nanoTime() - start), timedOut);
+        log.debug(String.format("Process exit value: %d, duration: %d ms%s", result.exitCode, result.duration.toMillis(),
+                timedOut ? ", killed on timeout" : ""));
+        return result;
+    }
+
+    private static Void drain(final InputStream input, @Nullable final Consumer<String> consumer) throws IOException {
+        if (consumer == null) {
+            IOUtils.copyLarge(input, NullOutputStream.NULL_OUTPUT_STREAM);
+            return null;
+        }
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                consumer.accept(line);
+            }
+        }
+        return null;
+    }
+
+    private static void awaitDrained(final Future<?> future, final InputStream input) throws IOException, InterruptedException {
+        try {
+            future.get(DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // unblock the reader by closing the pipe, the remaining output is dropped
+            IOUtils.closeQuietly(input);
+            log.debug("Stop reading process output as the pipe is still open after the process exited.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+        private final int exitCode;
+        private final Duration duration;
+        private final boolean timedOut;
+    }
+}
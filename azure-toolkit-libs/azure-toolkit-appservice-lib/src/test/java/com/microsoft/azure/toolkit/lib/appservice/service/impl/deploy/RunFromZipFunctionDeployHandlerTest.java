@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.service.impl.deploy;
+
+import com.microsoft.azure.toolkit.lib.appservice.manager.AppServiceKuduManager;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.Collections;
+
+public class RunFromZipFunctionDeployHandlerTest {
+    private static final String KEY = "WEBSITE_RUN_FROM_PACKAGE";
+
+    private AppServiceKuduManager kuduManager;
+    private RunFromZipFunctionDeployHandler handler;
+
+    @Before
+    public void setUp() {
+        kuduManager = Mockito.mock(AppServiceKuduManager.class);
+        handler = new RunFromZipFunctionDeployHandler(kuduManager, Duration.ofMillis(10), Duration.ofMillis(40), Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void waitForFastRestart() {
+        Mockito.doReturn(Collections.singletonMap(KEY, "1")).when(kuduManager).getAppSettings();
+
+        final Duration elapsed = handler.waitForAppSettingUpdated(KEY, "1");
+
+        Assert.assertTrue(elapsed.toMillis() < 1000);
+        Mockito.verify(kuduManager, Mockito.times(1)).getAppSettings();
+    }
+
+    @Test
+    public void waitForSlowRestart() {
+        // kudu returns stale settings, then fails while restarting, then returns the new settings
+        Mockito.doReturn(Collections.emptyMap())
+                .doThrow(new RuntimeException("503 Service Unavailable"))
+                .doThrow(new RuntimeException("503 Service Unavailable"))
+                .doReturn(Collections.singletonMap(KEY, "1"))
+                .when(kuduManager).getAppSettings();
+
+        final Duration elapsed = handler.waitForAppSettingUpdated(KEY, "1");
+
+        // 10ms + 20ms + 40ms backoff before the fourth poll
+        Assert.assertTrue(elapsed.toMillis() >= 70);
+        Mockito.verify(kuduManager, Mockito.times(4)).getAppSettings();
+    }
+
+    @Test
+    public void waitUntilTimeout() {
+        Mockito.doReturn(Collections.emptyMap()).when(kuduManager).getAppSettings();
+        final RunFromZipFunctionDeployHandler timeoutHandler = new RunFromZipFunctionDeployHandler(kuduManager,
+                Duration.ofMillis(10), Duration.ofMillis(20), Duration.ofMillis(200));
+
+        final Duration elapsed = timeoutHandler.waitForAppSettingUpdated(KEY, "1");
+
+        Assert.assertTrue(elapsed.toMillis() >= 200);
+        Assert.assertTrue(elapsed.toMillis() < 2000);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.utils;
+
+import com.azure.core.exception.HttpResponseException;
+import com.azure.core.http.HttpResponse;
+import com.microsoft.azure.toolkit.lib.appservice.model.AppServiceFile;
+import com.microsoft.azure.toolkit.lib.appservice.service.IFileClient;
+import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
+import com.microsoft.azure.toolkit.lib.common.task.HeadlessAzureTaskManager;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class FileSyncUtilsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File sourceDirectory;
+    private IFileClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        sourceDirectory = folder.newFolder("source");
+        FileUtils.writeStringToFile(new File(sourceDirectory, "a.txt"), "a", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(sourceDirectory, "lib/b.txt"), "bb", StandardCharsets.UTF_8);
+        client = Mockito.mock(IFileClient.class);
+    }
+
+    @Test
+    public void syncToEmptyDirectory() {
+        Mockito.doThrow(httpError(404)).when(client).getFilesInDirectory(ArgumentMatchers.anyString());
+
+        final int uploaded = FileSyncUtils.syncDirectory(client, sourceDirectory, "site/wwwroot/", 2);
+
+        Assert.assertEquals(2, uploaded);
+        verifyUploaded(new File(sourceDirectory, "a.txt"), "site/wwwroot/a.txt");
+        verifyUploaded(new File(sourceDirectory, "lib/b.txt"), "site/wwwroot/lib/b.txt");
+    }
+
+    @Test
+    public void skipUpToDateFiles() {
+        final File a = new File(sourceDirectory, "a.txt");
+        final String mtime = Instant.ofEpochMilli(a.lastModified()).atOffset(ZoneOffset.UTC).toString();
+        final AppServiceFile remoteA = new AppServiceFile().withName("a.txt").withSize(a.length()).withMtime(mtime);
+        // same size as local b.txt, but older
+        final AppServiceFile remoteB = new AppServiceFile().withName("b.txt").withSize(2).withMtime("2000-01-01T00:00:00+00:00");
+        final AppServiceFile remoteLib = new AppServiceFile().withName("lib").withMime("inode/directory");
+        Mockito.doReturn(Arrays.asList(remoteA, remoteLib)).when(client).getFilesInDirectory("site/wwwroot");
+        Mockito.doReturn(Collections.singletonList(remoteB)).when(client).getFilesInDirectory("site/wwwroot/lib");
+
+        final int uploaded = FileSyncUtils.syncDirectory(client, sourceDirectory, "site/wwwroot", 2);
+
+        Assert.assertEquals(1, uploaded);
+        Mockito.verify(client, Mockito.never()).uploadFileToPath(ArgumentMatchers.any(Flux.class), ArgumentMatchers.anyLong(), ArgumentMatchers.eq("site/wwwroot/a.txt"));
+        verifyUploaded(new File(sourceDirectory, "lib/b.txt"), "site/wwwroot/lib/b.txt");
+    }
+
+    @Test
+    public void failOnRemoteErrors() {
+        Mockito.doThrow(httpError(401)).when(client).getFilesInDirectory(ArgumentMatchers.anyString());
+
+        Assert.assertThrows(HttpResponseException.class, () -> FileSyncUtils.syncDirectory(client, sourceDirectory, "site/wwwroot", 2));
+        Mockito.verify(client, Mockito.never()).uploadFileToPath(ArgumentMatchers.any(Flux.class), ArgumentMatchers.anyLong(), ArgumentMatchers.anyString());
+    }
+
+    @Test
+    public void reportFromCallingThread() {
+        Mockito.doThrow(httpError(404)).when(client).getFilesInDirectory(ArgumentMatchers.anyString());
+        final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        final Thread caller = Thread.currentThread();
+        new HeadlessAzureTaskManager().runAndWait(new AzureTask<>("sync", () -> {
+            AzureMessager.getContext().setMessager(message -> {
+                messages.add(message.getMessage());
+                threads.add(Thread.currentThread());
+                return true;
+            });
+            FileSyncUtils.syncDirectory(client, sourceDirectory, "site/wwwroot", 2);
+        }));
+
+        Assert.assertEquals(4, messages.size());
+        Assert.assertTrue(messages.contains(String.format("Uploaded %s to site/wwwroot/a.txt", new File(sourceDirectory, "a.txt").getAbsolutePath())));
+        Assert.assertTrue(threads.stream().allMatch(thread -> thread == caller));
+    }
+
+    @Test
+    public void readFile() throws Exception {
+        final File a = new File(sourceDirectory, "a.txt");
+        final long length = FileSyncUtils.readFile(a).map(ByteBuffer::remaining).reduce(0L, (sum, size) -> sum + size).block();
+
+        Assert.assertEquals(a.length(), length);
+    }
+
+    private void verifyUploaded(final File file, final String path) {
+        Mockito.verify(client).uploadFileToPath(ArgumentMatchers.any(Flux.class), ArgumentMatchers.eq(file.length()), ArgumentMatchers.eq(path));
+    }
+
+    private static HttpResponseException httpError(final int status) {
+        final HttpResponse response = Mockito.mock(HttpResponse.class);
+        Mockito.doReturn(status).when(response).getStatusCode();
+        return new HttpResponseException("Status code " + status, response);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.utils;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+public class ZipPackagerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File sourceDirectory;
+    private File zipFile;
+
+    @Before
+    public void setUp() throws Exception {
+        sourceDirectory = folder.newFolder("staging");
+        zipFile = new File(folder.getRoot(), "staging.zip");
+        FileUtils.writeStringToFile(new File(sourceDirectory, "host.json"), "{}", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(sourceDirectory, "local.settings.json"), "{}", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(sourceDirectory, "lib/a.jar"), "jar content", StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void pack() throws Exception {
+        final String hash = ZipPackager.builder()
+                .filter(entry -> !entry.equals("local.settings.json"))
+                .storeCompressedEntries(true)
+                .digestAlgorithm("SHA-256")
+                .build()
+                .pack(sourceDirectory, zipFile);
+
+        try (final InputStream input = new FileInputStream(zipFile)) {
+            Assert.assertEquals(DigestUtils.sha256Hex(input), hash);
+        }
+        try (final ZipFile zip = new ZipFile(zipFile)) {
+            Assert.assertNull(zip.getEntry("local.settings.json"));
+            Assert.assertNotNull(zip.getEntry("host.json"));
+            final ZipEntry jar = zip.getEntry("lib/a.jar");
+            Assert.assertEquals(ZipEntry.STORED, jar.getMethod());
+            Assert.assertEquals("jar content", IOUtils.toString(zip.getInputStream(jar), StandardCharsets.UTF_8));
+            Assert.assertEquals(ZipEntry.DEFLATED, zip.getEntry("host.json").getMethod());
+        }
+    }
+
+    @Test
+    public void packIsReproducible() throws Exception {
+        final ZipPackager packager = ZipPackager.builder().storeCompressedEntries(true).digestAlgorithm("SHA-256").build();
+        final String hash = packager.pack(sourceDirectory, zipFile);
+        // e.g. function.json and host.json are written again on every package
+        final File hostJson = new File(sourceDirectory, "host.json");
+        FileUtils.writeStringToFile(hostJson, "{}", StandardCharsets.UTF_8);
+        Assert.assertTrue(hostJson.setLastModified(hostJson.lastModified() + 60000));
+
+        Assert.assertEquals(hash, packager.pack(sourceDirectory, zipFile));
+    }
+
+    @Test
+    public void storedEntryHasValidCrc() throws Exception {
+        ZipPackager.builder().storeCompressedEntries(true).build().pack(sourceDirectory, zipFile);
+        // unlike ZipFile, ZipInputStream verifies size and crc of stored entries
+        try (final ZipInputStream zip = new ZipInputStream(new FileInputStream(zipFile))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                final String content = IOUtils.toString(zip, StandardCharsets.UTF_8);
+                if (entry.getName().equals("lib/a.jar")) {
+                    Assert.assertEquals(ZipEntry.STORED, entry.getMethod());
+                    Assert.assertEquals("jar content", content);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void packWithoutDigest() throws Exception {
+        Assert.assertNull(ZipPackager.builder().build().pack(sourceDirectory, zipFile));
+        try (final ZipFile zip = new ZipFile(zipFile)) {
+            Assert.assertNotNull(zip.getEntry("local.settings.json"));
+            Assert.assertEquals(ZipEntry.DEFLATED, zip.getEntry("lib/a.jar").getMethod());
+        }
+    }
+}
@@ -7,71 +7,135 @@ package com.microsoft.azure.toolkit.lib.legacy.appservice.handlers.artifact;
 
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPFile;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import static org.mockito.Mockito.verifyNoMoreInteractions;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
 
 @RunWith(MockitoJUnitRunner.class)
 public class FTPUploaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private FTPUploader ftpUploader = null;
+    private FTPClient ftpClient = null;
+    private File sourceDirectory = null;
 
     @Before
-    public void setUp() {
+    public void setUp() throws Exception {
         MockitoAnnotations.initMocks(this);
-        ftpUploader = new FTPUploader();
+        sourceDirectory = folder.newFolder("source");
+        FileUtils.writeStringToFile(new File(sourceDirectory, "a.txt"), "a", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(sourceDirectory, "lib/b.txt"), "bb", StandardCharsets.UTF_8);
+
+        ftpUploader = Mockito.spy(new FTPUploader(1));
+        ftpClient = Mockito.mock(FTPClient.class);
+        Mockito.doReturn(ftpClient).when(ftpUploader).getFTPClient(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
+        Mockito.lenient().doReturn(true).when(ftpClient).isConnected();
+        Mockito.lenient().doReturn(200).when(ftpClient).getReplyCode();
     }
 
     @Test
     public void uploadDirectoryWithRetries() throws Exception {
-        final FTPUploader uploaderSpy = Mockito.spy(ftpUploader);
+        ftpUploader.uploadDirectoryWithRetries("ftpServer", "username", "password", sourceDirectory.getAbsolutePath(), "/site/wwwroot", 1);
+
+        Mockito.verify(ftpClient, Mockito.times(1)).storeFile(ArgumentMatchers.eq("/site/wwwroot/a.txt"), ArgumentMatchers.any());
+        Mockito.verify(ftpClient, Mockito.times(1)).storeFile(ArgumentMatchers.eq("/site/wwwroot/lib/b.txt"), ArgumentMatchers.any());
+        // directories are created once, instead of changing working directory for every file
+        Mockito.verify(ftpClient, Mockito.times(1)).makeDirectory("/site/wwwroot/lib");
+        Mockito.verify(ftpClient, Mockito.times(3)).changeWorkingDirectory(ArgumentMatchers.anyString());
+        Mockito.verify(ftpUploader, Mockito.times(1)).getFTPClient(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
+        Mockito.verify(ftpClient, Mockito.times(1)).disconnect();
+    }
+
+    @Test
+    public void uploadDirectoryWithParallelSessions() throws Exception {
+        final FTPUploader uploader = Mockito.spy(new FTPUploader(2));
+        Mockito.doReturn(ftpClient).when(uploader).getFTPClient(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
+
+        uploader.uploadDirectoryWithRetries("ftpServer", "username", "password", sourceDirectory.getAbsolutePath(), "/site/wwwroot", 1);
+
+        Mockito.verify(ftpClient, Mockito.times(2)).storeFile(ArgumentMatchers.anyString(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void retryFailedFileOnly() throws Exception {
+        Mockito.doThrow(new IOException("mocked failure")).doReturn(true)
+                .when(ftpClient).storeFile(ArgumentMatchers.eq("/site/wwwroot/a.txt"), ArgumentMatchers.any());
+
+        ftpUploader.uploadDirectoryWithRetries("ftpServer", "username", "password", sourceDirectory.getAbsolutePath(), "/site/wwwroot", 2);
+
+        Mockito.verify(ftpClient, Mockito.times(2)).storeFile(ArgumentMatchers.eq("/site/wwwroot/a.txt"), ArgumentMatchers.any());
+        Mockito.verify(ftpClient, Mockito.times(1)).storeFile(ArgumentMatchers.eq("/site/wwwroot/lib/b.txt"), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void uploadFailsAfterRetries() throws Exception {
+        Mockito.doThrow(new IOException("mocked failure"))
+                .when(ftpClient).storeFile(ArgumentMatchers.eq("/site/wwwroot/a.txt"), ArgumentMatchers.any());
 
-        // Failure
         AzureExecutionException exception = null;
-        Mockito.doReturn(false).when(uploaderSpy).uploadDirectory(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(),
-                ArgumentMatchers.anyString());
         try {
-            uploaderSpy.uploadDirectoryWithRetries("ftpServer", "username", "password", "sourceDir", "targetDir", 1);
+            ftpUploader.uploadDirectoryWithRetries("ftpServer", "username", "password", sourceDirectory.getAbsolutePath(), "/site/wwwroot", 2);
         } catch (AzureExecutionException e) {
             exception = e;
         } finally {
             Assert.assertNotNull(exception);
         }
+        Mockito.verify(ftpClient, Mockito.times(2)).storeFile(ArgumentMatchers.eq("/site/wwwroot/a.txt"), ArgumentMatchers.any());
+        Mockito.verify(ftpClient, Mockito.times(1)).storeFile(ArgumentMatchers.eq("/site/wwwroot/lib/b.txt"), ArgumentMatchers.any());
+    }
 
-        // Success
-        Mockito.doReturn(true).when(uploaderSpy).uploadDirectory(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(),
-                ArgumentMatchers.anyString());
-        uploaderSpy.uploadDirectoryWithRetries("ftpServer", "username", "password", "sourceDir", "targetDir", 1);
+    @Test
+    public void skipUpToDateFile() throws Exception {
+        final File file = new File(sourceDirectory, "a.txt");
+        final FTPFile remoteFile = new FTPFile();
+        remoteFile.setType(FTPFile.FILE_TYPE);
+        remoteFile.setSize(file.length());
+        final Calendar timestamp = Calendar.getInstance();
+        timestamp.setTimeInMillis(file.lastModified());
+        remoteFile.setTimestamp(timestamp);
+        Mockito.doReturn(remoteFile).when(ftpClient).mlistFile("/site/wwwroot/a.txt");
+
+        ftpUploader.uploadDirectoryWithRetries("ftpServer", "username", "password", sourceDirectory.getAbsolutePath(), "/site/wwwroot", 1);
+
+        Mockito.verify(ftpClient, Mockito.never()).storeFile(ArgumentMatchers.eq("/site/wwwroot/a.txt"), ArgumentMatchers.any());
+        Mockito.verify(ftpClient, Mockito.times(1)).storeFile(ArgumentMatchers.eq("/site/wwwroot/lib/b.txt"), ArgumentMatchers.any());
     }
 
     @Test
-    public void uploadDirectory() throws Exception {
-        final FTPUploader uploaderSpy = Mockito.spy(ftpUploader);
-        final FTPClient ftpClient = Mockito.mock(FTPClient.class);
-        Mockito.doReturn(ftpClient).when(uploaderSpy).getFTPClient(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
-        Mockito.doNothing().when(uploaderSpy).uploadDirectory(ArgumentMatchers.any(FTPClient.class), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
+    public void uploadSameFileToMultipleTargets() throws Exception {
+        final File file = new File(sourceDirectory, "a.txt");
+        final List<FTPUploader.FileToUpload> files = Arrays.asList(new FTPUploader.FileToUpload(file, "/site/wwwroot"),
+                new FTPUploader.FileToUpload(file, "/site/wwwroot/static"));
 
-        uploaderSpy.uploadDirectory(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
-        Mockito.verify(ftpClient, Mockito.times(1)).disconnect();
-        Mockito.verifyNoMoreInteractions(ftpClient);
-        Mockito.verify(uploaderSpy, Mockito.times(1)).uploadDirectory(ArgumentMatchers.any(FTPClient.class), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
-        Mockito.verify(uploaderSpy, Mockito.times(1)).getFTPClient(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
-        Mockito.verify(uploaderSpy, Mockito.times(1)).uploadDirectory(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
-        verifyNoMoreInteractions(uploaderSpy);
+        ftpUploader.uploadFilesWithRetries("ftpServer", "username", "password", files, 1);
+
+        Mockito.verify(ftpClient, Mockito.times(1)).storeFile(ArgumentMatchers.eq("/site/wwwroot/a.txt"), ArgumentMatchers.any());
+        Mockito.verify(ftpClient, Mockito.times(1)).storeFile(ArgumentMatchers.eq("/site/wwwroot/static/a.txt"), ArgumentMatchers.any());
     }
 
     @Test
     public void getFTPClient() throws Exception {
         Exception caughtException = null;
         try {
-            ftpUploader.getFTPClient("fakeFTPServer", "username", "password");
+            new FTPUploader().getFTPClient("fakeFTPServer", "username", "password");
         } catch (Exception e) {
             caughtException = e;
         } finally {
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.function;
+
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockListingFilter;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class BlockBlobUploaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private CloudBlockBlob blob;
+
+    @Before
+    public void setUp() throws Exception {
+        file = folder.newFile("package.zip");
+        FileUtils.writeStringToFile(file, "0123456789", StandardCharsets.UTF_8);
+        blob = Mockito.spy(new CloudBlockBlob(new URI("https://account.blob.core.windows.net/container/package.zip")));
+        Mockito.doNothing().when(blob).uploadBlock(ArgumentMatchers.anyString(), ArgumentMatchers.any(), ArgumentMatchers.anyLong(),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        Mockito.doNothing().when(blob).commitBlockList(ArgumentMatchers.any());
+    }
+
+    @Test
+    public void upload() throws Exception {
+        new BlockBlobUploader(4, 2).upload(file, blob);
+
+        Mockito.verify(blob).uploadBlock(ArgumentMatchers.eq(BlockBlobUploader.getBlockId(0)), ArgumentMatchers.any(), ArgumentMatchers.eq(4L),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        Mockito.verify(blob).uploadBlock(ArgumentMatchers.eq(BlockBlobUploader.getBlockId(1)), ArgumentMatchers.any(), ArgumentMatchers.eq(4L),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        Mockito.verify(blob).uploadBlock(ArgumentMatchers.eq(BlockBlobUploader.getBlockId(2)), ArgumentMatchers.any(), ArgumentMatchers.eq(2L),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        Assert.assertEquals(Arrays.asList(BlockBlobUploader.getBlockId(0), BlockBlobUploader.getBlockId(1), BlockBlobUploader.getBlockId(2)),
+                getCommittedBlockIds());
+        Assert.assertFalse(BlockBlobUploader.getManifestFile(file).exists());
+    }
+
+    @Test
+    public void resumeUpload() throws Exception {
+        final String failedBlock = BlockBlobUploader.getBlockId(2);
+        Mockito.doThrow(new StorageException("InternalError", "mocked failure", null)).when(blob).uploadBlock(ArgumentMatchers.eq(failedBlock),
+                ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        try {
+            new BlockBlobUploader(4, 1).upload(file, blob);
+            Assert.fail("upload should fail when a block fails");
+        } catch (AzureExecutionException e) {
+            // expected
+        }
+        Assert.assertTrue(BlockBlobUploader.getManifestFile(file).exists());
+
+        Mockito.reset(blob);
+        final ArrayList<BlockEntry> uncommittedBlocks = new ArrayList<>();
+        uncommittedBlocks.add(new BlockEntry(BlockBlobUploader.getBlockId(0)));
+        uncommittedBlocks.add(new BlockEntry(BlockBlobUploader.getBlockId(1)));
+        Mockito.doReturn(uncommittedBlocks).when(blob).downloadBlockList(ArgumentMatchers.eq(BlockListingFilter.UNCOMMITTED),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        Mockito.doNothing().when(blob).uploadBlock(ArgumentMatchers.anyString(), ArgumentMatchers.any(), ArgumentMatchers.anyLong(),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        Mockito.doNothing().when(blob).commitBlockList(ArgumentMatchers.any());
+
+        new BlockBlobUploader(4, 1).upload(file, blob);
+
+        Mockito.verify(blob, Mockito.times(1)).uploadBlock(ArgumentMatchers.anyString(), ArgumentMatchers.any(), ArgumentMatchers.anyLong(),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        Mockito.verify(blob).uploadBlock(ArgumentMatchers.eq(failedBlock), ArgumentMatchers.any(), ArgumentMatchers.eq(2L),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        Assert.assertEquals(3, getCommittedBlockIds().size());
+        Assert.assertFalse(BlockBlobUploader.getManifestFile(file).exists());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBlockSize() {
+        new BlockBlobUploader(0, 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> getCommittedBlockIds() throws StorageException {
+        final ArgumentCaptor<Iterable<BlockEntry>> captor = ArgumentCaptor.forClass(Iterable.class);
+        Mockito.verify(blob).commitBlockList(captor.capture());
+        final List<BlockEntry> entries = new ArrayList<>();
+        captor.getValue().forEach(entries::add);
+        return entries.stream().map(BlockEntry::getId).collect(Collectors.toList());
+    }
+}
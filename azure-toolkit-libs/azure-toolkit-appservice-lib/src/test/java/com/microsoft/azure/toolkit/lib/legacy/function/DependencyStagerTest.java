@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.function;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class DependencyStagerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File repository;
+    private File lib;
+    private File manifest;
+    private File a;
+    private File b;
+
+    @Before
+    public void setUp() throws Exception {
+        repository = folder.newFolder("repository");
+        lib = new File(folder.getRoot(), "staging/lib");
+        manifest = new File(folder.getRoot(), "staging.lib.json");
+        a = new File(repository, "a.jar");
+        b = new File(repository, "b.jar");
+        FileUtils.writeStringToFile(a, "a", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(b, "bb", StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void stage() throws Exception {
+        final DependencyStager.StageResult cold = new DependencyStager(lib, manifest).stage(Arrays.asList(a, b));
+        Assert.assertEquals(2, cold.getAdded());
+        Assert.assertEquals("bb", FileUtils.readFileToString(new File(lib, "b.jar"), StandardCharsets.UTF_8));
+        Assert.assertTrue(manifest.isFile());
+
+        final DependencyStager.StageResult warm = new DependencyStager(lib, manifest).stage(Arrays.asList(a, b));
+        Assert.assertEquals(2, warm.getUnchanged());
+        Assert.assertEquals(0, warm.getAdded() + warm.getUpdated() + warm.getDeleted());
+    }
+
+    @Test
+    public void stageChanges() throws Exception {
+        new DependencyStager(lib, manifest).stage(Arrays.asList(a, b));
+        FileUtils.writeStringToFile(new File(lib, "stale.jar"), "stale", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(b, "changed", StandardCharsets.UTF_8);
+
+        final DependencyStager.StageResult result = new DependencyStager(lib, manifest).stage(Collections.singletonList(b));
+
+        Assert.assertEquals(1, result.getUpdated());
+        Assert.assertEquals(2, result.getDeleted());
+        Assert.assertEquals(Collections.singletonList("b.jar"), Arrays.asList(lib.list()));
+        Assert.assertEquals("changed", FileUtils.readFileToString(new File(lib, "b.jar"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void copyByDefault() throws Exception {
+        new DependencyStager(lib, manifest).stage(Collections.singletonList(a));
+
+        final File staged = new File(lib, "a.jar");
+        Assert.assertFalse(Files.isSameFile(a.toPath(), staged.toPath()));
+        FileUtils.writeStringToFile(staged, "edited", StandardCharsets.UTF_8);
+        Assert.assertEquals("a", FileUtils.readFileToString(a, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void linkOnlyFromLinkableDirectory() throws Exception {
+        final File reactorOutput = new File(folder.newFolder("module", "target"), "module.jar");
+        FileUtils.writeStringToFile(reactorOutput, "module", StandardCharsets.UTF_8);
+
+        new DependencyStager(lib, manifest, repository).stage(Arrays.asList(a, reactorOutput));
+
+        Assert.assertTrue(Files.isSameFile(a.toPath(), new File(lib, "a.jar").toPath()));
+        Assert.assertFalse(Files.isSameFile(reactorOutput.toPath(), new File(lib, "module.jar").toPath()));
+    }
+
+    @Test
+    public void touchedButIdenticalFileIsNotStagedAgain() throws Exception {
+        new DependencyStager(lib, manifest).stage(Collections.singletonList(a));
+        Assert.assertTrue(a.setLastModified(a.lastModified() + 10000));
+
+        final DependencyStager.StageResult result = new DependencyStager(lib, manifest).stage(Collections.singletonList(a));
+
+        Assert.assertEquals(1, result.getUnchanged());
+    }
+}
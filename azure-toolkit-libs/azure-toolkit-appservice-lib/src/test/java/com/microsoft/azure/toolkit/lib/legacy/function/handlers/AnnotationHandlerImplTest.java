@@ -38,9 +38,11 @@ import com.microsoft.azure.functions.annotation.TimerTrigger;
 import com.microsoft.azure.functions.annotation.TwilioSmsOutput;
 
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
-import org.reflections.util.ClasspathHelper;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -57,6 +59,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class AnnotationHandlerImplTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     public static final String HTTP_TRIGGER_FUNCTION = "HttpTriggerFunction";
     public static final String HTTP_TRIGGER_METHOD = "httpTriggerMethod";
     public static final String QUEUE_TRIGGER_FUNCTION = "QueueTriggerFunction";
@@ -245,6 +250,17 @@ public class AnnotationHandlerImplTest {
         Assert.assertTrue(methodNames.contains(EXTENDING_CUSTOM_BINDING_WITHOUT_NAME_METHOD));
     }
 
+    @Test
+    public void findFunctionsWithIndex() throws Exception {
+        final File indexFile = folder.newFile("index.json");
+        final Set<Method> functions = new AnnotationHandlerImpl(indexFile).findFunctions(Arrays.asList(getClassUrl()));
+        Assert.assertTrue(indexFile.length() > 0);
+
+        final Set<Method> cachedFunctions = new AnnotationHandlerImpl(indexFile).findFunctions(Arrays.asList(getClassUrl()));
+        Assert.assertEquals(13, cachedFunctions.size());
+        Assert.assertEquals(functions, cachedFunctions);
+    }
+
     @Test
     public void generateConfigurations() throws Exception {
         final AnnotationHandler handler = getAnnotationHandler();
@@ -315,9 +331,7 @@ public class AnnotationHandlerImplTest {
     }
 
     private URL getClassUrl() {
-        return ClasspathHelper.forPackage("com.microsoft.azure.toolkit.lib.legacy.function.handlers")
-                .iterator()
-                .next();
+        return FunctionEntryPoints.class.getProtectionDomain().getCodeSource().getLocation();
     }
 
     private String getFullyQualifiedMethodName(final String methodName) {
@@ -5,22 +5,23 @@
 
 package com.microsoft.azure.toolkit.lib.legacy.function.handlers;
 
+import com.microsoft.azure.toolkit.lib.legacy.function.utils.CommandUtils;
 import org.junit.Test;
 
 import java.util.Arrays;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class CommandHandlerImplTest {
     @Test
     public void buildCommand() {
-        assertEquals(3, CommandHandlerImpl.buildCommand("cmd").length);
-    }
-
-    @Test
-    public void getStdoutRedirect() {
-        assertEquals(ProcessBuilder.Redirect.INHERIT, CommandHandlerImpl.getStdoutRedirect(true));
-        assertEquals(ProcessBuilder.Redirect.PIPE, CommandHandlerImpl.getStdoutRedirect(false));
+        if (CommandUtils.isWindows()) {
+            assertEquals(3, CommandHandlerImpl.buildCommand("cmd").length);
+        } else {
+            assertArrayEquals(new String[]{"func", "extensions", "install", "-c", "/my project", "--java"},
+                    CommandHandlerImpl.buildCommand("func extensions install -c \"/my project\" --java"));
+        }
     }
 
     @Test(expected = Exception.class)
@@ -6,18 +6,26 @@
 package com.microsoft.azure.toolkit.lib.legacy.function.handlers;
 
 import com.microsoft.azure.toolkit.lib.legacy.function.utils.CommandUtils;
+import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
 import static com.microsoft.azure.toolkit.lib.legacy.function.handlers.FunctionCoreToolsHandlerImpl.FUNC_EXTENSIONS_INSTALL_TEMPLATE;
+import static com.microsoft.azure.toolkit.lib.legacy.function.handlers.FunctionCoreToolsHandlerImpl.GET_LATEST_VERSION_CMD;
 import static com.microsoft.azure.toolkit.lib.legacy.function.handlers.FunctionCoreToolsHandlerImpl.INSTALL_FUNCTION_EXTENSIONS_FAIL;
 import static org.junit.Assert.assertEquals;
 
 public class FunctionCoreToolsHandlerImplTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
 
     @Test
     public void installExtension() throws Exception {
@@ -114,4 +122,35 @@ public class FunctionCoreToolsHandlerImplTest {
         Mockito.doReturn("3.0.0").when(functionCoreToolsHandlerSpy).getLatestFunctionCoreToolsVersion();
         functionCoreToolsHandlerSpy.assureRequirementAddressed();
     }
+
+    @Test
+    public void getLatestFunctionCoreToolsVersionCached() throws Exception {
+        final CommandHandler commandHandler = Mockito.mock(CommandHandler.class);
+        Mockito.doReturn("3.0.0").when(commandHandler).runCommandAndGetOutput(ArgumentMatchers.eq(GET_LATEST_VERSION_CMD),
+                ArgumentMatchers.anyBoolean(), ArgumentMatchers.any(), ArgumentMatchers.any(Duration.class));
+        final File stateFile = new File(folder.getRoot(), "state.json");
+
+        assertEquals("3.0.0", new FunctionCoreToolsHandlerImpl(commandHandler, stateFile).getLatestFunctionCoreToolsVersion());
+        assertEquals("3.0.0", new FunctionCoreToolsHandlerImpl(commandHandler, stateFile).getLatestFunctionCoreToolsVersion());
+        Mockito.verify(commandHandler, Mockito.times(1)).runCommandAndGetOutput(ArgumentMatchers.eq(GET_LATEST_VERSION_CMD),
+                ArgumentMatchers.anyBoolean(), ArgumentMatchers.any(), ArgumentMatchers.any(Duration.class));
+    }
+
+    @Test
+    public void installExtensionSkippedIfUnchanged() throws Exception {
+        final File staging = folder.newFolder("staging");
+        FileUtils.writeStringToFile(new File(staging, "host.json"), "{}", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(staging, "HttpTrigger/function.json"), "{}", StandardCharsets.UTF_8);
+        final FunctionCoreToolsHandlerImpl handler = Mockito.spy(new FunctionCoreToolsHandlerImpl(Mockito.mock(CommandHandler.class)));
+        Mockito.doNothing().when(handler).assureRequirementAddressed();
+        Mockito.doAnswer(invocation -> new File(staging, "bin").mkdirs()).when(handler).installFunctionExtension(staging, folder.getRoot());
+
+        handler.installExtension(staging, folder.getRoot());
+        handler.installExtension(staging, folder.getRoot());
+        Mockito.verify(handler, Mockito.times(1)).installFunctionExtension(staging, folder.getRoot());
+
+        FileUtils.writeStringToFile(new File(staging, "QueueTrigger/function.json"), "{}", StandardCharsets.UTF_8);
+        handler.installExtension(staging, folder.getRoot());
+        Mockito.verify(handler, Mockito.times(2)).installFunctionExtension(staging, folder.getRoot());
+    }
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.function.handlers;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+public class FunctionScannerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File classes;
+    private File jar;
+
+    @Before
+    public void setUp() throws Exception {
+        classes = new File(AnnotationHandlerImplTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        jar = new File(folder.getRoot(), "functions.jar");
+        final String packagePath = AnnotationHandlerImplTest.class.getPackage().getName().replace('.', '/');
+        final Collection<File> files = FileUtils.listFiles(new File(classes, packagePath), new String[]{"class"}, false);
+        try (final JarOutputStream output = new JarOutputStream(new FileOutputStream(jar))) {
+            for (final File file : files) {
+                output.putNextEntry(new JarEntry(packagePath + "/" + file.getName()));
+                FileUtils.copyFile(file, output);
+                output.closeEntry();
+            }
+        }
+    }
+
+    @Test
+    public void referencesFunctionName() throws Exception {
+        Assert.assertTrue(referencesFunctionName(AnnotationHandlerImplTest.FunctionEntryPoints.class));
+        Assert.assertFalse(referencesFunctionName(FunctionScannerTest.class));
+        Assert.assertFalse(referencesFunctionName(String.class));
+    }
+
+    @Test
+    public void scanJar() throws Exception {
+        final Set<Method> functions = findFunctions(new FunctionScanner(null), jar);
+        Assert.assertEquals(13, functions.size());
+        Assert.assertEquals(functions, findFunctions(new FunctionScanner(null), classes));
+    }
+
+    @Test
+    public void jarIndexIsShared() throws Exception {
+        final File jarIndex = new File(folder.getRoot(), "shared/jar-index.json");
+        final Set<Method> functions = findFunctions(new FunctionScanner(new File(folder.getRoot(), "a/index.json"), jarIndex), jar);
+        Assert.assertTrue(jarIndex.isFile());
+
+        // same size and modified time, but not a jar any more, so it must not be read again
+        final long modified = jar.lastModified();
+        FileUtils.writeByteArrayToFile(jar, new byte[(int) jar.length()]);
+        Assert.assertTrue(jar.setLastModified(modified));
+        final Set<Method> cached = findFunctions(new FunctionScanner(new File(folder.getRoot(), "b/index.json"), jarIndex), jar);
+        Assert.assertEquals(functions, cached);
+    }
+
+    private Set<Method> findFunctions(final FunctionScanner scanner, final File file) throws Exception {
+        final URL url = file.toURI().toURL();
+        return scanner.findFunctions(Collections.singletonList(url), getClass().getClassLoader());
+    }
+
+    private static boolean referencesFunctionName(final Class<?> clazz) throws Exception {
+        try (final InputStream input = clazz.getResourceAsStream(StringUtils.substringAfterLast(clazz.getName(), ".") + ".class")) {
+            return FunctionScanner.referencesFunctionName(input);
+        }
+    }
+}
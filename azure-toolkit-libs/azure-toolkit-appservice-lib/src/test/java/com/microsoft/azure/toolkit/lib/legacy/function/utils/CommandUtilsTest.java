@@ -29,4 +29,11 @@ public class CommandUtilsTest {
     public void getValidReturnCodes() {
         assertEquals(Arrays.asList(0L), CommandUtils.getDefaultValidReturnCodes());
     }
+
+    @Test
+    public void splitArguments() {
+        assertEquals(Arrays.asList("func", "host", "start", "--language-worker", "--", "-agentlib:jdwp=transport=dt_socket,server=y"),
+                CommandUtils.splitArguments("func host start --language-worker --  \"-agentlib:jdwp=transport=dt_socket,server=y\""));
+        assertEquals(Arrays.asList("a b", "", "c"), CommandUtils.splitArguments(" 'a b' \"\" c "));
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.function.utils;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProcessRunnerTest {
+    private static final int LINES = 40000;
+    private static final String LINE = "0123456789012345678901234567890123456789012345678901234567890123456789012345678901234567890123456789";
+
+    @Test
+    public void runWithLargeOutput() throws Exception {
+        // ~4MB on each stream, far more than the pipe buffer, the child would block forever if any stream is not drained
+        final AtomicLong stdoutLines = new AtomicLong();
+        final AtomicLong stderrBytes = new AtomicLong();
+        final ProcessRunner.Result result = ProcessRunner.builder()
+                .command(javaCommand("noisy"))
+                .stdoutConsumer(line -> {
+                    assertEquals(LINE, line);
+                    stdoutLines.incrementAndGet();
+                })
+                .stderrConsumer(line -> stderrBytes.addAndGet(line.length()))
+                .timeout(Duration.ofMinutes(2))
+                .build().run();
+
+        assertEquals(3, result.getExitCode());
+        assertFalse(result.isTimedOut());
+        assertEquals(LINES, stdoutLines.get());
+        assertEquals((long) LINES * LINE.length(), stderrBytes.get());
+    }
+
+    @Test
+    public void runWithoutConsumers() throws Exception {
+        final ProcessRunner.Result result = ProcessRunner.builder().command(javaCommand("noisy")).build().run();
+        assertEquals(3, result.getExitCode());
+    }
+
+    @Test
+    public void runWithTimeout() throws Exception {
+        final ProcessRunner.Result result = ProcessRunner.builder()
+                .command(javaCommand("sleep"))
+                .timeout(Duration.ofMillis(500))
+                .build().run();
+        assertTrue(result.isTimedOut());
+        assertTrue(result.getDuration().toMillis() < 60000);
+    }
+
+    @Test(expected = IOException.class)
+    public void runNotExistingCommand() throws Exception {
+        ProcessRunner.builder().command(Arrays.asList("not-existing-command-" + System.nanoTime())).build().run();
+    }
+
+    private static List<String> javaCommand(String mode) {
+        final List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Child.class.getName());
+        command.add(mode);
+        return command;
+    }
+
+    public static class Child {
+        public static void main(String[] args) throws Exception {
+            if ("sleep".equals(args[0])) {
+                Thread.sleep(Duration.ofMinutes(5).toMillis());
+                return;
+            }
+            for (int i = 0; i < LINES; i++) {
+                System.out.println(LINE);
+                System.err.println(LINE);
+            }
+            System.out.flush();
+            System.err.flush();
+            System.exit(3);
+        }
+    }
+}
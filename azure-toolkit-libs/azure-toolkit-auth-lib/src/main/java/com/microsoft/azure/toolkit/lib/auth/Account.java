@@ -88,6 +88,7 @@ public abstract class Account implements IAccount {
     public void logout() {
         if (this.entity != null) {
             this.entity = null;
+            PersistentTokenCache.getInstance().clear();
             Azure.az(AzureAccount.class).logout();
         }
     }
@@ -115,7 +116,8 @@ public abstract class Account implements IAccount {
         if (entity.getSubscriptions().stream().anyMatch(s -> Utils.containsIgnoreCase(selectedSubscriptionIds, s.getId()))) {
             selectSubscriptionInner(this.getSubscriptions(), selectedSubscriptionIds);
             final AzureTaskManager manager = AzureTaskManager.getInstance();
-            if (Objects.nonNull(manager)) {
+            // a headless run (e.g. maven) is too short to benefit from preloading
+            if (Objects.nonNull(manager) && !manager.isHeadless()) {
                 manager.runOnPooledThread(Preloader::load);
             }
         } else {
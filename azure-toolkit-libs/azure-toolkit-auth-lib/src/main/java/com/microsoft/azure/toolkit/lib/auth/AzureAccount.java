@@ -34,18 +34,21 @@ import com.microsoft.azure.toolkit.lib.auth.model.AccountEntity;
 import com.microsoft.azure.toolkit.lib.auth.model.AuthConfiguration;
 import com.microsoft.azure.toolkit.lib.auth.model.AuthType;
 import com.microsoft.azure.toolkit.lib.auth.util.AzureEnvironmentUtils;
+import com.microsoft.azure.toolkit.lib.auth.util.HttpClientProvider;
 import com.microsoft.azure.toolkit.lib.common.cache.Cacheable;
+import com.microsoft.azure.toolkit.lib.common.cache.PersistentCache;
 import com.microsoft.azure.toolkit.lib.common.model.Region;
 import com.microsoft.azure.toolkit.lib.common.utils.Utils;
-import lombok.AccessLevel;
-import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -56,7 +59,6 @@ import java.util.stream.Collectors;
 
 public class AzureAccount implements IAzureAccount {
 
-    @Setter(AccessLevel.PACKAGE)
     private Account account;
 
     /**
@@ -112,11 +114,24 @@ public class AzureAccount implements IAzureAccount {
     public void logout() {
         if (this.account != null) {
             Account tempAccount = this.account;
-            this.account = null;
+            setAccount(null);
             tempAccount.logout();
         }
     }
 
+    void setAccount(@Nullable Account account) {
+        this.account = account;
+        // entries of persistent caches are only shared by processes signed in with the same account
+        PersistentCache.getInstance().setPartition(Optional.ofNullable(account).map(Account::getEntity).map(AzureAccount::getPartition).orElse(null));
+    }
+
+    private static String getPartition(@Nonnull AccountEntity entity) {
+        final List<String> tenantIds = Optional.ofNullable(entity.getTenantIds()).map(ArrayList::new).orElseGet(ArrayList::new);
+        Collections.sort(tenantIds);
+        return String.join("|", String.valueOf(entity.getEnvironment()), String.valueOf(entity.getType()),
+                StringUtils.lowerCase(entity.getEmail()), entity.getClientId(), String.join(",", tenantIds));
+    }
+
     private Mono<Account> restoreLogin(@Nonnull AccountEntity accountEntity) {
         Preconditions.checkNotNull(accountEntity.getEnvironment(), "Azure environment for account entity is required.");
         Preconditions.checkNotNull(accountEntity.getType(), "Auth type for account entity is required.");
@@ -231,7 +246,7 @@ public class AzureAccount implements IAzureAccount {
     /**
      * see doc for: az account list-locations -o table
      */
-    @Cacheable(cacheName = "Regions", key = "$subscriptionId")
+    @Cacheable(cacheName = "Regions", key = "$subscriptionId", expireAfterWrite = 24 * 60 * 60, persistent = true)
     public List<Region> listRegions(String subscriptionId) {
         return getSubscription(subscriptionId).listLocations().stream()
                 .filter(l -> l.regionType() == RegionType.PHYSICAL) // use distinct since com.azure.core.management.Region impls equals
@@ -292,10 +307,12 @@ public class AzureAccount implements IAzureAccount {
         final AzureProfile azureProfile = new AzureProfile(account.getEnvironment());
 
         final Providers providers = AzureResourceManager.configure()
+            .withHttpClient(HttpClientProvider.getHttpClient())
             .withPolicy(getUserAgentPolicy(userAgent))
             .authenticate(account.getTokenCredential(subscriptionId), azureProfile)
             .withSubscription(subscriptionId).providers();
         return AzureResourceManager.configure()
+                .withHttpClient(HttpClientProvider.getHttpClient())
                 .withLogLevel(logDetailLevel)
                 .withPolicy(getUserAgentPolicy(userAgent)) // set user agent with policy
             .withPolicy(new ProviderRegistrationPolicy(providers)) // add policy to auto register resource providers
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.auth;
+
+import com.azure.core.credential.AccessToken;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * On-disk access token cache shared by all processes of the current user (e.g. parallel or consecutive maven builds),
+ * so that token credentials backed by expensive calls (e.g. spawning {@code az account get-access-token}) are invoked
+ * once per tenant and resource until the token expires. The cache is protected by the file permissions only: both the
+ * cache and the random AES/GCM key encrypting it are in the same directory readable only by the owner, so anyone who
+ * can read the cache can read the key too. The encryption only keeps tokens out of plain text (e.g. backups, grep), and
+ * detects a corrupted or rotated key. All access is serialized by a file lock.
+ * Set system property {@value #DISABLE_PROPERTY} to {@code true} to disable it.
+ */
+@Slf4j
+public class PersistentTokenCache {
+    public static final String DISABLE_PROPERTY = "azure.token.cache.disabled";
+    private static final Path DEFAULT_DIRECTORY = Paths.get(System.getProperty("user.home"), ".azure", "azure-toolkit-token-cache");
+    private static final String CACHE_FILE = "tokens.bin";
+    private static final String KEY_FILE = "tokens.key";
+    private static final String LOCK_FILE = "tokens.lock";
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int KEY_LENGTH = 32;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final byte VERSION = 1;
+    // tokens expiring within the margin are not returned, so callers never get a token expiring during a request
+    private static final long EXPIRY_MARGIN_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final Type ENTRIES_TYPE = new TypeToken<Map<String, Entry>>() {
+    }.getType();
+
+    private final Path directory;
+    private final boolean enabled;
+    private final SecureRandom random = new SecureRandom();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+
+    public PersistentTokenCache(@Nonnull final Path directory) {
+        this.directory = directory;
+        this.enabled = !Boolean.getBoolean(DISABLE_PROPERTY);
+    }
+
+    public static PersistentTokenCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @param namespace identity of the credential, e.g. the signed in account of azure cli, tokens of different
+     *                  namespaces are never shared
+     * @return the cached token if it's not going to expire in a few minutes
+     */
+    @Nonnull
+    public synchronized Optional<AccessToken> get(@Nonnull final String namespace, @Nullable final String tenantId, @Nonnull final String resource) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        final Entry entry = withLock(true, () -> read(readKey()).get(toKey(namespace, tenantId, resource)));
+        if (entry == null || entry.expiresOn - System.currentTimeMillis() < EXPIRY_MARGIN_MILLIS) {
+            missCount.incrementAndGet();
+            return Optional.empty();
+        }
+        hitCount.incrementAndGet();
+        log.debug(String.format("Reuse persistent cached token of tenant(%s) for resource(%s).", tenantId, resource));
+        return Optional.of(new AccessToken(entry.token, OffsetDateTime.ofInstant(Instant.ofEpochMilli(entry.expiresOn), ZoneOffset.UTC)));
+    }
+
+    public synchronized void put(@Nonnull final String namespace, @Nullable final String tenantId, @Nonnull final String resource,
+                                 @Nonnull final AccessToken token) {
+        if (!enabled || token.getToken() == null || token.getExpiresAt() == null) {
+            return;
+        }
+        withLock(false, () -> {
+            final byte[] key = readOrCreateKey();
+            final Map<String, Entry> entries = read(key);
+            final long now = System.currentTimeMillis();
+            entries.values().removeIf(e -> e.expiresOn <= now);
+            entries.put(toKey(namespace, tenantId, resource), new Entry(token.getToken(), token.getExpiresAt().toInstant().toEpochMilli()));
+            write(key, entries);
+            return null;
+        });
+        writeCount.incrementAndGet();
+    }
+
+    /**
+     * remove all the cached tokens, e.g. on signing out.
+     */
+    public synchronized void clear() {
+        withLock(false, () -> {
+            Files.deleteIfExists(directory.resolve(CACHE_FILE));
+            return null;
+        });
+    }
+
+    /**
+     * @return number of tokens served from the cache, i.e. calls to the underlying credential (e.g. azure cli) avoided
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    @Nullable
+    private <T> T withLock(final boolean shared, final IOCallable<T> callable) {
+        try {
+            createDirectory();
+            // the jvm wide monitor (synchronized methods) guards against OverlappingFileLockException, the file lock
+            // guards against other processes.
+            try (final FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                 final FileLock ignored = channel.lock(0, Long.MAX_VALUE, shared)) {
+                return callable.call();
+            }
+        } catch (IOException | GeneralSecurityException | JsonParseException e) {
+            log.debug(String.format("Failed to access persistent token cache %s: %s", directory, e.getMessage()));
+            return null;
+        }
+    }
+
+    private Map<String, Entry> read(@Nullable final byte[] key) throws IOException {
+        final Path file = directory.resolve(CACHE_FILE);
+        if (key == null || !Files.isRegularFile(file)) {
+            return new HashMap<>();
+        }
+        final byte[] data = Files.readAllBytes(file);
+        try {
+            if (data.length <= 1 + IV_LENGTH || data[0] != VERSION) {
+                return new HashMap<>();
+            }
+            final Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key, "AES"), new GCMParameterSpec(TAG_BITS, data, 1, IV_LENGTH));
+            final byte[] json = cipher.doFinal(data, 1 + IV_LENGTH, data.length - 1 - IV_LENGTH);
+            final Map<String, Entry> entries = JsonUtils.getGson().fromJson(new String(json, StandardCharsets.UTF_8), ENTRIES_TYPE);
+            return entries == null ? new HashMap<>() : entries;
+        } catch (GeneralSecurityException | JsonParseException e) {
+            // e.g. the key file is regenerated, the cache will be overwritten by next write.
+            log.debug(String.format("Discard unreadable persistent token cache: %s", e.getMessage()));
+            return new HashMap<>();
+        }
+    }
+
+    private void write(@Nonnull final byte[] key, @Nonnull final Map<String, Entry> entries) throws IOException, GeneralSecurityException {
+        final byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        final Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new GCMParameterSpec(TAG_BITS, iv));
+        final byte[] encrypted = cipher.doFinal(JsonUtils.getGson().toJson(entries, ENTRIES_TYPE).getBytes(StandardCharsets.UTF_8));
+        final byte[] data = new byte[1 + IV_LENGTH + encrypted.length];
+        data[0] = VERSION;
+        System.arraycopy(iv, 0, data, 1, IV_LENGTH);
+        System.arraycopy(encrypted, 0, data, 1 + IV_LENGTH, encrypted.length);
+        // readers out of this jvm are blocked by the lock, moving a temp file is only for not leaving a broken cache on crash
+        final Path temp = Files.createTempFile(directory, CACHE_FILE, ".tmp");
+        restrictToOwner(temp);
+        Files.write(temp, data);
+        Files.move(temp, directory.resolve(CACHE_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Nullable
+    private byte[] readKey() throws IOException {
+        final Path file = directory.resolve(KEY_FILE);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        final byte[] key = Files.readAllBytes(file);
+        return key.length == KEY_LENGTH ? key : null;
+    }
+
+    @Nonnull
+    private byte[] readOrCreateKey() throws IOException {
+        final byte[] existing = readKey();
+        if (existing != null) {
+            return existing;
+        }
+        final byte[] key = new byte[KEY_LENGTH];
+        random.nextBytes(key);
+        final Path file = directory.resolve(KEY_FILE);
+        Files.deleteIfExists(file);
+        Files.createFile(file);
+        restrictToOwner(file);
+        Files.write(file, key);
+        return key;
+    }
+
+    private void createDirectory() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            Files.createDirectories(directory);
+            restrictToOwner(directory);
+        }
+    }
+
+    private static void restrictToOwner(@Nonnull final Path path) throws IOException {
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            final Set<PosixFilePermission> permissions = PosixFilePermissions.fromString(Files.isDirectory(path) ? "rwx------" : "rw-------");
+            Files.setPosixFilePermissions(path, permissions);
+        } else {
+            final File file = path.toFile();
+            // best effort on non posix file systems, e.g. windows, where the user home is private by default
+            file.setReadable(false, false);
+            file.setReadable(true, true);
+            file.setWritable(false, false);
+            file.setWritable(true, true);
+        }
+    }
+
+    private static String toKey(final String namespace, @Nullable final String tenantId, final String resource) {
+        return String.join("|", namespace, Optional.ofNullable(tenantId).orElse(""), resource);
+    }
+
+    @FunctionalInterface
+    private interface IOCallable<T> {
+        T call() throws IOException, GeneralSecurityException;
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    private static class Entry {
+        private String token;
+        private long expiresOn;
+    }
+
+    private static class Holder {
+        private static final PersistentTokenCache INSTANCE = new PersistentTokenCache(DEFAULT_DIRECTORY);
+    }
+}
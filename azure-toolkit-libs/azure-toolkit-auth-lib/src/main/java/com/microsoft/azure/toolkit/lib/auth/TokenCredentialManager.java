@@ -6,8 +6,6 @@
 package com.microsoft.azure.toolkit.lib.auth;
 
 import com.azure.core.credential.TokenCredential;
-import com.azure.core.http.ProxyOptions;
-import com.azure.core.http.okhttp.OkHttpAsyncHttpClientBuilder;
 import com.azure.core.http.policy.FixedDelay;
 import com.azure.core.http.policy.HttpPipelinePolicy;
 import com.azure.core.http.policy.RetryPolicy;
@@ -17,6 +15,7 @@ import com.azure.core.util.logging.ClientLogger;
 import com.azure.resourcemanager.AzureResourceManager;
 import com.azure.resourcemanager.resources.models.Tenant;
 import com.microsoft.azure.toolkit.lib.Azure;
+import com.microsoft.azure.toolkit.lib.auth.util.HttpClientProvider;
 import com.microsoft.azure.toolkit.lib.common.model.Subscription;
 import com.microsoft.azure.toolkit.lib.common.utils.Utils;
 import lombok.Getter;
@@ -101,14 +100,9 @@ public class TokenCredentialManager implements TenantProvider, SubscriptionProvi
      * TODO: share the same code for creating AzureResourceManager.Configurable
      */
     private static AzureResourceManager.Configurable configureAzure() {
-        OkHttpAsyncHttpClientBuilder builder = new OkHttpAsyncHttpClientBuilder();
-        if (Azure.az().config().getHttpProxy() != null) {
-            builder.proxy(new ProxyOptions(ProxyOptions.Type.HTTP, Azure.az().config().getHttpProxy()));
-        }
-
         // disable retry for getting tenant and subscriptions
         return AzureResourceManager.configure()
-                .withHttpClient(builder.build())
+                .withHttpClient(HttpClientProvider.getHttpClient())
                 .withPolicy(createUserAgentPolicy())
                 .withRetryPolicy(new RetryPolicy(new FixedDelay(0, Duration.ofSeconds(0))));
     }
@@ -12,6 +12,7 @@ import com.azure.core.credential.TokenRequestContext;
 import com.azure.identity.implementation.util.ScopeUtil;
 import reactor.core.publisher.Mono;
 
+import javax.annotation.Nullable;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -21,7 +22,17 @@ public class TokenCredentialManagerWithCache extends TokenCredentialManager {
 
     public TokenCredential createTokenCredentialForTenant(String tenantId) {
         return this.tokenCredentialCache.computeIfAbsent(tenantId,
-                key -> new CachedTokenCredential(super.createTokenCredentialForTenant(tenantId)));
+                key -> new CachedTokenCredential(super.createTokenCredentialForTenant(tenantId), getPersistentCacheNamespace(), tenantId));
+    }
+
+    /**
+     * Sub-class can override this method to share tokens across processes through {@link PersistentTokenCache}.
+     *
+     * @return identity of the credential (e.g. type and account) tokens are persisted under, or null to cache tokens in memory only
+     */
+    @Nullable
+    protected String getPersistentCacheNamespace() {
+        return null;
     }
 
     static class CachedTokenCredential implements TokenCredential {
@@ -29,16 +40,35 @@ public class TokenCredentialManagerWithCache extends TokenCredentialManager {
         private final Map<String, SimpleTokenCache> tokenCache = new ConcurrentHashMap<>();
 
         private final TokenCredential tokenCredential;
+        @Nullable
+        private final String namespace;
+        private final String tenantId;
 
         public CachedTokenCredential(TokenCredential tokenCredential) {
+            this(tokenCredential, null, null);
+        }
+
+        public CachedTokenCredential(TokenCredential tokenCredential, @Nullable String namespace, String tenantId) {
             this.tokenCredential = tokenCredential;
+            this.namespace = namespace;
+            this.tenantId = tenantId;
         }
 
         @Override
         public Mono<AccessToken> getToken(TokenRequestContext request) {
             String resource = ScopeUtil.scopesToResource(request.getScopes());
             return tokenCache.computeIfAbsent(resource, (ignore) ->
-                    new SimpleTokenCache(() -> tokenCredential.getToken(request))).getToken();
+                    new SimpleTokenCache(() -> loadToken(resource, request))).getToken();
+        }
+
+        private Mono<AccessToken> loadToken(String resource, TokenRequestContext request) {
+            if (namespace == null) {
+                return tokenCredential.getToken(request);
+            }
+            final PersistentTokenCache cache = PersistentTokenCache.getInstance();
+            return Mono.defer(() -> Mono.justOrEmpty(cache.get(namespace, tenantId, resource)))
+                    .switchIfEmpty(Mono.defer(() -> tokenCredential.getToken(request))
+                            .doOnNext(token -> cache.put(namespace, tenantId, resource, token)));
         }
     }
 }
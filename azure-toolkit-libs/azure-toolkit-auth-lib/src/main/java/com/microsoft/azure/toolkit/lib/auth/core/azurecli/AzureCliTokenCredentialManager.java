@@ -13,6 +13,7 @@ import com.azure.identity.implementation.util.ScopeUtil;
 import com.google.gson.JsonObject;
 import com.microsoft.azure.toolkit.lib.auth.exception.AzureToolkitAuthenticationException;
 import com.microsoft.azure.toolkit.lib.auth.util.AzureCliUtils;
+import com.microsoft.azure.toolkit.lib.auth.util.AzureEnvironmentUtils;
 import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
 import lombok.AllArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
@@ -27,12 +28,19 @@ import java.time.format.DateTimeFormatter;
 import com.microsoft.azure.toolkit.lib.auth.TokenCredentialManagerWithCache;
 
 class AzureCliTokenCredentialManager extends TokenCredentialManagerWithCache {
-    public AzureCliTokenCredentialManager(AzureEnvironment env) {
+    public AzureCliTokenCredentialManager(AzureEnvironment env, String email) {
         this.environment = env;
+        this.email = email;
         rootCredentialSupplier = () -> new AzureCliTokenCredential(null);
         credentialSupplier = AzureCliTokenCredential::new;
     }
 
+    @Override
+    protected String getPersistentCacheNamespace() {
+        // tokens of azure cli are bound to the signed in account, signing in with another account switches the namespace
+        return StringUtils.isBlank(email) ? null : String.format("azurecli|%s|%s", AzureEnvironmentUtils.azureEnvironmentToString(environment), email);
+    }
+
     @AllArgsConstructor
     static class AzureCliTokenCredential implements TokenCredential {
         private static final String CLI_GET_ACCESS_TOKEN_CMD = "az account get-access-token --resource %s %s --output json";
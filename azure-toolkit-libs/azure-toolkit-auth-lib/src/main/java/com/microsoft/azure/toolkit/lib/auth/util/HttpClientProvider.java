@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.auth.util;
+
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.ProxyOptions;
+import com.azure.core.http.okhttp.OkHttpAsyncHttpClientBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.toolkit.lib.Azure;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process wide http client shared by all the management clients (e.g. {@code AzureResourceManager}, {@code MySqlManager}),
+ * so they share one connection pool and dispatcher instead of each having their own, connections (and their TLS
+ * handshakes) are reused across subscriptions and services.
+ * Settings could be tuned with system properties, e.g. {@code -Dazure.http.maxIdleConnections=32}:
+ * <ul>
+ *     <li>{@value #MAX_IDLE_CONNECTIONS}: max idle connections kept in the pool, 16 by default</li>
+ *     <li>{@value #KEEP_ALIVE}: seconds an idle connection is kept, 300 by default</li>
+ *     <li>{@value #MAX_REQUESTS_PER_HOST}: max concurrent requests per host, 16 by default</li>
+ *     <li>{@value #HTTP2}: whether to negotiate http/2, true by default</li>
+ *     <li>{@value #CONNECT_TIMEOUT}, {@value #READ_TIMEOUT}, {@value #WRITE_TIMEOUT}: timeouts in seconds, 10, 60 and 60 by default</li>
+ * </ul>
+ */
+public class HttpClientProvider {
+    public static final String MAX_IDLE_CONNECTIONS = "azure.http.maxIdleConnections";
+    public static final String KEEP_ALIVE = "azure.http.keepAlive";
+    public static final String MAX_REQUESTS_PER_HOST = "azure.http.maxRequestsPerHost";
+    public static final String HTTP2 = "azure.http.http2";
+    public static final String CONNECT_TIMEOUT = "azure.http.connectTimeout";
+    public static final String READ_TIMEOUT = "azure.http.readTimeout";
+    public static final String WRITE_TIMEOUT = "azure.http.writeTimeout";
+
+    private static final AtomicLong requestCount = new AtomicLong();
+    private static final AtomicLong connectionCount = new AtomicLong();
+    private static final AtomicLong connectionAcquiredCount = new AtomicLong();
+    // clients share the pool and dispatcher, but are built per proxy as the proxy could be configured after startup.
+    private static final Map<Optional<InetSocketAddress>, HttpClient> clients = new ConcurrentHashMap<>();
+
+    /**
+     * @return the shared http client using the proxy configured in {@link Azure#config()}
+     */
+    @Nonnull
+    public static HttpClient getHttpClient() {
+        final InetSocketAddress proxy = Azure.az().config().getHttpProxy();
+        return clients.computeIfAbsent(Optional.ofNullable(proxy), HttpClientProvider::createHttpClient);
+    }
+
+    /**
+     * @return number of http requests (calls) sent by the shared clients
+     */
+    public static long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return number of new connections established by the shared clients
+     */
+    public static long getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * @return number of times a pooled connection is reused instead of establishing a new one
+     */
+    public static long getConnectionReuseCount() {
+        // connections are acquired by every call, new or pooled
+        return Math.max(0, connectionAcquiredCount.get() - connectionCount.get());
+    }
+
+    public static int getIdleConnectionCount() {
+        return Holder.connectionPool.idleConnectionCount();
+    }
+
+    private static HttpClient createHttpClient(final Optional<InetSocketAddress> proxy) {
+        final OkHttpClient base = new OkHttpClient.Builder()
+                .protocols(Boolean.parseBoolean(System.getProperty(HTTP2, "true")) ?
+                        Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1) : Collections.singletonList(Protocol.HTTP_1_1))
+                .eventListener(new CountingEventListener())
+                .build();
+        final OkHttpAsyncHttpClientBuilder builder = new OkHttpAsyncHttpClientBuilder(base)
+                .connectionPool(Holder.connectionPool)
+                .dispatcher(Holder.dispatcher)
+                .connectionTimeout(Duration.ofSeconds(Long.getLong(CONNECT_TIMEOUT, 10)))
+                .readTimeout(Duration.ofSeconds(Long.getLong(READ_TIMEOUT, 60)))
+                .writeTimeout(Duration.ofSeconds(Long.getLong(WRITE_TIMEOUT, 60)));
+        proxy.ifPresent(p -> builder.proxy(new ProxyOptions(ProxyOptions.Type.HTTP, p)));
+        return builder.build();
+    }
+
+    private static class CountingEventListener extends EventListener {
+        @Override
+        public void callStart(@Nonnull final Call call) {
+            requestCount.incrementAndGet();
+        }
+
+        @Override
+        public void connectEnd(@Nonnull final Call call, @Nonnull final InetSocketAddress address, @Nonnull final Proxy proxy,
+                               @Nullable final Protocol protocol) {
+            connectionCount.incrementAndGet();
+        }
+
+        @Override
+        public void connectionAcquired(@Nonnull final Call call, @Nonnull final Connection connection) {
+            connectionAcquiredCount.incrementAndGet();
+        }
+    }
+
+    private static class Holder {
+        private static final ConnectionPool connectionPool = new ConnectionPool(Integer.getInteger(MAX_IDLE_CONNECTIONS, 16),
+                Long.getLong(KEEP_ALIVE, 300), TimeUnit.SECONDS);
+        private static final Dispatcher dispatcher = createDispatcher();
+
+        private static Dispatcher createDispatcher() {
+            // same as the default executor of okhttp except that threads are daemon and named
+            final Dispatcher result = new Dispatcher(new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                    new ThreadFactoryBuilder().setNameFormat("azure-http-%d").setDaemon(true).build()));
+            result.setMaxRequestsPerHost(Integer.getInteger(MAX_REQUESTS_PER_HOST, 16));
+            return result;
+        }
+    }
+}
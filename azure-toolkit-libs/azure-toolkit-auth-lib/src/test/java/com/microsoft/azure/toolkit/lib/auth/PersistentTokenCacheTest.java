@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.auth;
+
+import com.azure.core.credential.AccessToken;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+public class PersistentTokenCacheTest {
+    private static final String NAMESPACE = "user@contoso.com";
+    private static final String TENANT = "tenant";
+    private static final String RESOURCE = "https://management.azure.com/";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private PersistentTokenCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = folder.getRoot().toPath().resolve("token-cache");
+        cache = new PersistentTokenCache(directory);
+    }
+
+    @Test
+    public void putAndGet() {
+        cache.put(NAMESPACE, TENANT, RESOURCE, token("token", 60));
+        final Optional<AccessToken> token = cache.get(NAMESPACE, TENANT, RESOURCE);
+        Assert.assertTrue(token.isPresent());
+        Assert.assertEquals("token", token.get().getToken());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getWriteCount());
+
+        // another process reads the same files
+        final Optional<AccessToken> shared = new PersistentTokenCache(directory).get(NAMESPACE, TENANT, RESOURCE);
+        Assert.assertEquals("token", shared.map(AccessToken::getToken).orElse(null));
+    }
+
+    @Test
+    public void tokenExpiringSoonIsNotReturned() {
+        cache.put(NAMESPACE, TENANT, RESOURCE, token("expiring", 2));
+        cache.put(NAMESPACE, TENANT, "https://storage.azure.com/", token("valid", 10));
+        Assert.assertFalse(cache.get(NAMESPACE, TENANT, RESOURCE).isPresent());
+        Assert.assertTrue(cache.get(NAMESPACE, TENANT, "https://storage.azure.com/").isPresent());
+        Assert.assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void namespacesAreIsolated() {
+        cache.put(NAMESPACE, TENANT, RESOURCE, token("token", 60));
+        Assert.assertFalse(cache.get("other@contoso.com", TENANT, RESOURCE).isPresent());
+        Assert.assertFalse(cache.get(NAMESPACE, "other-tenant", RESOURCE).isPresent());
+        Assert.assertTrue(cache.get(NAMESPACE, TENANT, RESOURCE).isPresent());
+    }
+
+    @Test
+    public void cacheIsDiscardedWhenKeyIsRotated() throws Exception {
+        cache.put(NAMESPACE, TENANT, RESOURCE, token("token", 60));
+        final byte[] key = Files.readAllBytes(directory.resolve("tokens.key"));
+        key[0] ^= 1;
+        Files.write(directory.resolve("tokens.key"), key);
+        Assert.assertFalse(cache.get(NAMESPACE, TENANT, RESOURCE).isPresent());
+
+        // the unreadable cache is overwritten by the next write
+        cache.put(NAMESPACE, TENANT, RESOURCE, token("new-token", 60));
+        Assert.assertEquals("new-token", cache.get(NAMESPACE, TENANT, RESOURCE).map(AccessToken::getToken).orElse(null));
+    }
+
+    @Test
+    public void corruptFilesAreDiscarded() throws Exception {
+        cache.put(NAMESPACE, TENANT, RESOURCE, token("token", 60));
+        Files.write(directory.resolve("tokens.key"), new byte[]{1, 2, 3});
+        Assert.assertFalse(cache.get(NAMESPACE, TENANT, RESOURCE).isPresent());
+
+        cache.put(NAMESPACE, TENANT, RESOURCE, token("token", 60));
+        Files.write(directory.resolve("tokens.bin"), "not encrypted".getBytes());
+        Assert.assertFalse(cache.get(NAMESPACE, TENANT, RESOURCE).isPresent());
+    }
+
+    @Test
+    public void clear() {
+        cache.put(NAMESPACE, TENANT, RESOURCE, token("token", 60));
+        cache.clear();
+        Assert.assertFalse(cache.get(NAMESPACE, TENANT, RESOURCE).isPresent());
+        Assert.assertFalse(Files.exists(directory.resolve("tokens.bin")));
+    }
+
+    @Test
+    public void disabled() {
+        System.setProperty(PersistentTokenCache.DISABLE_PROPERTY, "true");
+        try {
+            final PersistentTokenCache disabled = new PersistentTokenCache(directory);
+            disabled.put(NAMESPACE, TENANT, RESOURCE, token("token", 60));
+            Assert.assertFalse(disabled.get(NAMESPACE, TENANT, RESOURCE).isPresent());
+            Assert.assertFalse(Files.exists(directory));
+            Assert.assertEquals(0, disabled.getWriteCount());
+        } finally {
+            System.clearProperty(PersistentTokenCache.DISABLE_PROPERTY);
+        }
+    }
+
+    private static AccessToken token(final String token, final long expiresInMinutes) {
+        return new AccessToken(token, OffsetDateTime.now().plusMinutes(expiresInMinutes));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.auth.util;
+
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.microsoft.azure.toolkit.lib.Azure;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+public class HttpClientProviderTest {
+    private static final String[] PROPERTIES = {HttpClientProvider.MAX_REQUESTS_PER_HOST, HttpClientProvider.HTTP2,
+        HttpClientProvider.CONNECT_TIMEOUT, HttpClientProvider.READ_TIMEOUT, HttpClientProvider.WRITE_TIMEOUT};
+
+    @BeforeClass
+    public static void setUpClass() {
+        // the dispatcher is created on first use, so the properties are set before any client is created
+        System.setProperty(HttpClientProvider.MAX_REQUESTS_PER_HOST, "4");
+        System.setProperty(HttpClientProvider.HTTP2, "false");
+        System.setProperty(HttpClientProvider.CONNECT_TIMEOUT, "3");
+        System.setProperty(HttpClientProvider.READ_TIMEOUT, "30");
+        System.setProperty(HttpClientProvider.WRITE_TIMEOUT, "20");
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        for (final String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        Azure.az().config().setHttpProxy(null);
+    }
+
+    @Test
+    public void clientIsSharedPerProxy() {
+        final HttpClient direct = HttpClientProvider.getHttpClient();
+        Assert.assertSame(direct, HttpClientProvider.getHttpClient());
+
+        Azure.az().config().setHttpProxy(InetSocketAddress.createUnresolved("proxy.contoso.com", 8080));
+        final HttpClient proxied = HttpClientProvider.getHttpClient();
+        Assert.assertNotSame(direct, proxied);
+        Azure.az().config().setHttpProxy(InetSocketAddress.createUnresolved("proxy.contoso.com", 8080));
+        Assert.assertSame(proxied, HttpClientProvider.getHttpClient());
+
+        Azure.az().config().setHttpProxy(null);
+        Assert.assertSame(direct, HttpClientProvider.getHttpClient());
+    }
+
+    @Test
+    public void systemPropertiesAreApplied() throws Exception {
+        final InetSocketAddress proxy = InetSocketAddress.createUnresolved("settings.contoso.com", 3128);
+        Azure.az().config().setHttpProxy(proxy);
+
+        final OkHttpClient client = (OkHttpClient) FieldUtils.readField(HttpClientProvider.getHttpClient(), "httpClient", true);
+
+        Assert.assertEquals(3000, client.connectTimeoutMillis());
+        Assert.assertEquals(30000, client.readTimeoutMillis());
+        Assert.assertEquals(20000, client.writeTimeoutMillis());
+        Assert.assertEquals(Collections.singletonList(Protocol.HTTP_1_1), client.protocols());
+        Assert.assertEquals(4, client.dispatcher().getMaxRequestsPerHost());
+        Assert.assertEquals(Collections.singletonList(new Proxy(Proxy.Type.HTTP, proxy)),
+                client.proxySelector().select(URI.create("https://management.azure.com/")));
+    }
+
+    @Test
+    public void countersAreUpdated() throws Exception {
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            final byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        try {
+            final String url = String.format("http://%s:%d/", server.getAddress().getHostString(), server.getAddress().getPort());
+            final long requests = HttpClientProvider.getRequestCount();
+            final long connections = HttpClientProvider.getConnectionCount();
+            final long reuses = HttpClientProvider.getConnectionReuseCount();
+
+            for (int i = 0; i < 3; i++) {
+                // the body is consumed so that the connection is returned to the pool
+                final HttpResponse response = HttpClientProvider.getHttpClient().send(new HttpRequest(HttpMethod.GET, url)).block();
+                Assert.assertEquals(200, response.getStatusCode());
+                Assert.assertEquals("ok", response.getBodyAsString().block());
+            }
+
+            Assert.assertEquals(requests + 3, HttpClientProvider.getRequestCount());
+            Assert.assertEquals(connections + 1, HttpClientProvider.getConnectionCount());
+            Assert.assertEquals(reuses + 2, HttpClientProvider.getConnectionReuseCount());
+            Assert.assertTrue(HttpClientProvider.getIdleConnectionCount() >= 1);
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.benchmark;
+
+import com.microsoft.azure.toolkit.lib.benchmark.fake.FakeAppServiceClient;
+import com.microsoft.azure.toolkit.lib.benchmark.fake.FakeWebApp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of the before/after advices of {@code AzureOperationAspect} (operation ref, task context, telemetry
+ * context and serialization) on a call doing nothing but an in-memory lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AzureOperationBenchmark {
+    private FakeAppServiceClient client;
+
+    @Setup
+    public void setUp() {
+        client = new FakeAppServiceClient(Fakes.SUBSCRIPTION_ID, Fakes.APP_COUNT);
+    }
+
+    @Benchmark
+    public FakeWebApp baseline() {
+        return client.getPlain(Fakes.APP_NAME);
+    }
+
+    @Benchmark
+    public FakeWebApp operation() {
+        return client.get(Fakes.APP_NAME);
+    }
+
+    @Benchmark
+    public FakeWebApp nestedOperation() {
+        return client.refresh(Fakes.APP_NAME);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public FakeWebApp operationContended() {
+        return client.get(Fakes.APP_NAME);
+    }
+}
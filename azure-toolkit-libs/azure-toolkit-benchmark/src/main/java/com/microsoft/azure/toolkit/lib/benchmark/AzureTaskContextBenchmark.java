@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.benchmark;
+
+import com.microsoft.azure.toolkit.lib.benchmark.fake.FakeAppServiceClient;
+import com.microsoft.azure.toolkit.lib.common.operation.AzureOperationRef;
+import com.microsoft.azure.toolkit.lib.common.operation.IAzureOperation;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Push/pop of operations on the thread local {@link AzureTaskContext}, done twice by every {@code @AzureOperation}
+ * call. An orphan context (no enclosing operation) is created and disposed on every call, while a context with an
+ * enclosing operation is reused.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AzureTaskContextBenchmark {
+
+    @Benchmark
+    public IAzureOperation orphan(final Operations ops) {
+        final AzureTaskContext context = AzureTaskContext.current();
+        context.pushOperation(ops.inner);
+        return context.popOperation();
+    }
+
+    @Benchmark
+    public IAzureOperation nested(final Operations ops) {
+        AzureTaskContext.current().pushOperation(ops.outer);
+        AzureTaskContext.current().pushOperation(ops.inner);
+        AzureTaskContext.current().popOperation();
+        return AzureTaskContext.current().popOperation();
+    }
+
+    @Benchmark
+    public IAzureOperation inOperation(final EnclosingOperation ops) {
+        final AzureTaskContext context = AzureTaskContext.current();
+        context.pushOperation(ops.inner);
+        return context.popOperation();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public IAzureOperation orphanContended(final Operations ops) {
+        final AzureTaskContext context = AzureTaskContext.current();
+        context.pushOperation(ops.inner);
+        return context.popOperation();
+    }
+
+    @State(Scope.Thread)
+    public static class Operations {
+        AzureOperationRef outer;
+        AzureOperationRef inner;
+
+        @Setup
+        public void setUp() throws NoSuchMethodException {
+            final FakeAppServiceClient client = new FakeAppServiceClient(Fakes.SUBSCRIPTION_ID, Fakes.APP_COUNT);
+            outer = AzureOperationRef.builder()
+                    .instance(client)
+                    .method(FakeAppServiceClient.class.getMethod("refresh", String.class))
+                    .paramNames(new String[]{"name"})
+                    .paramValues(new Object[]{Fakes.APP_NAME})
+                    .build();
+            inner = AzureOperationRef.builder()
+                    .instance(client)
+                    .method(FakeAppServiceClient.class.getMethod("get", String.class))
+                    .paramNames(new String[]{"name"})
+                    .paramValues(new Object[]{Fakes.APP_NAME})
+                    .build();
+        }
+    }
+
+    /**
+     * keeps {@link #outer} pushed during each iteration, setup and teardown of thread scoped states are run by the
+     * benchmark thread itself, so it's the same thread local context.
+     */
+    @State(Scope.Thread)
+    public static class EnclosingOperation extends Operations {
+        @Setup(Level.Iteration)
+        public void enter() {
+            AzureTaskContext.current().pushOperation(outer);
+        }
+
+        @TearDown(Level.Iteration)
+        public void exit() {
+            AzureTaskContext.current().popOperation();
+        }
+    }
+}
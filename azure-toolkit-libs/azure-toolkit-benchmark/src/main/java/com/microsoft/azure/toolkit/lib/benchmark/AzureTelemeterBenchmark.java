@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.benchmark;
+
+import com.microsoft.applicationinsights.TelemetryClient;
+import com.microsoft.applicationinsights.TelemetryConfiguration;
+import com.microsoft.azure.toolkit.lib.benchmark.fake.FakeAppServiceClient;
+import com.microsoft.azure.toolkit.lib.common.operation.AzureOperationRef;
+import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemeter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the telemetry event of an operation, see {@code gc.alloc.rate.norm} of the gc profiler (enabled by
+ * {@link BenchmarkRunner}) for the allocation per event. Tracking is disabled in the telemetry client, events are
+ * handed over to the telemetry queue and dropped once it's full, so it's mostly the serialization being measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AzureTelemeterBenchmark {
+    private AzureOperationRef operation;
+    private Throwable error;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        final TelemetryConfiguration config = TelemetryConfiguration.createDefault();
+        config.setTrackingIsDisabled(true);
+        AzureTelemeter.setClient(new TelemetryClient(config));
+        operation = AzureOperationRef.builder()
+                .instance(new FakeAppServiceClient(Fakes.SUBSCRIPTION_ID, Fakes.APP_COUNT))
+                .method(FakeAppServiceClient.class.getMethod("get", String.class))
+                .paramNames(new String[]{"name"})
+                .paramValues(new Object[]{Fakes.APP_NAME})
+                .build();
+        error = new IllegalStateException("failed to get web app", new RuntimeException(new IOException("connection reset")));
+    }
+
+    @TearDown
+    public void tearDown() {
+        AzureTelemeter.setClient(null);
+    }
+
+    @Benchmark
+    public void afterExit() {
+        AzureTelemeter.afterExit(operation);
+    }
+
+    @Benchmark
+    public void onError() {
+        AzureTelemeter.onError(operation, error);
+    }
+}
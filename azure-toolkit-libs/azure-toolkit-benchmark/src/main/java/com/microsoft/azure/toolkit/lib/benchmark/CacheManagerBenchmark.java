@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.benchmark;
+
+import com.microsoft.azure.toolkit.lib.benchmark.fake.FakeAppServiceClient;
+import com.microsoft.azure.toolkit.lib.benchmark.fake.FakeWebApp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a cache hit through {@code @Cacheable}, where cache name and key are string literals or groovy templates
+ * rendered on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheManagerBenchmark {
+    private FakeAppServiceClient client;
+
+    @Setup
+    public void setUp() {
+        client = new FakeAppServiceClient(Fakes.SUBSCRIPTION_ID, Fakes.APP_COUNT);
+        // fill the caches, so only hits are measured
+        client.list();
+        client.getCached(Fakes.APP_NAME);
+        client.getCachedBySubscription(Fakes.APP_NAME);
+    }
+
+    @Benchmark
+    public FakeWebApp baseline() {
+        return client.getPlain(Fakes.APP_NAME);
+    }
+
+    @Benchmark
+    public List<FakeWebApp> literalKey() {
+        return client.list();
+    }
+
+    @Benchmark
+    public FakeWebApp templateKey() {
+        return client.getCached(Fakes.APP_NAME);
+    }
+
+    @Benchmark
+    public FakeWebApp templateNameAndKey() {
+        return client.getCachedBySubscription(Fakes.APP_NAME);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public FakeWebApp templateKeyContended() {
+        return client.getCached(Fakes.APP_NAME);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.benchmark;
+
+import com.microsoft.azure.toolkit.lib.legacy.function.DependencyStager;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Staging {@link #jars} dependencies into the {@code lib} folder of a function app: the full copy done before
+ * {@link DependencyStager}, and a cold (empty {@code lib} folder) and a warm (nothing changed) run of the stager, which
+ * copies or hard links the jars from the fake local repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class DependencyStagerBenchmark {
+    private static final int JAR_SIZE = 64 * 1024;
+
+    @Param({"200"})
+    private int jars;
+    @Param({"false", "true"})
+    private boolean link;
+
+    private File root;
+    private File repository;
+    private File lib;
+    private File manifest;
+    private List<File> dependencies;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("azure-stager-benchmark").toFile();
+        repository = new File(root, "repository");
+        lib = new File(root, "staging/lib");
+        manifest = new File(root, "staging.lib.json");
+        dependencies = new ArrayList<>();
+        final Random random = new Random(jars);
+        final byte[] content = new byte[JAR_SIZE];
+        for (int i = 0; i < jars; i++) {
+            random.nextBytes(content);
+            final File jar = new File(repository, String.format("group/artifact-%d/1.0.0/artifact-%d-1.0.0.jar", i, i));
+            FileUtils.writeByteArrayToFile(jar, content);
+            dependencies.add(jar);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(root);
+    }
+
+    @Benchmark
+    public void fullCopy(final Cold cold) throws IOException {
+        for (final File dependency : dependencies) {
+            FileUtils.copyFileToDirectory(dependency, lib);
+        }
+    }
+
+    @Benchmark
+    public DependencyStager.StageResult coldStage(final Cold cold) throws IOException {
+        return new DependencyStager(lib, manifest, link ? repository : null).stage(dependencies);
+    }
+
+    @Benchmark
+    public DependencyStager.StageResult warmStage(final Warm warm) throws IOException {
+        return new DependencyStager(lib, manifest, link ? repository : null).stage(dependencies);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Cold {
+        @Setup(Level.Invocation)
+        public void clean(final DependencyStagerBenchmark benchmark) throws IOException {
+            FileUtils.deleteDirectory(benchmark.lib);
+            FileUtils.deleteQuietly(benchmark.manifest);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Warm {
+        @Setup(Level.Trial)
+        public void stage(final DependencyStagerBenchmark benchmark) throws IOException {
+            FileUtils.deleteDirectory(benchmark.lib);
+            FileUtils.deleteQuietly(benchmark.manifest);
+            new DependencyStager(benchmark.lib, benchmark.manifest, benchmark.link ? benchmark.repository : null)
+                    .stage(benchmark.dependencies);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.benchmark;
+
+import com.microsoft.azure.toolkit.lib.benchmark.fake.FakeAppServiceClient;
+import com.microsoft.azure.toolkit.lib.common.utils.aspect.ExpressionUtils;
+import com.microsoft.azure.toolkit.lib.common.utils.aspect.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering of the groovy templates used by operation titles and cache names/keys, templates are compiled once and
+ * reused, so this is mostly the cost of bindings and evaluation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionUtilsBenchmark {
+    private MethodInvocation invocation;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        final FakeAppServiceClient client = new FakeAppServiceClient(Fakes.SUBSCRIPTION_ID, Fakes.APP_COUNT);
+        invocation = MethodInvocation.builder()
+                .instance(client)
+                .method(FakeAppServiceClient.class.getMethod("get", String.class))
+                .paramNames(new String[]{"name"})
+                .paramValues(new Object[]{Fakes.APP_NAME})
+                .build();
+    }
+
+    @Benchmark
+    public String literal() {
+        return ExpressionUtils.render("benchmark/webapps", invocation);
+    }
+
+    @Benchmark
+    public String param() {
+        return ExpressionUtils.render("$name", invocation);
+    }
+
+    @Benchmark
+    public String thisProperty() {
+        return ExpressionUtils.render("${this.subscriptionId}/$name", invocation);
+    }
+
+    @Benchmark
+    public boolean evaluate() {
+        return ExpressionUtils.evaluate("name == 'app-1'", invocation, false);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String paramContended() {
+        return ExpressionUtils.render("$name", invocation);
+    }
+}
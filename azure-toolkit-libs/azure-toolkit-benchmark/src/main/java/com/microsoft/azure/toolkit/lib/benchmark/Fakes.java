@@ -0,0 +1,15 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.benchmark;
+
+final class Fakes {
+    static final String SUBSCRIPTION_ID = "00000000-0000-0000-0000-000000000000";
+    static final String APP_NAME = "app-1";
+    static final int APP_COUNT = 16;
+
+    private Fakes() {
+    }
+}
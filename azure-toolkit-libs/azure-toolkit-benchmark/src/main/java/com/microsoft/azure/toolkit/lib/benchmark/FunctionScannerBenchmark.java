@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.benchmark;
+
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.toolkit.lib.legacy.function.handlers.FunctionScanner;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reflections.Reflections;
+import org.reflections.scanners.MethodAnnotationsScanner;
+import org.reflections.util.ConfigurationBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding {@code @FunctionName} methods in the classpath of the benchmarks (all the jars, or the uber jar if run by
+ * {@code benchmarks.jar}), which contains {@code FakeFunctions}: by Reflections as it was done before, by
+ * {@link FunctionScanner} with no index, and by {@link FunctionScanner} with the shared jar index of a previous build, as
+ * a clean build of a project would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FunctionScannerBenchmark {
+    private List<URL> urls;
+    private ClassLoader classLoader;
+    private File root;
+    private File jarIndex;
+
+    @Setup
+    public void setUp() throws IOException {
+        urls = new ArrayList<>();
+        for (final String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            urls.add(toUrl(new File(entry)));
+        }
+        classLoader = getClass().getClassLoader();
+        root = Files.createTempDirectory("azure-scanner-benchmark").toFile();
+        jarIndex = new File(root, "jar-index.json");
+        final int found = new FunctionScanner(null, jarIndex).findFunctions(urls, classLoader).size();
+        if (found == 0 || found != reflections().size()) {
+            throw new IllegalStateException(String.format("functions found by the scanner (%d) and Reflections differ", found));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(root);
+    }
+
+    @Benchmark
+    public Set<Method> reflections() {
+        final ConfigurationBuilder configuration = new ConfigurationBuilder()
+                .addUrls(urls)
+                .addClassLoader(classLoader)
+                .setScanners(new MethodAnnotationsScanner());
+        return new Reflections(configuration).getMethodsAnnotatedWith(FunctionName.class);
+    }
+
+    @Benchmark
+    public Set<Method> scanner() {
+        return new FunctionScanner(null).findFunctions(urls, classLoader);
+    }
+
+    @Benchmark
+    public Set<Method> scannerWithJarIndex() {
+        return new FunctionScanner(null, jarIndex).findFunctions(urls, classLoader);
+    }
+
+    private static URL toUrl(final File file) {
+        try {
+            return file.toURI().toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
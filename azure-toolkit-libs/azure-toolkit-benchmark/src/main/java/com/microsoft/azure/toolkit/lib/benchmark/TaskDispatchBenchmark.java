@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.benchmark;
+
+import com.microsoft.azure.toolkit.lib.common.task.HeadlessAzureTaskManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of pooled tasks through {@link HeadlessAzureTaskManager}, including deriving the task context and running
+ * the task in it, one at a time or in batches filling the pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskDispatchBenchmark {
+    private static final int BATCH = 64;
+
+    private HeadlessAzureTaskManager manager;
+
+    @Setup
+    public void setUp() {
+        manager = new HeadlessAzureTaskManager();
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.shutdown(Duration.ofSeconds(5));
+    }
+
+    @Benchmark
+    public void pooled() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        manager.runOnPooledThread(done::countDown);
+        done.await();
+    }
+
+    @Benchmark
+    public void pooledBatch() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            manager.runOnPooledThread(done::countDown);
+        }
+        done.await();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.benchmark.fake;
+
+import com.microsoft.azure.toolkit.lib.common.cache.Cacheable;
+import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory stand-in of an ARM client, the same calls are exposed plainly and through the aspects of common-lib, so
+ * the difference between them is the overhead of the aspects only.
+ */
+public class FakeAppServiceClient {
+    @Getter
+    private final String subscriptionId;
+    private final Map<String, FakeWebApp> apps = new ConcurrentHashMap<>();
+
+    public FakeAppServiceClient(final String subscriptionId, final int size) {
+        this.subscriptionId = subscriptionId;
+        for (int i = 0; i < size; i++) {
+            final String name = "app-" + i;
+            final String id = String.format("/subscriptions/%s/resourceGroups/rg/providers/Microsoft.Web/sites/%s", subscriptionId, name);
+            apps.put(name, new FakeWebApp(id, name, "rg", "Running"));
+        }
+    }
+
+    public FakeWebApp getPlain(final String name) {
+        return apps.get(name);
+    }
+
+    @AzureOperation(name = "webapp.get_detail", params = {"name"}, type = AzureOperation.Type.REQUEST)
+    public FakeWebApp get(final String name) {
+        return apps.get(name);
+    }
+
+    @AzureOperation(name = "webapp.refresh", params = {"name"}, type = AzureOperation.Type.SERVICE)
+    public FakeWebApp refresh(final String name) {
+        return get(name);
+    }
+
+    @Cacheable(cacheName = "benchmark/webapps", key = "all")
+    public List<FakeWebApp> list() {
+        return new ArrayList<>(apps.values());
+    }
+
+    @Cacheable(cacheName = "benchmark/webapp", key = "$name")
+    public FakeWebApp getCached(final String name) {
+        return apps.get(name);
+    }
+
+    @Cacheable(cacheName = "benchmark/${this.subscriptionId}/webapp", key = "$name")
+    public FakeWebApp getCachedBySubscription(final String name) {
+        return apps.get(name);
+    }
+}
@@ -0,0 +1,14 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.benchmark.fake;
+
+import com.microsoft.azure.toolkit.lib.AzureService;
+
+/**
+ * registered in META-INF/services, looked up by {@code Azure.az(FakeAzureService.class)}
+ */
+public class FakeAzureService implements AzureService {
+}
@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.benchmark.fake;
+
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.HttpTrigger;
+import com.microsoft.azure.functions.annotation.QueueTrigger;
+
+public class FakeFunctions {
+    @FunctionName("http")
+    public String http(@HttpTrigger(name = "req") String request) {
+        return request;
+    }
+
+    @FunctionName("queue")
+    public void queue(@QueueTrigger(name = "message", queueName = "queue", connection = "conn") String message) {
+    }
+}
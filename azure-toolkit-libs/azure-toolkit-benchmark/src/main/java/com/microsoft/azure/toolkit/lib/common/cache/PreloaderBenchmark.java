@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the {@link Preload} methods at startup: from the {@value Preloader#INDEX_RESOURCE}s written by
+ * {@link PreloadProcessor} (scanning only the classpath roots without one), and by scanning all the classpath roots of
+ * the toolkit packages as it was done before. It's in the package of {@link Preloader} to reach the package-private
+ * lookups, run by {@code benchmarks.jar} the only classpath root is the uber jar, so the scan covers all its classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PreloaderBenchmark {
+    private ClassLoader classLoader;
+
+    @Setup
+    public void setUp() {
+        classLoader = Preloader.class.getClassLoader();
+        final int indexed = index().size();
+        if (indexed == 0 || indexed != scan().size()) {
+            throw new IllegalStateException(String.format("@Preload methods found by the index (%d) and the scan differ", indexed));
+        }
+    }
+
+    @Benchmark
+    public Set<Method> index() {
+        return Preloader.getPreloadingMethods();
+    }
+
+    @Benchmark
+    public Set<Method> scan() {
+        return Preloader.scanPreloadingMethods(Preloader.getRoots(classLoader));
+    }
+}
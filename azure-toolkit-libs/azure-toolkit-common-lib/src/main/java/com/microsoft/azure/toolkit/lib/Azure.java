@@ -6,9 +6,12 @@
 package com.microsoft.azure.toolkit.lib;
 
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
-import org.jetbrains.annotations.Nullable;
 
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Optional;
 import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Azure {
     private final AzureConfiguration configuration;
@@ -18,26 +21,20 @@ public class Azure {
         this.configuration = new AzureConfiguration();
     }
 
-    public static synchronized <T extends AzureService> T az(final Class<T> clazz) {
-        T service = getService(clazz);
-        if (service == null) {
-            Holder.loader.reload();
-            service = getService(clazz);
-        }
-        if (service != null) {
-            return service;
+    public static <T extends AzureService> T az(final Class<T> clazz) {
+        final Optional<AzureService> service = Registry.INSTANCE.get(clazz);
+        if (service.isPresent()) {
+            return clazz.cast(service.get());
         }
         throw new AzureToolkitRuntimeException(String.format("Azure service(%s) not supported", clazz.getSimpleName()));
     }
 
-    @Nullable
-    private static <T extends AzureService> T getService(Class<T> clazz) {
-        for (AzureService service : Holder.loader) {
-            if (clazz.isInstance(service)) {
-                return clazz.cast(service);
-            }
-        }
-        return null;
+    /**
+     * Reload the service providers to pick up newly available ones (e.g. of a dynamically loaded plugin), services
+     * already loaded are kept, and services not found before are looked up again.
+     */
+    public static void refresh() {
+        Registry.INSTANCE.refresh();
     }
 
     public static Azure az() {
@@ -48,7 +45,57 @@ public class Azure {
         return this.configuration;
     }
 
-    private static class Holder {
-        private static final ServiceLoader<AzureService> loader = ServiceLoader.load(AzureService.class);
+    /**
+     * services indexed by their classes and all super types, lookups are lock free once a class is resolved, including
+     * classes of no service which are remembered as empty.
+     */
+    private static class Registry {
+        private static final Registry INSTANCE = new Registry();
+        private final ServiceLoader<AzureService> loader = ServiceLoader.load(AzureService.class);
+        private final Map<Class<?>, Optional<AzureService>> services = new ConcurrentHashMap<>();
+
+        private Registry() {
+            register();
+        }
+
+        Optional<AzureService> get(final Class<?> clazz) {
+            final Optional<AzureService> service = services.get(clazz);
+            return service != null ? service : lookup(clazz);
+        }
+
+        synchronized void refresh() {
+            services.values().removeIf(s -> !s.isPresent());
+            loader.reload();
+            register();
+        }
+
+        private synchronized Optional<AzureService> lookup(final Class<?> clazz) {
+            if (!services.containsKey(clazz)) {
+                loader.reload();
+                register();
+            }
+            return services.computeIfAbsent(clazz, c -> Optional.empty());
+        }
+
+        private void register() {
+            for (final AzureService service : loader) {
+                final Optional<AzureService> registered = services.get(service.getClass());
+                if (registered == null || !registered.isPresent()) {
+                    index(service.getClass(), service);
+                }
+            }
+        }
+
+        private void index(@Nullable final Class<?> type, final AzureService service) {
+            if (type == null || !AzureService.class.isAssignableFrom(type)) {
+                return;
+            }
+            // the first service of a type wins, as services are looked up in the order of the providers
+            services.compute(type, (t, s) -> s != null && s.isPresent() ? s : Optional.of(service));
+            index(type.getSuperclass(), service);
+            for (final Class<?> i : type.getInterfaces()) {
+                index(i, service);
+            }
+        }
     }
 }
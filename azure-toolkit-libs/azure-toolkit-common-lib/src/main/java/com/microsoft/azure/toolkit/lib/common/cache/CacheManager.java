@@ -2,8 +2,7 @@ package com.microsoft.azure.toolkit.lib.common.cache;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.cache.CacheStats;
 import com.microsoft.azure.toolkit.lib.common.utils.aspect.ExpressionUtils;
 import com.microsoft.azure.toolkit.lib.common.utils.aspect.MethodInvocation;
 import lombok.extern.java.Log;
@@ -16,8 +15,13 @@ import org.aspectj.lang.reflect.MethodSignature;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -25,19 +29,18 @@ import java.util.logging.Level;
 @Aspect
 @Log
 public class CacheManager {
-    private static final CacheLoader<String, Cache<Object, Object>> loader = new CacheLoader<String, Cache<Object, Object>>() {
-        @Override
-        public Cache<Object, Object> load(@Nonnull String key) {
-            return CacheBuilder.newBuilder()
-                    .softValues()
-                    .expireAfterAccess(4, TimeUnit.HOURS) // TODO: justify
-                    .build();
-        }
-    };
-    private static final LoadingCache<String, Cache<Object, Object>> caches = CacheBuilder.newBuilder()
+    private static final int MAX_CACHES = 4096;
+    // named caches live as long as the process (e.g. an IDE session), entries which are not accessed for hours are
+    // likely stale anyway, soft values let the gc reclaim them under memory pressure.
+    private static final long DEFAULT_EXPIRE_AFTER_ACCESS_HOURS = 4;
+    private static final Cache<String, Cache<Object, Object>> caches = CacheBuilder.newBuilder()
             .softValues()
-            .expireAfterAccess(4, TimeUnit.HOURS) // TODO: justify
-            .build(loader);
+            .maximumSize(MAX_CACHES)
+            .expireAfterAccess(DEFAULT_EXPIRE_AFTER_ACCESS_HOURS, TimeUnit.HOURS)
+            .build();
+    // the @Cacheable a named cache is built from, methods sharing the name are expected to declare the same bounds
+    private static final Map<String, Cacheable> definitions = new ConcurrentHashMap<>();
+    private static final Set<String> conflicts = ConcurrentHashMap.newKeySet();
 
     @Pointcut("execution(@com.microsoft.azure.toolkit.lib.common.cache.Cacheable * *..*.*(..))")
     public void cacheable() {
@@ -63,15 +66,20 @@ public class CacheManager {
         }
         final String condition = annotation.condition();
         final boolean toUseCache = StringUtils.isBlank(condition) || ExpressionUtils.evaluate(condition, invocation, true);
-        final Cache<Object, Object> cache = caches.get(name);
+        final Cache<Object, Object> cache = caches.get(name, () -> buildCache(name, annotation));
+        checkDefinition(name, annotation, signature);
+        final Type type = signature.getMethod().getGenericReturnType();
         if (toUseCache) {
             log.fine(String.format("loading data from cache[%s.%s] on method[%s]", name, key, signature.getName()));
-            return readCache(cache, key, point);
+            return readCache(cache, name, key, type, annotation, point);
         }
         log.fine(String.format("skipping cache[%s.%s] on method[%s]", name, key, signature.getName()));
         final Object result = point.proceed();
         if (Objects.nonNull(result)) {
             cache.put(key, Optional.of(result));
+            if (annotation.persistent()) {
+                PersistentCache.getInstance().put(name, key, result, type, getPersistentExpireAfterWrite(annotation));
+            }
         }
         return result;
     }
@@ -101,24 +109,91 @@ public class CacheManager {
         } else if (StringUtils.equals(CacheEvict.ALL, name)) { // invalidate all cache entries if cache name not specified
             log.fine("invalidate all caches");
             caches.invalidateAll();
+            PersistentCache.getInstance().invalidateAll();
         } else {
             if (StringUtils.isBlank(key)) {
                 log.warning(String.format("key is not specified when invalidating cache[%s]", name));
             } else if (StringUtils.equals(CacheEvict.ALL, key)) { // invalidate all cache entries of named cache if only cache name is specified
                 log.fine(String.format("invalidate all entries in cache[%s]", name));
                 caches.invalidate(name);
+                PersistentCache.getInstance().invalidate(name);
             } else { // invalidate key specified cache entry of named cache if both cache name and key are specified
                 log.fine(String.format("invalidate cache entry[%s.%s]", name, key));
-                caches.get(name).invalidate(key);
+                Optional.ofNullable(caches.getIfPresent(name)).ifPresent(cache -> cache.invalidate(key));
+                PersistentCache.getInstance().invalidate(name, key);
             }
         }
     }
 
-    private Object readCache(Cache<Object, Object> cache, String key, ProceedingJoinPoint point) throws Throwable {
+    /**
+     * hit/miss/load time/eviction statistics of the in-memory tier of each named cache.
+     */
+    public static Map<String, CacheStats> getStats() {
+        final Map<String, CacheStats> stats = new HashMap<>();
+        caches.asMap().forEach((name, cache) -> stats.put(name, cache.stats()));
+        return stats;
+    }
+
+    /**
+     * statistics of the in-memory tier of all named caches in total, see {@link PersistentCache} for the on-disk tier.
+     */
+    public static CacheStats getTotalStats() {
+        return caches.asMap().values().stream().map(Cache::stats).reduce(new CacheStats(0, 0, 0, 0, 0, 0), CacheStats::plus);
+    }
+
+    private static Cache<Object, Object> buildCache(@Nonnull final String name, @Nonnull final Cacheable annotation) {
+        definitions.put(name, annotation);
+        final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().softValues().recordStats();
+        if (annotation.expireAfterWrite() >= 0) {
+            builder.expireAfterWrite(annotation.expireAfterWrite(), TimeUnit.SECONDS);
+        } else {
+            builder.expireAfterAccess(DEFAULT_EXPIRE_AFTER_ACCESS_HOURS, TimeUnit.HOURS);
+        }
+        if (annotation.maximumSize() >= 0) {
+            builder.maximumSize(annotation.maximumSize());
+        }
+        return builder.build();
+    }
+
+    /**
+     * the bounds of a named cache are taken from the first method that loads it, warn (once per method) if another
+     * method shares the name with different bounds instead of silently applying the other's.
+     */
+    private static void checkDefinition(@Nonnull final String name, @Nonnull final Cacheable annotation, @Nonnull final MethodSignature signature) {
+        final Cacheable definition = definitions.get(name);
+        if (Objects.isNull(definition) || definition == annotation ||
+            (definition.expireAfterWrite() == annotation.expireAfterWrite() && definition.maximumSize() == annotation.maximumSize())) {
+            return;
+        }
+        if (conflicts.add(name + "#" + signature.toLongString())) {
+            log.warning(String.format("cache[%s] is shared by methods with different settings, expireAfterWrite=%d, maximumSize=%d of " +
+                    "method[%s] are ignored in favor of expireAfterWrite=%d, maximumSize=%d", name, annotation.expireAfterWrite(),
+                annotation.maximumSize(), signature.getName(), definition.expireAfterWrite(), definition.maximumSize()));
+        }
+    }
+
+    private static long getPersistentExpireAfterWrite(@Nonnull final Cacheable annotation) {
+        final long seconds = annotation.expireAfterWrite() >= 0 ? annotation.expireAfterWrite() : Cacheable.DEFAULT_PERSISTENT_EXPIRE_AFTER_WRITE;
+        return TimeUnit.SECONDS.toMillis(seconds);
+    }
+
+    private Object readCache(Cache<Object, Object> cache, String name, String key, Type type, Cacheable annotation,
+                             ProceedingJoinPoint point) throws Throwable {
         final Optional<?> result = (Optional<?>) cache.get(key, () -> {
+            if (annotation.persistent()) {
+                final Optional<Object> persisted = PersistentCache.getInstance().get(name, key, type);
+                if (persisted.isPresent()) {
+                    log.fine(String.format("persistent cache[%s.%s] hit on method[%s]", name, key, point.getSignature().getName()));
+                    return persisted;
+                }
+            }
             try {
                 log.fine(String.format("cache[%s] miss on method[%s]", key, point.getSignature().getName()));
-                return Optional.ofNullable(point.proceed());
+                final Object value = point.proceed();
+                if (annotation.persistent() && Objects.nonNull(value)) {
+                    PersistentCache.getInstance().put(name, key, value, type, getPersistentExpireAfterWrite(annotation));
+                }
+                return Optional.ofNullable(value);
             } catch (final Throwable throwable) {
                 log.log(Level.FINE, String.format("error occurs on loading data into cache[%s] on method[%s]", key, point.getSignature().getName()), throwable);
                 return Optional.of(throwable);
@@ -37,4 +37,29 @@ public @interface Cacheable {
      * e.g. groovy expression: {@code "this.isLoading()" } {@code "this.loading" },  {@code "this.subscriptionId=='xxx'" }
      */
     String condition() default "";
+
+    /**
+     * seconds after which the cached entries expire once written, a negative value means entries in memory expire only
+     * after not being accessed for 4 hours, and entries in the persistent tier expire after
+     * {@value #DEFAULT_PERSISTENT_EXPIRE_AFTER_WRITE} seconds (see {@link Cacheable#persistent()}).
+     * Like {@link Cacheable#maximumSize()}, it applies to the whole named cache and is taken from the method that
+     * creates it, methods sharing a cache name should declare the same value.
+     */
+    long expireAfterWrite() default -1;
+
+    /**
+     * max number of entries of the named cache, a negative value means unbounded.
+     */
+    long maximumSize() default -1;
+
+    /**
+     * also keep results in the {@link PersistentCache on-disk tier} so they are reused by later processes (e.g. the
+     * next maven goal) of the same signed-in account. Only for results that can be serialized to/from json by their
+     * declared return type and that are safe to keep on disk unencrypted, entries in this tier expire after
+     * {@link Cacheable#expireAfterWrite()} seconds or {@value #DEFAULT_PERSISTENT_EXPIRE_AFTER_WRITE} seconds if not
+     * specified.
+     */
+    boolean persistent() default false;
+
+    long DEFAULT_PERSISTENT_EXPIRE_AFTER_WRITE = 600;
 }
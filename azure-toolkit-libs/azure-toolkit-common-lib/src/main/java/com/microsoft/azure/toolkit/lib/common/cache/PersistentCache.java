@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.cache;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.extern.java.Log;
+import org.apache.commons.io.FileUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * On-disk tier of {@link CacheManager} shared by all processes of the current user, so that results of
+ * {@link Cacheable#persistent() persistent} caches survive JVM restarts (e.g. consecutive maven goals). Entries are stored
+ * as plain json, one file per entry, under a directory only readable by the current user (where supported), and the
+ * total size is bounded by evicting the least recently written entries. Entries are partitioned by the signed-in account
+ * (see {@link #setPartition(String)}), so an account never reads entries written by another one, and nothing is read or
+ * written before an account is signed in. Set system property {@value #DISABLE_PROPERTY} to {@code true} to disable it.
+ */
+@Log
+public class PersistentCache {
+    public static final String DISABLE_PROPERTY = "azure.cache.persistent.disabled";
+    private static final File DEFAULT_DIRECTORY = Paths.get(System.getProperty("user.home"), ".azure", "azure-toolkit-cache").toFile();
+    private static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+    private static final String SUFFIX = ".json";
+
+    @Getter
+    private final File directory;
+    private final long maxBytes;
+    private final boolean enabled;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    @Nullable
+    private volatile String partition;
+
+    public PersistentCache(@Nonnull final File directory, final long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.enabled = !Boolean.getBoolean(DISABLE_PROPERTY);
+    }
+
+    public static PersistentCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @param partition identity of the signed-in account (e.g. cloud, auth type, user and tenants), {@code null} if
+     *                  signed out
+     */
+    public void setPartition(@Nullable final String partition) {
+        this.partition = partition;
+    }
+
+    @Nonnull
+    public <T> Optional<T> get(@Nonnull final String name, @Nonnull final String key, @Nonnull final Type type) {
+        final File file = getFile(name, key);
+        if (file == null || !file.isFile()) {
+            missCount.incrementAndGet();
+            return Optional.empty();
+        }
+        try {
+            final Entry entry = JsonUtils.getGson().fromJson(FileUtils.readFileToString(file, StandardCharsets.UTF_8), Entry.class);
+            // file names are hashes, compare the key to rule out collisions
+            if (entry != null && entry.expireAt > System.currentTimeMillis() && key.equals(entry.key) && entry.value != null) {
+                hitCount.incrementAndGet();
+                return Optional.ofNullable(JsonUtils.getGson().fromJson(entry.value, type));
+            }
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException | JsonParseException e) {
+            log.log(Level.FINE, String.format("failed to read persistent cache entry[%s.%s]", name, key), e);
+        }
+        missCount.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(@Nonnull final String name, @Nonnull final String key, @Nonnull final Object value, @Nonnull final Type type, final long ttlMillis) {
+        final File file = getFile(name, key);
+        if (file == null) {
+            return;
+        }
+        try {
+            final Entry entry = new Entry(key, System.currentTimeMillis() + ttlMillis, JsonUtils.getGson().toJsonTree(value, type));
+            createPrivateDirectory();
+            FileUtils.forceMkdir(file.getParentFile());
+            // write to a temp file and move it, so concurrent readers never see a partially written entry
+            final File temp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+            FileUtils.writeStringToFile(temp, JsonUtils.getGson().toJson(entry), StandardCharsets.UTF_8);
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writeCount.incrementAndGet();
+            trim();
+        } catch (IOException | RuntimeException e) {
+            log.log(Level.FINE, String.format("failed to write persistent cache entry[%s.%s]", name, key), e);
+        }
+    }
+
+    public void invalidate(@Nonnull final String name, @Nonnull final String key) {
+        Optional.ofNullable(getFile(name, key)).ifPresent(FileUtils::deleteQuietly);
+    }
+
+    public void invalidate(@Nonnull final String name) {
+        Optional.ofNullable(getDirectory(name)).ifPresent(FileUtils::deleteQuietly);
+    }
+
+    public void invalidateAll() {
+        FileUtils.deleteQuietly(directory);
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    private void trim() {
+        final List<File> files = new ArrayList<>(FileUtils.listFiles(directory, new String[]{SUFFIX.substring(1)}, true));
+        long total = files.stream().mapToLong(File::length).sum();
+        if (total <= maxBytes) {
+            return;
+        }
+        files.sort(Comparator.comparingLong(File::lastModified));
+        for (final File file : files) {
+            if (total <= maxBytes) {
+                break;
+            }
+            total -= file.length();
+            if (FileUtils.deleteQuietly(file)) {
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    private void createPrivateDirectory() throws IOException {
+        if (directory.isDirectory()) {
+            return;
+        }
+        FileUtils.forceMkdir(directory);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.setPosixFilePermissions(directory.toPath(), PosixFilePermissions.fromString("rwx------"));
+        }
+    }
+
+    @Nullable
+    private File getDirectory(final String name) {
+        final String current = this.partition;
+        return enabled && current != null ? new File(new File(directory, hash(current)), hash(name)) : null;
+    }
+
+    @Nullable
+    private File getFile(final String name, final String key) {
+        return Optional.ofNullable(getDirectory(name)).map(d -> new File(d, hash(key) + SUFFIX)).orElse(null);
+    }
+
+    private static String hash(final String value) {
+        return Hashing.sha256().hashString(value, StandardCharsets.UTF_8).toString();
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    private static class Entry {
+        private String key;
+        private long expireAt;
+        @Nullable
+        private JsonElement value;
+    }
+
+    private static class Holder {
+        private static final PersistentCache INSTANCE = new PersistentCache(DEFAULT_DIRECTORY, DEFAULT_MAX_BYTES);
+    }
+}
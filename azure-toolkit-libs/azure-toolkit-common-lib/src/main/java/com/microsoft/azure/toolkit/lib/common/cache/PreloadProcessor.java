@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.cache;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Annotation processor writing the {@link Preload} annotated methods of the compiled module into
+ * {@value Preloader#INDEX_RESOURCE}, one {@code <binary class name>#<method name>} per line, so {@link Preloader}
+ * doesn't need to scan the classpath at runtime. The index is written even if there is no such method, so the module
+ * is not scanned either. Entries of an existing index (e.g. left by an incremental compilation) are kept unless their
+ * classes are compiled again.
+ */
+// all types, so the (maybe empty) index is written in the last round even if no @Preload is found
+@SupportedAnnotationTypes("*")
+public class PreloadProcessor extends AbstractProcessor {
+    private final Set<String> methods = new TreeSet<>();
+    private final Set<String> compiled = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (final Element element : roundEnv.getRootElements()) {
+            if (element instanceof TypeElement) {
+                compiled.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+            }
+        }
+        for (final Element element : roundEnv.getElementsAnnotatedWith(Preload.class)) {
+            if (element.getKind() == ElementKind.METHOD) {
+                final TypeElement clazz = (TypeElement) element.getEnclosingElement();
+                methods.add(processingEnv.getElementUtils().getBinaryName(clazz) + Preloader.INDEX_SEPARATOR + element.getSimpleName());
+            }
+        }
+        if (roundEnv.processingOver()) {
+            methods.addAll(readIndex());
+            writeIndex();
+        }
+        return false;
+    }
+
+    private Set<String> readIndex() {
+        final Set<String> entries = new TreeSet<>();
+        try {
+            final FileObject index = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", Preloader.INDEX_RESOURCE);
+            try (final BufferedReader reader = new BufferedReader(new InputStreamReader(index.openInputStream(), StandardCharsets.UTF_8))) {
+                reader.lines().map(String::trim).filter(entry -> !entry.isEmpty() && !isCompiled(entry)).forEach(entries::add);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // no index yet
+        }
+        return entries;
+    }
+
+    private boolean isCompiled(final String entry) {
+        final String className = entry.split(Preloader.INDEX_SEPARATOR, 2)[0];
+        return compiled.contains(className) || compiled.contains(className.split("\\$", 2)[0]);
+    }
+
+    private void writeIndex() {
+        try {
+            final FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", Preloader.INDEX_RESOURCE);
+            try (final Writer writer = new OutputStreamWriter(index.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (final String method : methods) {
+                    writer.write(method);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, String.format("failed to write %s: %s", Preloader.INDEX_RESOURCE, e.getMessage()));
+        }
+    }
+}
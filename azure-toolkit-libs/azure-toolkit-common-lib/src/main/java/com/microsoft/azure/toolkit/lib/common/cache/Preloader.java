@@ -6,64 +6,105 @@
 package com.microsoft.azure.toolkit.lib.common.cache;
 
 import com.microsoft.azure.toolkit.lib.Azure;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.microsoft.azure.toolkit.lib.AzureService;
 import lombok.extern.java.Log;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.reflections.Reflections;
+import org.reflections.ReflectionsException;
 import org.reflections.scanners.MethodAnnotationsScanner;
+import org.reflections.util.ClasspathHelper;
 import org.reflections.util.ConfigurationBuilder;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
 
 @Log
 public class Preloader {
+    public static final String INDEX_RESOURCE = "META-INF/azure-toolkit/preload.index";
+    public static final String INDEX_SEPARATOR = "#";
 
     private static final String INVALID_PRELOAD_METHOD = "@Preload annotated method(%s.%s) should have (no args or only varargs) " +
             "and must be (static or in a singleton class)";
+    private static final int MAX_THREADS = 8;
+    private static final String[] PACKAGES = {"com.microsoft.azure.toolkit", "com.microsoft.azuretools"};
 
     public static Collection<Method> load() {
         log.fine("Start Scanning for @Preload");
         final Set<Method> methods = getPreloadingMethods();
         log.fine(String.format("Found %d @Preload annotated methods.", methods.size()));
         log.fine("End Scanning for @Preload");
+        if (methods.isEmpty()) {
+            return methods;
+        }
         log.fine("Start Preloading");
-        methods.parallelStream().forEach((m) -> {
-            Object instance = null;
-            // TODO: maybe support predefined variables, e.g. selected subscriptions
-            if ((m.getParameterCount() == 0 || m.isVarArgs()) && (Modifier.isStatic(m.getModifiers()) || Objects.nonNull(instance = getSingleton(m)))) {
-                log.fine(String.format("preloading [%s]", m.getName()));
-                invoke(m, instance);
-                log.fine(String.format("preloaded [%s]", m.getName()));
-            } else {
-                log.warning(String.format(INVALID_PRELOAD_METHOD, m.getDeclaringClass().getSimpleName(), m.getName()));
-            }
-        });
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(methods.size(), MAX_THREADS),
+                new ThreadFactoryBuilder().setNameFormat("azure-preload-%d").setDaemon(true).build());
+        try {
+            executor.invokeAll(methods.stream().map(m -> (Callable<Void>) () -> {
+                preload(m);
+                return null;
+            }).collect(Collectors.toList()));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
         log.fine("End Preloading");
         return methods;
     }
 
-    private static void invoke(final Method m, final Object instance) {
-        try {
-            if (m.isVarArgs()) {
-                final Class<?> varargType = m.getParameterTypes()[0].getComponentType();
-                if (varargType.equals(Boolean.class)) {
-                    m.invoke(instance, (Object) new Boolean[]{true});
-                } else if (varargType.equals(boolean.class)) {
-                    m.invoke(instance, (Object) new boolean[]{true});
-                } else {
-                    m.invoke(instance, Array.newInstance(varargType, 0));
-                }
+    private static void preload(final Method m) {
+        Object instance = null;
+        // TODO: maybe support predefined variables, e.g. selected subscriptions
+        if ((m.getParameterCount() == 0 || m.isVarArgs()) && (Modifier.isStatic(m.getModifiers()) || Objects.nonNull(instance = getSingleton(m)))) {
+            log.fine(String.format("preloading [%s]", m.getName()));
+            final long start = System.nanoTime();
+            try {
+                invoke(m, instance);
+                log.fine(String.format("preloaded [%s] in %d ms", m.getName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            } catch (final IllegalAccessException | InvocationTargetException | RuntimeException e) {
+                final Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+                log.log(Level.WARNING, String.format("failed to preload [%s.%s] in %d ms: %s", m.getDeclaringClass().getSimpleName(), m.getName(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), cause.getMessage()), cause);
+            }
+        } else {
+            log.warning(String.format(INVALID_PRELOAD_METHOD, m.getDeclaringClass().getSimpleName(), m.getName()));
+        }
+    }
+
+    private static void invoke(final Method m, final Object instance) throws IllegalAccessException, InvocationTargetException {
+        if (m.isVarArgs()) {
+            final Class<?> varargType = m.getParameterTypes()[0].getComponentType();
+            if (varargType.equals(Boolean.class)) {
+                m.invoke(instance, (Object) new Boolean[]{true});
+            } else if (varargType.equals(boolean.class)) {
+                m.invoke(instance, (Object) new boolean[]{true});
             } else {
-                m.invoke(instance);
+                m.invoke(instance, Array.newInstance(varargType, 0));
             }
-        } catch (final IllegalAccessException | InvocationTargetException ignored) {
-            // swallow all exceptions
+        } else {
+            m.invoke(instance);
         }
     }
 
@@ -87,11 +128,81 @@ public class Preloader {
         return null;
     }
 
-    private static Set<Method> getPreloadingMethods() {
+    static Set<Method> getPreloadingMethods() {
+        return getPreloadingMethods(Preloader.class.getClassLoader());
+    }
+
+    static Set<Method> getPreloadingMethods(final ClassLoader classLoader) {
+        final Set<URL> indexes;
+        try {
+            indexes = new LinkedHashSet<>(Collections.list(classLoader.getResources(INDEX_RESOURCE)));
+        } catch (final IOException e) {
+            log.log(Level.WARNING, String.format("failed to find %s, scanning the classpath instead", INDEX_RESOURCE), e);
+            return scanPreloadingMethods(getRoots(classLoader));
+        }
+        final Set<Method> methods = getIndexedPreloadingMethods(indexes, classLoader);
+        // scan the jars/directories not compiled with the PreloadProcessor, they have no index
+        final Set<String> indexed = indexes.stream().map(i -> StringUtils.removeEnd(i.toExternalForm(), INDEX_RESOURCE)).collect(Collectors.toSet());
+        final Set<URL> unindexed = getRoots(classLoader).stream().filter(r -> !indexed.contains(r.toExternalForm())).collect(Collectors.toSet());
+        if (!unindexed.isEmpty()) {
+            log.fine(String.format("Scanning %d classpath roots without %s for @Preload", unindexed.size(), INDEX_RESOURCE));
+            methods.addAll(scanPreloadingMethods(unindexed));
+        }
+        return methods;
+    }
+
+    /**
+     * @return methods listed in the given {@value #INDEX_RESOURCE}s, unreadable indexes are skipped
+     */
+    static Set<Method> getIndexedPreloadingMethods(final Collection<URL> indexes, final ClassLoader classLoader) {
+        final Set<String> entries = new LinkedHashSet<>();
+        for (final URL index : indexes) {
+            try (final InputStream input = index.openStream()) {
+                IOUtils.readLines(input, StandardCharsets.UTF_8).stream().map(String::trim).filter(StringUtils::isNotEmpty).forEach(entries::add);
+            } catch (final IOException e) {
+                log.log(Level.WARNING, String.format("failed to read %s", index), e);
+            }
+        }
+        final Set<Method> methods = new LinkedHashSet<>();
+        for (final String entry : entries) {
+            final String className = StringUtils.substringBefore(entry, INDEX_SEPARATOR);
+            final String methodName = StringUtils.substringAfter(entry, INDEX_SEPARATOR);
+            try {
+                Arrays.stream(Class.forName(className, false, classLoader).getDeclaredMethods())
+                        .filter(m -> m.getName().equals(methodName) && m.isAnnotationPresent(Preload.class))
+                        .forEach(methods::add);
+            } catch (final ClassNotFoundException | LinkageError e) {
+                log.log(Level.WARNING, String.format("failed to load @Preload annotated method(%s)", entry), e);
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * @return the jars/directories containing the toolkit packages, as {@link ClasspathHelper#forPackage} computes them
+     */
+    static Set<URL> getRoots(final ClassLoader classLoader) {
+        final Set<URL> roots = new LinkedHashSet<>();
+        for (final String pkg : PACKAGES) {
+            roots.addAll(ClasspathHelper.forPackage(pkg, classLoader));
+        }
+        return roots;
+    }
+
+    static Set<Method> scanPreloadingMethods(final Collection<URL> roots) {
+        if (roots.isEmpty()) {
+            return new LinkedHashSet<>();
+        }
         final ConfigurationBuilder configuration = new ConfigurationBuilder()
-                .forPackages("com.microsoft.azure.toolkit", "com.microsoft.azuretools")
+                .setUrls(roots)
                 .setScanners(new MethodAnnotationsScanner());
         final Reflections reflections = new Reflections(configuration);
-        return reflections.getMethodsAnnotatedWith(Preload.class);
+        try {
+            return reflections.getMethodsAnnotatedWith(Preload.class);
+        } catch (final ReflectionsException e) {
+            // thrown if no annotated method is found at all in the roots
+            log.log(Level.FINE, e.getMessage(), e);
+            return new LinkedHashSet<>();
+        }
     }
 }
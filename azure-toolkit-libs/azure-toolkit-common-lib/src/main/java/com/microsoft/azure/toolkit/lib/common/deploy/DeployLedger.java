@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.deploy;
+
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Local record of the content hash of the last artifact deployed to each path of each target, used to skip uploading an
+ * artifact which is identical to the last deployed one. A target could have several artifacts deployed to different
+ * paths, a deployment to a path replaces all the records of the same target at or below that path, as it may overwrite
+ * or clean them. Set system property {@value #FORCE_PROPERTY} to always deploy, and {@value #REMOTE_CHECK_PROPERTY} to
+ * let callers verify the hash recorded on the target (e.g. as a tag) instead of the local record, which works across
+ * machines and detects deployments from other clients.
+ */
+@Slf4j
+public class DeployLedger {
+    public static final String FORCE_PROPERTY = "azure.deploy.force";
+    public static final String REMOTE_CHECK_PROPERTY = "azure.deploy.remoteCheck";
+    /**
+     * algorithm of {@link #hash(File)}, for producers computing the hash while writing the artifact.
+     */
+    public static final String HASH_ALGORITHM = "SHA-256";
+    private static final File DEFAULT_LEDGER_FILE = Paths.get(System.getProperty("user.home"), ".azure", "azure-toolkit-deploy-ledger.json").toFile();
+    private static final Type LEDGER_TYPE = new TypeToken<Map<String, Record>>() {
+    }.getType();
+    private static final Map<String, KnownHash> knownHashes = new ConcurrentHashMap<>();
+
+    @Getter
+    private final File file;
+    @Getter
+    @Setter
+    private boolean force = Boolean.getBoolean(FORCE_PROPERTY);
+    @Getter
+    @Setter
+    private boolean remoteCheck = Boolean.getBoolean(REMOTE_CHECK_PROPERTY);
+
+    public DeployLedger(@Nonnull final File file) {
+        this.file = file;
+    }
+
+    public static DeployLedger getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * SHA-256 of the file content, or of the relative paths and contents of all files if it is a directory. The hash
+     * registered by {@link #registerHash(File, String)} is used if the file is not changed since.
+     */
+    @Nonnull
+    public static String hash(@Nonnull final File artifact) throws IOException {
+        if (artifact.isFile()) {
+            final KnownHash known = knownHashes.get(artifact.getAbsolutePath());
+            if (known != null && known.length == artifact.length() && known.lastModified == artifact.lastModified()) {
+                return known.hash;
+            }
+            return Files.asByteSource(artifact).hash(Hashing.sha256()).toString();
+        }
+        final Hasher hasher = Hashing.sha256().newHasher();
+        hashDirectory(hasher, artifact, StringUtils.EMPTY);
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Register the lower-case hex {@value #HASH_ALGORITHM} of a file computed while writing it (e.g. by a packager), so
+     * that {@link #hash(File)} doesn't read the file again.
+     */
+    public static void registerHash(@Nonnull final File artifact, @Nonnull final String hash) {
+        knownHashes.put(artifact.getAbsolutePath(), new KnownHash(artifact.length(), artifact.lastModified(), hash.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Combine the artifact hash with how it is deployed (e.g. deploy type and path), the result is short enough to be
+     * stored on the target as a tag or setting.
+     */
+    @Nonnull
+    public static String fingerprint(@Nonnull final String hash, @Nonnull final String... qualifiers) {
+        final Hasher hasher = Hashing.sha256().newHasher().putString(hash, StandardCharsets.UTF_8);
+        for (final String qualifier : qualifiers) {
+            hasher.putString(":" + StringUtils.defaultString(qualifier), StandardCharsets.UTF_8);
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * @param path     path on the target the artifact is deployed to, {@code null} for the root
+     * @param artifact name of the artifact
+     * @return true if the artifact with the hash is the last one deployed to the path of the target and the deployment
+     * is not forced
+     */
+    public boolean isDeployed(@Nonnull final String target, @Nullable final String path, @Nonnull final String artifact, @Nonnull final String hash) {
+        if (force) {
+            return false;
+        }
+        final Record record = read().get(key(target, path, artifact));
+        return record != null && StringUtils.equals(record.hash, hash);
+    }
+
+    public void record(@Nonnull final String target, @Nullable final String path, @Nonnull final String artifact, @Nonnull final String hash) {
+        final Record record = new Record(target.toLowerCase(Locale.ROOT), normalize(path), hash, System.currentTimeMillis());
+        update(records -> {
+            records.values().removeIf(r -> StringUtils.equals(r.target, record.target) && isAtOrBelow(r.path, record.path));
+            records.put(key(target, path, artifact), record);
+        });
+    }
+
+    /**
+     * Forget all the deployments to the target, e.g. when the target is (re)created.
+     */
+    public void invalidate(@Nonnull final String target) {
+        final String key = target.toLowerCase(Locale.ROOT);
+        update(records -> records.values().removeIf(r -> StringUtils.equals(r.target, key)));
+    }
+
+    private synchronized void update(@Nonnull final Consumer<Map<String, Record>> updater) {
+        try {
+            FileUtils.forceMkdirParent(file);
+            // lock the ledger as deployments may run in parallel processes, e.g. modules of a parallel maven build
+            try (final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                 final FileChannel channel = raf.getChannel();
+                 final FileLock ignored = channel.lock()) {
+                final Map<String, Record> records = parse(IOUtils.toString(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+                updater.accept(records);
+                final byte[] content = JsonUtils.toJson(records).getBytes(StandardCharsets.UTF_8);
+                channel.truncate(0);
+                channel.position(0);
+                final OutputStream output = Channels.newOutputStream(channel);
+                output.write(content);
+                output.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            // ledger is only an optimization, failing to update it should never fail a deployment
+            log.warn(String.format("Failed to update deploy ledger %s: %s", file.getAbsolutePath(), e.getMessage()));
+        }
+    }
+
+    private Map<String, Record> read() {
+        if (!file.isFile()) {
+            return new HashMap<>();
+        }
+        try {
+            return parse(FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.debug(e.getMessage(), e);
+            return new HashMap<>();
+        }
+    }
+
+    private static String key(final String target, @Nullable final String path, final String artifact) {
+        // resource ids are case insensitive
+        return String.join("|", target.toLowerCase(Locale.ROOT), normalize(path), artifact);
+    }
+
+    private static String normalize(@Nullable final String path) {
+        return StringUtils.strip(StringUtils.defaultString(path).replace('\\', '/'), "/");
+    }
+
+    private static boolean isAtOrBelow(@Nullable final String path, final String base) {
+        final String normalized = StringUtils.defaultString(path);
+        return base.isEmpty() || normalized.equals(base) || normalized.startsWith(base + "/");
+    }
+
+    private static Map<String, Record> parse(final String json) {
+        if (StringUtils.isBlank(json)) {
+            return new HashMap<>();
+        }
+        try {
+            final Map<String, Record> records = JsonUtils.getGson().fromJson(json, LEDGER_TYPE);
+            final Map<String, Record> result = new HashMap<>();
+            // records written before paths were tracked have no target, they are dropped
+            Optional.ofNullable(records).ifPresent(r -> r.forEach((key, record) -> {
+                if (record != null && record.target != null) {
+                    result.put(key, record);
+                }
+            }));
+            return result;
+        } catch (JsonParseException e) {
+            log.debug(e.getMessage(), e);
+            return new HashMap<>();
+        }
+    }
+
+    private static void hashDirectory(final Hasher hasher, final File directory, final String prefix) throws IOException {
+        final File[] files = Objects.requireNonNull(directory.listFiles(), () -> "Cannot list files in " + directory.getAbsolutePath());
+        Arrays.sort(files, Comparator.comparing(File::getName));
+        for (final File file : files) {
+            final String path = prefix + file.getName();
+            if (file.isDirectory()) {
+                hashDirectory(hasher, file, path + "/");
+            } else {
+                hasher.putString(path, StandardCharsets.UTF_8).putLong(file.length());
+                Files.asByteSource(file).copyTo(Funnels.asOutputStream(hasher));
+            }
+        }
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    private static class Record {
+        private String target;
+        private String path;
+        private String hash;
+        private long time;
+    }
+
+    @AllArgsConstructor
+    private static class KnownHash {
+        private final long length;
+        private final long lastModified;
+        private final String hash;
+    }
+
+    private static class Holder {
+        private static final DeployLedger INSTANCE = new DeployLedger(DEFAULT_LEDGER_FILE);
+    }
+}
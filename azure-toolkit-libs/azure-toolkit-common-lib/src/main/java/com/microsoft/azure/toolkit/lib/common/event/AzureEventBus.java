@@ -7,35 +7,72 @@ package com.microsoft.azure.toolkit.lib.common.event;
 
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
+import com.google.common.eventbus.SubscriberExceptionContext;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.toolkit.lib.common.utils.Poller;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NonNls;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
+/**
+ * Events are dispatched to the listeners of their type synchronously in the emitting thread by default. In async mode
+ * (system property {@value #ASYNC}, or {@link #setAsync(boolean)}), events are queued in a bounded queue of their type
+ * and dispatched by a dedicated thread, so that listeners don't add to the latency of e.g. the operation emitting
+ * them, events are dropped (and counted) when the queue is full. Events of the same type are always dispatched in the
+ * order they are emitted. Events of types nobody listens to are neither queued nor counted. Exceptions thrown by
+ * listeners are isolated from other listeners and the emitter in both modes, and counted as dead letters, see
+ * {@link #getStats()}.
+ */
+@Slf4j
 @SuppressWarnings("UnstableApiUsage")
 public class AzureEventBus {
+    public static final String ASYNC = "azure.event.async";
+    static final int QUEUE_CAPACITY = 1024;
+    /**
+     * max events dispatched for a type before giving the dispatcher to other types
+     */
+    private static final int DISPATCH_BATCH = 64;
+    private static final ExecutorService DISPATCHER = Executors.newSingleThreadExecutor(
+        new ThreadFactoryBuilder().setNameFormat("azure-event-dispatcher-%d").setDaemon(true).build());
+
     @NonNls
-    private static final Map<String, EventBus> buses = new ConcurrentHashMap<>();
+    private static final Map<String, Channel> buses = new ConcurrentHashMap<>();
+    @Getter
+    @Setter
+    private static volatile boolean async = Boolean.getBoolean(ASYNC);
 
     public static <T, E extends AzureEvent<T>> void on(@Nonnull final String type, @Nonnull EventListener<T, E> listener) {
-        getBus(type).register(listener);
+        getChannel(type).register(listener);
     }
 
     public static <T, E extends AzureEvent<T>> void off(@Nonnull final String type, @Nonnull EventListener<T, E> listener) {
-        getBus(type).unregister(listener);
+        getChannel(type).unregister(listener);
     }
 
     public static <T, E extends AzureEvent<T>> void on(@Nonnull final String type, @Nonnull Consumer<T> listener) {
-        getBus(type).register(new EventListener<T, E>((e) -> listener.accept(e.getPayload())));
+        getChannel(type).register(new EventListener<T, E>((e) -> listener.accept(e.getPayload())));
     }
 
     public static <T, E extends AzureEvent<T>> void after(@Nonnull final String operation, @Nonnull Consumer<T> listener) {
-        getBus(operation).register(new EventListener<T, E>((e) -> {
+        getChannel(operation).register(new EventListener<T, E>((e) -> {
             if (e instanceof AzureOperationEvent && ((AzureOperationEvent<?>) e).getStage() == AzureOperationEvent.Stage.AFTER) {
                 listener.accept(e.getPayload());
             }
@@ -43,7 +80,7 @@ public class AzureEventBus {
     }
 
     public static <T, E extends AzureEvent<T>> void before(@Nonnull final String operation, @Nonnull Consumer<T> listener) {
-        getBus(operation).register(new EventListener<T, E>((e) -> {
+        getChannel(operation).register(new EventListener<T, E>((e) -> {
             if (e instanceof AzureOperationEvent && ((AzureOperationEvent<?>) e).getStage() == AzureOperationEvent.Stage.BEFORE) {
                 listener.accept(e.getPayload());
             }
@@ -51,7 +88,7 @@ public class AzureEventBus {
     }
 
     public static <T, E extends AzureEvent<T>> void error(@Nonnull final String operation, @Nonnull Consumer<T> listener) {
-        getBus(operation).register(new EventListener<T, E>((e) -> {
+        getChannel(operation).register(new EventListener<T, E>((e) -> {
             if (e instanceof AzureOperationEvent && ((AzureOperationEvent<?>) e).getStage() == AzureOperationEvent.Stage.ERROR) {
                 listener.accept(e.getPayload());
             }
@@ -67,11 +104,171 @@ public class AzureEventBus {
     }
 
     public static <T> void emit(@Nonnull final String type, @Nonnull AzureEvent<T> event) {
-        getBus(type).post(event);
+        final Channel channel = buses.get(type);
+        if (channel == null || !channel.hasListeners()) {
+            return;
+        }
+        if (async) {
+            channel.enqueue(event);
+        } else {
+            channel.dispatch(event, System.nanoTime());
+        }
+    }
+
+    /**
+     * Wait until all the queued events are dispatched, at most {@code timeout}.
+     *
+     * @return true if no event is pending
+     */
+    public static boolean drain(@Nonnull final Duration timeout) {
+        return Poller.builder().initialInterval(Duration.ofMillis(10)).maxInterval(Duration.ofMillis(100)).timeout(timeout).build()
+            .poll(() -> buses.values().stream().allMatch(Channel::isIdle), idle -> idle).isDone();
+    }
+
+    /**
+     * @return statistics of dispatching per event type
+     */
+    public static Map<String, Stats> getStats() {
+        final Map<String, Stats> stats = new HashMap<>();
+        buses.forEach((type, channel) -> stats.put(type, channel.stats()));
+        return stats;
+    }
+
+    private static Channel getChannel(String eventType) {
+        return buses.computeIfAbsent(eventType, Channel::new);
+    }
+
+    /**
+     * queue and listeners of an event type
+     */
+    private static class Channel {
+        private final String type;
+        private final EventBus bus;
+        private final AtomicInteger listeners = new AtomicInteger();
+        /**
+         * created on the first event queued, most types are never emitted in async mode
+         */
+        @Nullable
+        private volatile BlockingQueue<Pending> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicLong dispatched = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong deadLetters = new AtomicLong();
+        private final AtomicLong totalLatency = new AtomicLong();
+        private final AtomicLong maxLatency = new AtomicLong();
+
+        Channel(final String type) {
+            this.type = type;
+            this.bus = new EventBus(this::onListenerError);
+        }
+
+        void register(final Object listener) {
+            bus.register(listener);
+            listeners.incrementAndGet();
+        }
+
+        void unregister(final Object listener) {
+            bus.unregister(listener); // throws if the listener is not registered
+            listeners.decrementAndGet();
+        }
+
+        boolean hasListeners() {
+            return listeners.get() > 0;
+        }
+
+        void enqueue(final AzureEvent<?> event) {
+            if (!getQueue().offer(new Pending(event, System.nanoTime()))) {
+                dropped.incrementAndGet();
+                return;
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                DISPATCHER.execute(this::drain);
+            }
+        }
+
+        void dispatch(final AzureEvent<?> event, final long emittedAt) {
+            bus.post(event);
+            final long latency = System.nanoTime() - emittedAt;
+            dispatched.incrementAndGet();
+            totalLatency.addAndGet(latency);
+            maxLatency.accumulateAndGet(latency, Math::max);
+        }
+
+        private BlockingQueue<Pending> getQueue() {
+            BlockingQueue<Pending> result = queue;
+            if (result == null) {
+                synchronized (this) {
+                    result = queue;
+                    if (result == null) {
+                        result = queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+                    }
+                }
+            }
+            return result;
+        }
+
+        private void drain() {
+            final BlockingQueue<Pending> queue = getQueue();
+            for (int i = 0; i < DISPATCH_BATCH; i++) {
+                final Pending pending = queue.poll();
+                if (pending == null) {
+                    break;
+                }
+                dispatch(pending.event, pending.emittedAt);
+            }
+            if (!queue.isEmpty()) { // still scheduled, let the events of other types in the dispatcher go first.
+                DISPATCHER.execute(this::drain);
+                return;
+            }
+            scheduled.set(false);
+            // an event may be queued after the queue is found empty but before `scheduled` is reset.
+            if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                DISPATCHER.execute(this::drain);
+            }
+        }
+
+        boolean isIdle() {
+            final BlockingQueue<Pending> queue = this.queue;
+            return (queue == null || queue.isEmpty()) && !scheduled.get();
+        }
+
+        private void onListenerError(final Throwable e, final SubscriberExceptionContext context) {
+            deadLetters.incrementAndGet();
+            log.warn(String.format("error occurs when dispatching event[%s] to listener[%s]", type, context.getSubscriber()), e);
+        }
+
+        Stats stats() {
+            final long count = dispatched.get();
+            final Duration average = Duration.ofNanos(count == 0 ? 0 : totalLatency.get() / count);
+            final BlockingQueue<Pending> queue = this.queue;
+            return new Stats(count, dropped.get(), deadLetters.get(), queue == null ? 0 : queue.size(), average, Duration.ofNanos(maxLatency.get()));
+        }
     }
 
-    private static EventBus getBus(String eventType) {
-        return buses.computeIfAbsent(eventType, EventBus::new);
+    @AllArgsConstructor
+    private static class Pending {
+        private final AzureEvent<?> event;
+        private final long emittedAt;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Stats {
+        private final long dispatched;
+        /**
+         * events dropped because the queue is full
+         */
+        private final long dropped;
+        /**
+         * failures of listeners
+         */
+        private final long deadLetters;
+        private final int pending;
+        /**
+         * from being emitted to being dispatched to all the listeners
+         */
+        private final Duration averageLatency;
+        private final Duration maxLatency;
     }
 
     @RequiredArgsConstructor
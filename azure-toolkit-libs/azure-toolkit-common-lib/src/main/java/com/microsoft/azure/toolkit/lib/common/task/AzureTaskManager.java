@@ -379,6 +379,14 @@ public abstract class AzureTaskManager {
         }, Emitter.BackpressureMode.BUFFER);
     }
 
+    /**
+     * @return true if there is no UI (e.g. in maven), where tasks are only run for their results, not to e.g. warm up
+     * caches for later interactions.
+     */
+    public boolean isHeadless() {
+        return false;
+    }
+
     protected abstract void doRead(Runnable runnable, AzureTask<?> task);
 
     protected abstract void doWrite(Runnable runnable, AzureTask<?> task);
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.task;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.java.Log;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link AzureTaskManager} for headless runs (e.g. maven), where there is no UI thread and no read/write lock:
+ * <ul>
+ * <li>read, write, run-and-wait and modal tasks are run in the calling thread</li>
+ * <li>run-later tasks are run one by one in a dedicated thread, as they would be in a UI thread</li>
+ * <li>pooled and background tasks are run by a bounded pool of {@value #PARALLELISM} (4 by default) threads with a
+ * bounded queue, the caller runs the task itself when the queue is full</li>
+ * </ul>
+ * Threads are virtual threads if the JDK provides them (JDK 21+), unless {@value #VIRTUAL_THREADS} is false. Executors
+ * are created on demand, so the manager could be used again after {@link #shutdown(Duration)}. The manager is shared by
+ * all the goals run in the JVM (e.g. {@code mvn -T}), each goal {@link #acquire()}s it and the executors are only shut
+ * down when the last one {@link #release(Duration)}s it.
+ */
+@Log
+public class HeadlessAzureTaskManager extends AzureTaskManager {
+    public static final String PARALLELISM = "azure.task.parallelism";
+    public static final String VIRTUAL_THREADS = "azure.task.virtualThreads";
+    static final int QUEUE_CAPACITY = 256;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final int parallelism;
+    private final ThreadFactory pooledThreadFactory;
+    private final ThreadFactory laterThreadFactory;
+    private final AtomicLong callerRuns = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private int users;
+    @Nullable
+    private ThreadPoolExecutor pooled;
+    @Nullable
+    private ThreadPoolExecutor later;
+
+    public HeadlessAzureTaskManager() {
+        this(Integer.getInteger(PARALLELISM, 4));
+    }
+
+    public HeadlessAzureTaskManager(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        final boolean virtual = Boolean.parseBoolean(System.getProperty(VIRTUAL_THREADS, "true"));
+        this.pooledThreadFactory = createThreadFactory("azure-task-pooled-", virtual);
+        this.laterThreadFactory = createThreadFactory("azure-task-later-", virtual);
+    }
+
+    @Override
+    public boolean isHeadless() {
+        return true;
+    }
+
+    @Override
+    protected void doRead(Runnable runnable, AzureTask<?> task) {
+        runnable.run();
+    }
+
+    @Override
+    protected void doWrite(Runnable runnable, AzureTask<?> task) {
+        runnable.run();
+    }
+
+    @Override
+    protected void doRunLater(Runnable runnable, AzureTask<?> task) {
+        getLaterExecutor().execute(runnable);
+    }
+
+    @Override
+    protected void doRunOnPooledThread(Runnable runnable, AzureTask<?> task) {
+        getPooledExecutor().execute(runnable);
+    }
+
+    @Override
+    protected void doRunAndWait(Runnable runnable, AzureTask<?> task) {
+        runnable.run();
+    }
+
+    @Override
+    protected void doRunInBackground(Runnable runnable, AzureTask<?> task) {
+        getPooledExecutor().execute(runnable);
+    }
+
+    @Override
+    protected void doRunInModal(Runnable runnable, AzureTask<?> task) {
+        runnable.run();
+    }
+
+    /**
+     * Register a user (e.g. a running goal) of the executors, they are not shut down until it's released.
+     */
+    public synchronized void acquire() {
+        users++;
+    }
+
+    /**
+     * Unregister a user, and {@link #shutdown(Duration)} if it's the last one.
+     *
+     * @return true if all the tasks are finished before the deadline or the executors are still used by others
+     */
+    public boolean release(@Nonnull final Duration timeout) {
+        final ExecutorService[] executors;
+        synchronized (this) {
+            users = Math.max(0, users - 1);
+            if (users > 0) {
+                return true;
+            }
+            executors = detachExecutors();
+        }
+        return terminate(executors, timeout);
+    }
+
+    /**
+     * Stop accepting tasks and wait at most {@code timeout} for the queued and running tasks, tasks still running after
+     * that are interrupted.
+     *
+     * @return true if all the tasks are finished before the deadline
+     */
+    public boolean shutdown(@Nonnull final Duration timeout) {
+        final ExecutorService[] executors;
+        synchronized (this) {
+            executors = detachExecutors();
+        }
+        return terminate(executors, timeout);
+    }
+
+    private ExecutorService[] detachExecutors() {
+        final ExecutorService[] executors = new ExecutorService[]{pooled, later};
+        pooled = null;
+        later = null;
+        return executors;
+    }
+
+    private static boolean terminate(@Nonnull final ExecutorService[] executors, @Nonnull final Duration timeout) {
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        boolean terminated = true;
+        for (final ExecutorService executor : executors) {
+            if (executor == null) {
+                continue;
+            }
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    terminated = false;
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                terminated = false;
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        return terminated;
+    }
+
+    @Nonnull
+    public synchronized Stats getStats() {
+        final ThreadPoolExecutor executor = pooled;
+        if (executor == null) {
+            return new Stats(0, 0, 0, 0, callerRuns.get(), rejected.get());
+        }
+        return new Stats(executor.getQueue().size(), executor.getActiveCount(), executor.getCompletedTaskCount(),
+            executor.getLargestPoolSize(), callerRuns.get(), rejected.get());
+    }
+
+    private synchronized ThreadPoolExecutor getPooledExecutor() {
+        if (pooled == null) {
+            pooled = new ThreadPoolExecutor(parallelism, parallelism, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), pooledThreadFactory, (runnable, executor) -> {
+                    if (executor.isShutdown()) {
+                        reject(runnable);
+                        return;
+                    }
+                    // back pressure: the caller runs the task itself instead of queueing more
+                    callerRuns.incrementAndGet();
+                    runnable.run();
+                });
+            pooled.allowCoreThreadTimeOut(true);
+        }
+        return pooled;
+    }
+
+    private synchronized ThreadPoolExecutor getLaterExecutor() {
+        if (later == null) {
+            later = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), laterThreadFactory,
+                (runnable, executor) -> reject(runnable));
+            later.allowCoreThreadTimeOut(true);
+        }
+        return later;
+    }
+
+    /**
+     * only happens if a task is submitted to an executor being shut down, new tasks go to new executors after that.
+     */
+    private void reject(final Runnable runnable) {
+        rejected.incrementAndGet();
+        log.warning(String.format("task[%s] is dropped as the task manager is shut down.", runnable));
+    }
+
+    /**
+     * {@code Thread.ofVirtual().name(prefix, 0).factory()} if virtual threads are available, they are pooled here only to
+     * bound the concurrency and reuse the queue and metrics of {@link ThreadPoolExecutor}.
+     */
+    private static ThreadFactory createThreadFactory(final String prefix, final boolean virtual) {
+        if (virtual) {
+            try {
+                final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                final Method ofVirtual = Thread.class.getMethod("ofVirtual");
+                final Object builder = builderClass.getMethod("name", String.class, long.class).invoke(ofVirtual.invoke(null), prefix, 0L);
+                return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                log.fine(String.format("virtual threads are not available: %s", e.getMessage()));
+            }
+        }
+        return new ThreadFactoryBuilder().setNameFormat(prefix + "%d").setDaemon(true).build();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Stats {
+        private final int queued;
+        private final int active;
+        private final long completed;
+        private final int largestPoolSize;
+        /**
+         * tasks run by the caller because the queue was full
+         */
+        private final long callerRuns;
+        /**
+         * tasks dropped because they were submitted while the executor was being shut down
+         */
+        private final long rejected;
+    }
+}
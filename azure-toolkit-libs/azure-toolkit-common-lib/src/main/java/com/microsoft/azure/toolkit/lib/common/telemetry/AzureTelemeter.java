@@ -11,18 +11,27 @@ import com.microsoft.azure.toolkit.lib.common.operation.IAzureOperation;
 import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemetry.Properties;
 import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemetry.Property;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.SneakyThrows;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 public class AzureTelemeter {
     private static final String SERVICE_NAME = "serviceName";
@@ -37,6 +46,13 @@ public class AzureTelemeter {
     private static final String ERROR_TYPE = "errorType";
     private static final String ERROR_CLASSNAME = "errorClassName";
     private static final String ERROR_STACKTRACE = "errorStackTrace";
+
+    private static final Pattern OPERATION_NAME_PARAMS = Pattern.compile("\\(.+\\)");
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int MAX_STACK_FRAMES = 32;
+    private static final int MAX_STACK_TRACE_LENGTH = 8192;
+    private static final int EXPECTED_PROPERTIES = 32;
+    private static final Map<Method, OperationMeta> metas = new ConcurrentHashMap<>();
     @Getter
     @Setter
     @Nullable
@@ -58,88 +74,101 @@ public class AzureTelemeter {
     public static void beforeEnter(@Nonnull final IAzureOperation op) {
         final AzureTelemetry.Context context = AzureTelemetry.getContext(op);
         context.setEnterAt(Instant.now());
+        AzureTracer.getInstance().onEnter(op);
     }
 
     public static void afterExit(@Nonnull final IAzureOperation op) {
         final AzureTelemetry.Context context = AzureTelemetry.getContext(op);
         context.setExitAt(Instant.now());
-        AzureTelemeter.log(AzureTelemetry.Type.INFO, serialize(op));
+        AzureTracer.getInstance().onExit(op, null);
+        if (client != null) { // nothing is sent without client, so don't bother serializing
+            AzureTelemeter.log(AzureTelemetry.Type.INFO, serialize(op));
+        }
     }
 
     public static void onError(@Nonnull final IAzureOperation op, Throwable error) {
         final AzureTelemetry.Context context = AzureTelemetry.getContext(op);
         context.setExitAt(Instant.now());
-        AzureTelemeter.log(AzureTelemetry.Type.ERROR, serialize(op), error);
+        AzureTracer.getInstance().onExit(op, error);
+        if (client != null) {
+            AzureTelemeter.log(AzureTelemetry.Type.ERROR, serialize(op), error);
+        }
     }
 
     public static void log(final AzureTelemetry.Type type, final Map<String, String> properties, final Throwable e) {
-        if (Objects.nonNull(e)) {
-            properties.putAll(serialize(e));
+        if (client != null && Objects.nonNull(e)) {
+            serialize(e, properties);
         }
         AzureTelemeter.log(type, properties);
     }
 
     public static void log(final AzureTelemetry.Type type, final Map<String, String> properties) {
         if (client != null) {
-            properties.putAll(Optional.ofNullable(getCommonProperties()).orElse(new HashMap<>()));
+            Optional.ofNullable(getCommonProperties()).ifPresent(properties::putAll);
             final String eventName = Optional.ofNullable(getEventNamePrefix()).orElse("AzurePlugin") + "/" + type.name();
-            client.trackEvent(eventName, properties, null);
-            client.flush();
+            AzureTelemetryQueue.getInstance().offer(client, eventName, properties);
         }
     }
 
     @Nonnull
-    private static Map<String, String> serialize(@Nonnull final IAzureOperation op) {
+    static Map<String, String> serialize(@Nonnull final IAzureOperation op) {
         final AzureTelemetry.Context context = AzureTelemetry.getContext(op);
-        final Map<String, String> actionProperties = getActionProperties(context.getOperation());
-        final Optional<IAzureOperation> parent = Optional.ofNullable(op.getParent());
-        final Map<String, String> properties = new HashMap<>();
-        final String name = op.getName().replaceAll("\\(.+\\)", "(***)"); // e.g. `appservice|file.list.dir`
-        final String[] parts = name.split("\\."); // ["appservice|file", "list", "dir"]
-        final String[] compositeServiceName = parts[0].split("\\|"); // ["appservice", "file"]
-        final String mainServiceName = compositeServiceName[0]; // "appservice"
-        final String operationName = compositeServiceName.length > 1 ? parts[1] + "_" + compositeServiceName[1] : parts[1]; // "list_file"
-        properties.put(SERVICE_NAME, mainServiceName);
-        properties.put(OPERATION_NAME, operationName);
+        final OperationMeta meta = op instanceof AzureOperationRef ? getMeta((AzureOperationRef) op) : null;
+        final OperationName name = Objects.nonNull(meta) ? meta.name : OperationName.parse(op.getName());
+        // the map is handed over to the telemetry queue, so it's sized to hold all the properties without rehashing
+        // rather than reused.
+        final Map<String, String> properties = new HashMap<>(EXPECTED_PROPERTIES);
+        properties.put(SERVICE_NAME, name.serviceName);
+        properties.put(OPERATION_NAME, name.operationName);
         properties.put(OP_ID, op.getId());
-        properties.put(OP_PARENT_ID, parent.map(IAzureOperation::getId).orElse("/"));
-        properties.put(OP_NAME, name);
-        properties.put(OP_TYPE, op.getType());
-        properties.putAll(actionProperties);
-        if (op instanceof AzureOperationRef) {
-            properties.putAll(getParameterProperties((AzureOperationRef) op));
+        properties.put(OP_PARENT_ID, Optional.ofNullable(op.getParent()).map(IAzureOperation::getId).orElse("/"));
+        properties.put(OP_NAME, name.name);
+        properties.put(OP_TYPE, Objects.nonNull(meta) ? meta.type : op.getType());
+        Optional.ofNullable(context.getOperation()).map(IAzureOperation::getActionParent)
+                .map(action -> AzureTelemetry.getContext(action).getProperties())
+                .ifPresent(properties::putAll);
+        if (Objects.nonNull(meta)) {
+            putParameterProperties(((AzureOperationRef) op).getParamValues(), meta, properties);
         }
         properties.putAll(context.getProperties());
         return properties;
     }
 
-    private static Map<String, String> getParameterProperties(AzureOperationRef ref) {
-        final HashMap<String, String> properties = new HashMap<>();
-        final Object[] paramValues = ref.getParamValues();
-        final Parameter[] parameters = ref.getMethod().getParameters();
+    private static void putParameterProperties(final Object[] paramValues, final OperationMeta meta, final Map<String, String> properties) {
+        for (final TelemetryParameter param : meta.parameters) {
+            final Object value = paramValues[param.index];
+            if (Objects.nonNull(param.property)) {
+                properties.put(param.property, Optional.ofNullable(value).map(Object::toString).orElse(""));
+            }
+            if (Objects.nonNull(param.converter)) {
+                properties.putAll(param.converter.convert(value));
+            }
+        }
+    }
+
+    private static OperationMeta getMeta(@Nonnull final AzureOperationRef ref) {
+        return metas.computeIfAbsent(ref.getMethod(), m -> new OperationMeta(OperationName.parse(ref.getName()), ref.getType(), getTelemetryParameters(m)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<TelemetryParameter> getTelemetryParameters(@Nonnull final Method method) {
+        final List<TelemetryParameter> result = new ArrayList<>();
+        final Parameter[] parameters = method.getParameters();
         for (int i = 0; i < parameters.length; i++) {
             final Parameter param = parameters[i];
-            final Object value = paramValues[i];
-            Optional.ofNullable(param.getAnnotation(Property.class))
+            final String property = Optional.ofNullable(param.getAnnotation(Property.class))
                     .map(Property::value)
                     .map(n -> Property.PARAM_NAME.equals(n) ? param.getName() : n)
-                    .ifPresent((name) -> properties.put(name, Optional.ofNullable(value).map(Object::toString).orElse("")));
-            Optional.ofNullable(param.getAnnotation(Properties.class))
+                    .orElse(null);
+            final Properties.Converter<Object> converter = Optional.ofNullable(param.getAnnotation(Properties.class))
                     .map(Properties::value)
                     .map(AzureTelemeter::instantiate)
-                    .map(converter -> converter.convert(value))
-                    .ifPresent(properties::putAll);
+                    .orElse(null);
+            if (Objects.nonNull(property) || Objects.nonNull(converter)) {
+                result.add(new TelemetryParameter(i, property, converter));
+            }
         }
-        return properties;
-    }
-
-    @Nonnull
-    private static Map<String, String> getActionProperties(IAzureOperation operation) {
-        return Optional.ofNullable(operation)
-                .map(IAzureOperation::getActionParent)
-                .map(o -> o.get(AzureTelemetry.Context.class, new AzureTelemetry.Context(o)))
-                .map(AzureTelemetry.Context::getProperties)
-                .orElse(new HashMap<>());
+        return result;
     }
 
     @SneakyThrows
@@ -147,15 +176,78 @@ public class AzureTelemeter {
         return clazz.newInstance();
     }
 
-    @Nonnull
-    private static HashMap<String, String> serialize(@Nonnull Throwable e) {
-        final HashMap<String, String> properties = new HashMap<>();
+    private static void serialize(@Nonnull Throwable e, @Nonnull final Map<String, String> properties) {
         final ErrorType type = ErrorType.userError; // TODO: (@wangmi & @Hanxiao.Liu)decide error type based on the type of ex.
         properties.put(ERROR_CLASSNAME, e.getClass().getName());
         properties.put(ERROR_TYPE, type.name());
         properties.put(ERROR_MSG, e.getMessage());
-        properties.put(ERROR_STACKTRACE, ExceptionUtils.getStackTrace(e));
-        return properties;
+        properties.put(ERROR_STACKTRACE, getStackTrace(e));
+    }
+
+    /**
+     * like {@link ExceptionUtils#getStackTrace(Throwable)}, but at most {@value #MAX_STACK_FRAMES} frames of each
+     * throwable in the cause chain are rendered, and the result is cut at {@value #MAX_STACK_TRACE_LENGTH} chars, which
+     * is the most a telemetry property could hold anyway.
+     */
+    static String getStackTrace(@Nonnull final Throwable e) {
+        final StringBuilder result = new StringBuilder(1024);
+        final Set<Throwable> rendered = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Throwable t = e; t != null && rendered.add(t) && result.length() < MAX_STACK_TRACE_LENGTH; t = t.getCause()) {
+            if (t != e) {
+                result.append("Caused by: ");
+            }
+            result.append(t).append(LINE_SEPARATOR);
+            final StackTraceElement[] frames = t.getStackTrace();
+            final int count = Math.min(frames.length, MAX_STACK_FRAMES);
+            for (int i = 0; i < count; i++) {
+                result.append("\tat ").append(frames[i]).append(LINE_SEPARATOR);
+            }
+            if (frames.length > count) {
+                result.append("\t... ").append(frames.length - count).append(" more").append(LINE_SEPARATOR);
+            }
+        }
+        return result.length() > MAX_STACK_TRACE_LENGTH ? result.substring(0, MAX_STACK_TRACE_LENGTH) : result.toString();
+    }
+
+    /**
+     * e.g. `appservice|file.list.dir` is parsed as service `appservice` and operation `list_file`
+     */
+    @RequiredArgsConstructor
+    private static class OperationName {
+        private final String name;
+        private final String serviceName;
+        private final String operationName;
+
+        static OperationName parse(@Nonnull final String rawName) {
+            final String name = OPERATION_NAME_PARAMS.matcher(rawName).replaceAll("(***)"); // e.g. `appservice|file.list.dir`
+            final String[] parts = name.split("\\."); // ["appservice|file", "list", "dir"]
+            final String[] compositeServiceName = parts[0].split("\\|"); // ["appservice", "file"]
+            final String mainServiceName = compositeServiceName[0]; // "appservice"
+            final String operationName = compositeServiceName.length > 1 ? parts[1] + "_" + compositeServiceName[1] : parts[1]; // "list_file"
+            return new OperationName(name, mainServiceName, operationName);
+        }
+    }
+
+    /**
+     * what is needed to serialize invocations of an operation method, resolved once per method
+     */
+    @RequiredArgsConstructor
+    private static class OperationMeta {
+        private final OperationName name;
+        private final String type;
+        private final List<TelemetryParameter> parameters;
+    }
+
+    /**
+     * a parameter annotated with {@link Property} and/or {@link Properties}
+     */
+    @RequiredArgsConstructor
+    private static class TelemetryParameter {
+        private final int index;
+        @Nullable
+        private final String property;
+        @Nullable
+        private final Properties.Converter<Object> converter;
     }
 
     private enum ErrorType {
@@ -93,9 +93,12 @@ public class AzureTelemetry {
 
     @Nonnull
     public static AzureTelemetry.Context getContext(@Nullable IAzureOperation operation) {
-        return Optional.ofNullable(operation)
-                .map(o -> o.get(AzureTelemetry.Context.class, new AzureTelemetry.Context(operation)))
-                .orElse(new AzureTelemetry.Context(operation));
+        if (operation == null) {
+            return new AzureTelemetry.Context(null);
+        }
+        // look up first to avoid creating a throwaway context on every call, it's called several times per operation.
+        final AzureTelemetry.Context context = operation.get(AzureTelemetry.Context.class);
+        return context != null ? context : operation.get(AzureTelemetry.Context.class, new AzureTelemetry.Context(operation));
     }
 
     @Getter
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.telemetry;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.applicationinsights.TelemetryClient;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-process queue of telemetry events, events are handed to the {@link TelemetryClient} and flushed in batches
+ * by a daemon thread when a batch is full or the flush interval since its first event has elapsed, so tracking an
+ * event never blocks the caller. Events are dropped (and counted) rather than blocking when the queue is full, call
+ * {@link #drain(Duration)} before exit to flush the remaining events within a deadline.
+ */
+@Slf4j
+public class AzureTelemetryQueue {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int DEFAULT_BATCH_SIZE = 32;
+    private static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofSeconds(1);
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder().setNameFormat("azure-telemetry-%d").setDaemon(true).build();
+
+    private final BlockingQueue<Event> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile Thread worker;
+
+    public AzureTelemetryQueue(final int capacity, final int batchSize, @Nonnull final Duration flushInterval) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+    }
+
+    public static AzureTelemetryQueue getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @return false if the event is dropped because the queue is full
+     */
+    public boolean offer(@Nonnull final TelemetryClient client, @Nonnull final String eventName, @Nonnull final Map<String, String> properties) {
+        ensureStarted();
+        if (!queue.offer(new Event(client, eventName, properties, null))) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Flush all events queued before this call, waiting at most {@code timeout}.
+     *
+     * @return true if all the events are handed to their clients and flushed before the deadline
+     */
+    public boolean drain(@Nonnull final Duration timeout) {
+        if (worker == null) {
+            return true;
+        }
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        final CountDownLatch flushed = new CountDownLatch(1);
+        boolean result = false;
+        try {
+            // the marker is queued after all the pending events, it's reached when they are all in the current batch
+            result = queue.offer(new Event(null, null, null, flushed), timeout.toNanos(), TimeUnit.NANOSECONDS) &&
+                flushed.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!result || dropped.get() > 0) {
+            log.debug(String.format("Telemetry events sent: %d, dropped: %d, pending: %d", sent.get(), dropped.get(), queue.size()));
+        }
+        return result;
+    }
+
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private synchronized void ensureStarted() {
+        if (worker == null) {
+            worker = THREAD_FACTORY.newThread(this::run);
+            worker.start();
+        }
+    }
+
+    private void run() {
+        final List<Event> batch = new ArrayList<>(batchSize);
+        long flushAt = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                final Event event = batch.isEmpty() ? queue.take() : queue.poll(flushAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (event != null && event.flushed == null) {
+                    if (batch.isEmpty()) {
+                        flushAt = System.nanoTime() + flushIntervalNanos;
+                    }
+                    batch.add(event);
+                }
+                final boolean flushRequested = event != null && event.flushed != null;
+                if (!batch.isEmpty() && (flushRequested || batch.size() >= batchSize || System.nanoTime() - flushAt >= 0)) {
+                    send(batch);
+                    batch.clear();
+                }
+                if (flushRequested) {
+                    event.flushed.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void send(final List<Event> batch) {
+        final Map<TelemetryClient, Boolean> clients = new IdentityHashMap<>();
+        for (final Event event : batch) {
+            try {
+                event.client.trackEvent(event.name, event.properties, null);
+                clients.put(event.client, Boolean.TRUE);
+            } catch (RuntimeException e) {
+                log.debug(String.format("Failed to track telemetry event %s: %s", event.name, e.getMessage()));
+            }
+        }
+        for (final TelemetryClient client : clients.keySet()) {
+            try {
+                client.flush();
+            } catch (RuntimeException e) {
+                log.debug(String.format("Failed to flush telemetry: %s", e.getMessage()));
+            }
+        }
+        sent.addAndGet(batch.size());
+    }
+
+    @AllArgsConstructor
+    private static class Event {
+        private final TelemetryClient client;
+        private final String name;
+        private final Map<String, String> properties;
+        /**
+         * not null only for the marker queued by {@link #drain(Duration)}
+         */
+        @Nullable
+        private final CountDownLatch flushed;
+    }
+
+    private static class Holder {
+        private static final AzureTelemetryQueue INSTANCE = new AzureTelemetryQueue(DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL);
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.telemetry;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
+import com.microsoft.azure.toolkit.lib.common.operation.AzureOperationRef;
+import com.microsoft.azure.toolkit.lib.common.operation.IAzureOperation;
+import com.microsoft.azure.toolkit.lib.common.operation.IAzureOperationTitle;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
+import com.microsoft.azure.toolkit.lib.common.utils.aspect.ExpressionUtils;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ArrayUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Records a span for each operation (including async {@code AzureTask}s) entered and exited through
+ * {@link AzureTelemeter}, and exports them as a Chrome trace-event file, which can be opened in {@code chrome://tracing},
+ * <a href="https://ui.perfetto.dev">Perfetto</a> or speedscope. Spans nest by time on each thread, a span whose parent
+ * operation is on another thread (e.g. a task submitted by {@code AzureTaskManager}) is linked to it by a flow arrow.
+ * Disabled by default, nothing is recorded until {@link #setEnabled(boolean)} is called.
+ */
+@Slf4j
+public class AzureTracer {
+    private static final int MAX_SPANS = 100_000;
+    private static final int PID = 1;
+
+    private final long origin = System.nanoTime();
+    private final Queue<Span> spans = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final ThreadLocal<Deque<Span>> opened = ThreadLocal.withInitial(ArrayDeque::new);
+    @Getter
+    @Setter
+    private volatile boolean enabled;
+
+    public static AzureTracer getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public void onEnter(@Nonnull final IAzureOperation op) {
+        if (enabled) {
+            opened.get().push(new Span(op, Thread.currentThread(), System.nanoTime()));
+        }
+    }
+
+    public void onExit(@Nonnull final IAzureOperation op, @Nullable final Throwable error) {
+        if (!enabled) {
+            return;
+        }
+        final Deque<Span> stack = opened.get();
+        // normally it's the top one, but the operation may be entered before tracing is enabled.
+        for (final Iterator<Span> it = stack.iterator(); it.hasNext();) {
+            final Span span = it.next();
+            if (span.op == op) {
+                it.remove();
+                span.end = System.nanoTime();
+                // parent of an operation is set after it's entered, so it's resolved on exit
+                span.parentId = Optional.ofNullable(op.getParent()).map(IAzureOperation::getId).orElse(null);
+                span.params = getParams(op);
+                span.error = Optional.ofNullable(error).map(e -> e.getClass().getName()).orElse(null);
+                span.op = null;
+                add(span);
+                break;
+            }
+        }
+        if (stack.isEmpty()) {
+            opened.remove();
+        }
+    }
+
+    /**
+     * record a span not backed by an operation, e.g. a maven goal, on current thread.
+     */
+    public void record(@Nonnull final String name, @Nonnull final String category, final long startNanos, final long endNanos) {
+        if (enabled) {
+            final Span span = new Span(null, Thread.currentThread(), startNanos);
+            span.name = name;
+            span.category = category;
+            span.end = endNanos;
+            add(span);
+        }
+    }
+
+    /**
+     * Write all the spans finished so far to {@code file} in Chrome trace-event format, the file is overwritten.
+     */
+    public void export(@Nonnull final File file) throws IOException {
+        final List<Span> finished = new ArrayList<>(spans);
+        final Map<String, Span> byId = new HashMap<>();
+        final Map<Long, String> threads = new HashMap<>();
+        for (final Span span : finished) {
+            Optional.ofNullable(span.id).ifPresent(id -> byId.put(id, span));
+            threads.put(span.threadId, span.threadName);
+        }
+        Optional.ofNullable(file.getAbsoluteFile().getParentFile()).ifPresent(File::mkdirs);
+        try (JsonGenerator json = new JsonFactory().createGenerator(file, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("displayTimeUnit", "ms");
+            json.writeObjectFieldStart("otherData");
+            json.writeNumberField("droppedSpans", dropped.get());
+            json.writeEndObject();
+            json.writeArrayFieldStart("traceEvents");
+            for (final Map.Entry<Long, String> thread : threads.entrySet()) {
+                json.writeStartObject();
+                json.writeStringField("name", "thread_name");
+                json.writeStringField("ph", "M");
+                json.writeNumberField("pid", PID);
+                json.writeNumberField("tid", thread.getKey());
+                json.writeObjectFieldStart("args");
+                json.writeStringField("name", thread.getValue());
+                json.writeEndObject();
+                json.writeEndObject();
+            }
+            int flowId = 0;
+            for (final Span span : finished) {
+                writeSpan(json, span);
+                final Span parent = span.parentId == null ? null : byId.get(span.parentId);
+                if (parent != null && parent.threadId != span.threadId) {
+                    flowId++;
+                    writeFlow(json, "s", flowId, parent.threadId, span.start);
+                    writeFlow(json, "f", flowId, span.threadId, span.start);
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        log.debug(String.format("%d spans are exported to %s, %d dropped.", finished.size(), file, dropped.get()));
+    }
+
+    private void add(final Span span) {
+        if (count.incrementAndGet() > MAX_SPANS) {
+            count.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        spans.add(span);
+    }
+
+    private void writeSpan(final JsonGenerator json, final Span span) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("name", span.name);
+        json.writeStringField("cat", span.category);
+        json.writeStringField("ph", "X");
+        json.writeNumberField("ts", toMicros(span.start));
+        json.writeNumberField("dur", (span.end - span.start) / 1000.0);
+        json.writeNumberField("pid", PID);
+        json.writeNumberField("tid", span.threadId);
+        json.writeObjectFieldStart("args");
+        writeOptionalField(json, "id", span.id);
+        writeOptionalField(json, "parentId", span.parentId);
+        writeOptionalField(json, "params", span.params);
+        writeOptionalField(json, "error", span.error);
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    private void writeFlow(final JsonGenerator json, final String phase, final int id, final long threadId, final long nanos) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("name", "async");
+        json.writeStringField("cat", "flow");
+        json.writeStringField("ph", phase);
+        json.writeNumberField("id", id);
+        if ("f".equals(phase)) {
+            json.writeStringField("bp", "e"); // bind to the enclosing span, i.e. the child span starting at the same time
+        }
+        json.writeNumberField("ts", toMicros(nanos));
+        json.writeNumberField("pid", PID);
+        json.writeNumberField("tid", threadId);
+        json.writeEndObject();
+    }
+
+    /**
+     * titles are not rendered, since they depend on the message bundle registered by the IDEs, the parameters (e.g.
+     * name of the resource) are recorded instead.
+     */
+    @Nullable
+    private static String getParams(final IAzureOperation op) {
+        final Object[] params;
+        if (op instanceof AzureOperationRef) {
+            final AzureOperationRef ref = (AzureOperationRef) op;
+            params = Arrays.stream(ref.getAnnotation(AzureOperation.class).params()).map(e -> ExpressionUtils.interpret(e, ref)).toArray();
+        } else if (op instanceof AzureTask && ((AzureTask<?>) op).getTitle() != null) {
+            params = ((AzureTask<?>) op).getTitle().getParams();
+        } else {
+            params = null;
+        }
+        return ArrayUtils.isEmpty(params) ? null : Arrays.stream(params).map(String::valueOf).collect(Collectors.joining(", "));
+    }
+
+    private static void writeOptionalField(final JsonGenerator json, final String name, @Nullable final String value) throws IOException {
+        if (value != null) {
+            json.writeStringField(name, value);
+        }
+    }
+
+    private double toMicros(final long nanos) {
+        return (nanos - origin) / 1000.0;
+    }
+
+    private static class Span {
+        /**
+         * the operation being traced, released once it's exited
+         */
+        @Nullable
+        private IAzureOperation op;
+        private final long threadId;
+        private final String threadName;
+        private final long start;
+        private long end;
+        private String name;
+        private String category;
+        @Nullable
+        private String id;
+        @Nullable
+        private String parentId;
+        @Nullable
+        private String params;
+        @Nullable
+        private String error;
+
+        Span(@Nullable final IAzureOperation op, final Thread thread, final long start) {
+            this.op = op;
+            this.threadId = thread.getId();
+            this.threadName = thread.getName();
+            this.start = start;
+            if (op != null) {
+                // titles of tasks are usually plain text without a name
+                final IAzureOperationTitle title = op instanceof AzureTask ? ((AzureTask<?>) op).getTitle() : null;
+                this.name = title instanceof IAzureOperationTitle.Simple && Objects.nonNull(title.toString()) ? title.toString() : op.getName();
+                this.category = op.getType();
+                this.id = op.getId();
+            }
+        }
+    }
+
+    private static class Holder {
+        private static final AzureTracer INSTANCE = new AzureTracer();
+    }
+}
@@ -24,7 +24,10 @@ public class InstallationIdUtils {
     }
 
     public static String getHashMac() {
-        String mac = NetUtils.getMac();
+        // `getmac` and NetworkInterface may list the adapters in different orders, keep `getmac` on windows so that the
+        // id doesn't change. The unix command never ran as it's not passed to a shell, read NetworkInterface directly.
+        final String mac = StringUtils.startsWithIgnoreCase(System.getProperty("os.name"), "win") ? NetUtils.getMac() :
+            StringUtils.firstNonBlank(NetUtils.getMacByNetworkInterface(), NetUtils.getMac());
         return StringUtils.isNotBlank(mac) ? hash(mac) : null;
     }
 
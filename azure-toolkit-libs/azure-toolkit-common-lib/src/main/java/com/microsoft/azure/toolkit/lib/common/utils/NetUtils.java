@@ -132,7 +132,7 @@ public class NetUtils {
         return macs;
     }
 
-    private static String getMacByNetworkInterface() {
+    public static String getMacByNetworkInterface() {
         List<String> macs = getMacsByNetworkInterface();
         if (CollectionUtils.isEmpty(macs)) {
             return StringUtils.EMPTY;
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.utils;
+
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Poll a resource until it matches a predicate, the deadline is reached or polling is cancelled. The first poll is done
+ * immediately, then the interval grows exponentially from {@code initialInterval} up to {@code maxInterval}, with a
+ * random jitter added so that concurrent pollers don't hit the service at the same time, e.g.
+ * <pre>
+ * Poller.builder().timeout(Duration.ofMinutes(1)).build().poll(() -> app.refresh(), app -> app.isReady());
+ * </pre>
+ */
+@Slf4j
+@Builder
+public class Poller {
+    @Builder.Default
+    private final Duration initialInterval = Duration.ofSeconds(1);
+    @Builder.Default
+    private final Duration maxInterval = Duration.ofSeconds(10);
+    @Builder.Default
+    private final double multiplier = 2;
+    /**
+     * at most {@code jitter * interval} is added to each interval
+     */
+    @Builder.Default
+    private final double jitter = 0.2;
+    @NonNull
+    private final Duration timeout;
+    /**
+     * checked before each poll and after each wait, polling stops when it returns true
+     */
+    @Nullable
+    private final BooleanSupplier cancelled;
+
+    /**
+     * exceptions thrown by {@code callable} stop the polling and are rethrown, wrapped if they are checked
+     *
+     * @return the result of the polling, with the last value got
+     */
+    public <T> Result<T> poll(@NonNull final Callable<T> callable, @NonNull final Predicate<T> predicate) {
+        final long start = System.nanoTime();
+        final long deadline = start + timeout.toNanos();
+        long interval = initialInterval.toNanos();
+        int polls = 0;
+        T value = null;
+        Status status;
+        while (true) {
+            if (isCancelled()) {
+                status = Status.CANCELLED;
+                break;
+            }
+            value = call(callable);
+            polls++;
+            if (predicate.test(value)) {
+                status = Status.DONE;
+                break;
+            }
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                status = Status.TIMEOUT;
+                break;
+            }
+            final long jittered = interval + (long) (interval * jitter * ThreadLocalRandom.current().nextDouble());
+            try {
+                Thread.sleep(Duration.ofNanos(Math.min(jittered, remaining)).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                status = Status.CANCELLED;
+                break;
+            }
+            interval = Math.min((long) (interval * multiplier), maxInterval.toNanos());
+        }
+        final Result<T> result = new Result<>(value, status, polls, Duration.ofNanos(System.nanoTime() - start));
+        log.debug(String.format("Polling %s after %d polls in %d ms.", status.name().toLowerCase(), polls, result.elapsed.toMillis()));
+        return result;
+    }
+
+    private boolean isCancelled() {
+        return Thread.currentThread().isInterrupted() || (cancelled != null && cancelled.getAsBoolean());
+    }
+
+    private static <T> T call(final Callable<T> callable) {
+        try {
+            return callable.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AzureToolkitRuntimeException(e.getMessage(), e);
+        }
+    }
+
+    public enum Status {
+        DONE, TIMEOUT, CANCELLED
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result<T> {
+        /**
+         * the last value got, which matches the predicate if {@link #isDone()}
+         */
+        @Nullable
+        private final T value;
+        private final Status status;
+        private final int polls;
+        private final Duration elapsed;
+
+        public boolean isDone() {
+            return status == Status.DONE;
+        }
+    }
+}
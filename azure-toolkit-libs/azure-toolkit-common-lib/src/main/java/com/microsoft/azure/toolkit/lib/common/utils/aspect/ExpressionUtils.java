@@ -6,6 +6,9 @@
 package com.microsoft.azure.toolkit.lib.common.utils.aspect;
 
 import com.azure.resourcemanager.resources.fluentcore.arm.ResourceUtils;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableMap;
 import groovy.text.SimpleTemplateEngine;
 import groovy.text.Template;
@@ -19,12 +22,22 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Level;
+import java.util.regex.Pattern;
 
 @Log
 public class ExpressionUtils {
     private static final ImmutableMap<String, Boolean> valueMap = ImmutableMap.of("true", true, "false", false);
     private static final SimpleTemplateEngine engine = new SimpleTemplateEngine();
     private static final String INVALID_TEMPLATE = "error occurs when evaluate template(%s) with bindings(%s)";
+    private static final String UNCOMPILABLE_TEMPLATE = "error occurs when compile template(%s)";
+    private static final Pattern THIS_PATTERN = Pattern.compile("(\\W)this(\\.)");
+    private static final int MAX_CACHED_TEMPLATES = 1024;
+    // compiling a template generates a new groovy class, so compile each distinct template only once.
+    // templates failed to compile are cached as empty, so they are neither compiled nor logged again.
+    private static final Cache<String, Optional<Template>> templates = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_TEMPLATES)
+            .recordStats()
+            .build();
 
     public static boolean evaluate(@Nonnull final String expression, @Nonnull final MethodInvocation invocation, boolean defaultVal) {
         final String result = interpret(expression, invocation);
@@ -40,16 +53,34 @@ public class ExpressionUtils {
             return template;
         }
         final Map<String, Object> bindings = initBindings(invocation);
-        final String fixed = template.replaceAll("(\\W)this(\\.)", "$1_this_$2"); // resolve `this`
         try {
-            final Template tpl = engine.createTemplate(fixed);
-            return tpl.make(bindings).toString();
+            final Optional<Template> tpl = templates.get(template, () -> compile(template));
+            if (tpl.isPresent()) {
+                return tpl.get().make(bindings).toString();
+            }
         } catch (final Throwable e) { // swallow all exceptions during render
             log.log(Level.SEVERE, String.format(INVALID_TEMPLATE, template, bindings), e);
         }
         return template;
     }
 
+    /**
+     * hit/miss counters of compiled templates.
+     */
+    public static CacheStats getTemplateCacheStats() {
+        return templates.stats();
+    }
+
+    private static Optional<Template> compile(@Nonnull final String template) {
+        final String fixed = THIS_PATTERN.matcher(template).replaceAll("$1_this_$2"); // resolve `this`
+        try {
+            return Optional.of(engine.createTemplate(fixed));
+        } catch (final Exception e) {
+            log.log(Level.SEVERE, String.format(UNCOMPILABLE_TEMPLATE, template), e);
+            return Optional.empty();
+        }
+    }
+
     @Nonnull
     private static Map<String, Object> initBindings(@Nonnull final MethodInvocation invocation) {
         final String[] paramNames = invocation.getParamNames();
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib;
+
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * fake services are registered in test resources META-INF/services/com.microsoft.azure.toolkit.lib.AzureService
+ */
+public class AzureTest {
+    private static final AtomicInteger LOADED = new AtomicInteger();
+
+    @Test
+    public void serviceIsIndexedBySuperTypes() {
+        final FakeService service = Azure.az(FakeService.class);
+
+        Assert.assertSame(service, Azure.az(AbstractFakeService.class));
+        Assert.assertSame(service, Azure.az(FakeApi.class));
+    }
+
+    @Test
+    public void firstProviderWins() {
+        final AnotherFakeService another = Azure.az(AnotherFakeService.class);
+
+        Assert.assertSame(Azure.az(FakeService.class), Azure.az(SharedApi.class));
+        Assert.assertNotSame(another, Azure.az(SharedApi.class));
+    }
+
+    @Test
+    public void missingServiceIsRemembered() {
+        final int loaded = LOADED.get();
+        Assert.assertThrows(AzureToolkitRuntimeException.class, () -> Azure.az(NotProvided.class));
+        // providers are reloaded on the first lookup of an unknown class only
+        final int reloaded = LOADED.get();
+        Assert.assertTrue(reloaded > loaded);
+        Assert.assertThrows(AzureToolkitRuntimeException.class, () -> Azure.az(NotProvided.class));
+        Assert.assertEquals(reloaded, LOADED.get());
+
+        // missing services are looked up again after refresh
+        Azure.refresh();
+        final int refreshed = LOADED.get();
+        Assert.assertThrows(AzureToolkitRuntimeException.class, () -> Azure.az(NotProvided.class));
+        Assert.assertTrue(LOADED.get() > refreshed);
+    }
+
+    @Test
+    public void refreshKeepsLoadedServices() {
+        final FakeService service = Azure.az(FakeService.class);
+        final AnotherFakeService another = Azure.az(AnotherFakeService.class);
+
+        Azure.refresh();
+
+        Assert.assertSame(service, Azure.az(FakeService.class));
+        Assert.assertSame(service, Azure.az(SharedApi.class));
+        Assert.assertSame(another, Azure.az(AnotherFakeService.class));
+    }
+
+    public interface FakeApi extends AzureService {
+    }
+
+    public interface SharedApi extends AzureService {
+    }
+
+    public interface NotProvided extends AzureService {
+    }
+
+    public abstract static class AbstractFakeService implements FakeApi {
+    }
+
+    public static class FakeService extends AbstractFakeService implements SharedApi {
+        public FakeService() {
+            LOADED.incrementAndGet();
+        }
+    }
+
+    public static class AnotherFakeService implements SharedApi {
+    }
+}
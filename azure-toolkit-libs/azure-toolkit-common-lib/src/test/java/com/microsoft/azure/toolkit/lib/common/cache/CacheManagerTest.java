@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.cache;
+
+import com.google.common.cache.CacheStats;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+public class CacheManagerTest {
+    private Service service;
+
+    @Before
+    public void setUp() throws Exception {
+        for (final String name : new String[]{"test/get", "test/expiring", "test/bounded", "test/fail", "test/shared"}) {
+            CacheManager.evictCache(name, CacheEvict.ALL);
+        }
+        service = new Service();
+    }
+
+    @Test
+    public void cacheByKey() {
+        Assert.assertEquals("a-1", service.get("a"));
+        Assert.assertEquals("a-1", service.get("a"));
+        Assert.assertEquals("b-2", service.get("b"));
+        final CacheStats stats = CacheManager.getStats().get("test/get");
+        Assert.assertEquals(1, stats.hitCount());
+        Assert.assertEquals(2, stats.missCount());
+    }
+
+    @Test
+    public void expireAfterWrite() throws Exception {
+        Assert.assertEquals("a-1", service.expiring("a"));
+        Assert.assertEquals("a-1", service.expiring("a"));
+        Thread.sleep(1100);
+        Assert.assertEquals("a-2", service.expiring("a"));
+    }
+
+    @Test
+    public void evictBySize() {
+        Assert.assertEquals("a-1", service.bounded("a"));
+        Assert.assertEquals("b-2", service.bounded("b"));
+        Assert.assertEquals("c-3", service.bounded("c"));
+        Assert.assertEquals("a-4", service.bounded("a"));
+        Assert.assertTrue(CacheManager.getStats().get("test/bounded").evictionCount() > 0);
+    }
+
+    @Test
+    public void evict() throws Exception {
+        Assert.assertEquals("a-1", service.get("a"));
+        CacheManager.evictCache("test/get", "a");
+        Assert.assertEquals("a-2", service.get("a"));
+    }
+
+    @Test
+    public void failureIsNotCached() {
+        Assert.assertThrows(IllegalStateException.class, () -> service.failOnce("a"));
+        Assert.assertEquals("a-2", service.failOnce("a"));
+    }
+
+    @Test
+    public void conflictingSettingsAreWarned() {
+        final List<LogRecord> records = new ArrayList<>();
+        final Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                records.add(record);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        final Logger logger = Logger.getLogger(CacheManager.class.getName());
+        logger.addHandler(handler);
+        try {
+            Assert.assertEquals("a-1", service.shared("a"));
+            Assert.assertEquals("a-1", service.sharedSameSettings("a"));
+            Assert.assertTrue(records.stream().noneMatch(r -> r.getLevel() == Level.WARNING));
+
+            // bounds of the first method are kept, the conflict is reported once
+            Assert.assertEquals("b-2", service.sharedUnbounded("b"));
+            Assert.assertEquals("c-3", service.sharedUnbounded("c"));
+            Assert.assertEquals("a-4", service.shared("a"));
+            final List<LogRecord> warnings = records.stream().filter(r -> r.getLevel() == Level.WARNING).collect(Collectors.toList());
+            Assert.assertEquals(1, warnings.size());
+            Assert.assertTrue(warnings.get(0).getMessage().contains("sharedUnbounded"));
+        } finally {
+            logger.removeHandler(handler);
+        }
+    }
+
+    public static class Service {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Cacheable(cacheName = "test/get", key = "$name")
+        public String get(String name) {
+            return name + "-" + calls.incrementAndGet();
+        }
+
+        @Cacheable(cacheName = "test/expiring", key = "$name", expireAfterWrite = 1)
+        public String expiring(String name) {
+            return name + "-" + calls.incrementAndGet();
+        }
+
+        @Cacheable(cacheName = "test/bounded", key = "$name", maximumSize = 2)
+        public String bounded(String name) {
+            return name + "-" + calls.incrementAndGet();
+        }
+
+        @Cacheable(cacheName = "test/shared", key = "$name", maximumSize = 2)
+        public String shared(String name) {
+            return name + "-" + calls.incrementAndGet();
+        }
+
+        @Cacheable(cacheName = "test/shared", key = "$name", maximumSize = 2)
+        public String sharedSameSettings(String name) {
+            return name + "-" + calls.incrementAndGet();
+        }
+
+        @Cacheable(cacheName = "test/shared", key = "$name")
+        public String sharedUnbounded(String name) {
+            return name + "-" + calls.incrementAndGet();
+        }
+
+        @Cacheable(cacheName = "test/fail", key = "$name")
+        public String failOnce(String name) {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("failed");
+            }
+            return name + "-" + calls.get();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.cache;
+
+import com.google.gson.reflect.TypeToken;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+public class PersistentCacheTest {
+    private static final Type LIST_TYPE = new TypeToken<List<String>>() {
+    }.getType();
+    private static final long TTL = 60_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private PersistentCache cache;
+
+    @Before
+    public void setUp() {
+        directory = new File(folder.getRoot(), "cache");
+        cache = new PersistentCache(directory, 1024 * 1024);
+        cache.setPartition("account-a");
+    }
+
+    @Test
+    public void roundTrip() {
+        final List<String> groups = Arrays.asList("rg1", "rg2");
+        cache.put("groups", "sub1", groups, LIST_TYPE, TTL);
+        Assert.assertEquals(Optional.of(groups), cache.get("groups", "sub1", LIST_TYPE));
+        Assert.assertEquals(Optional.empty(), cache.get("groups", "sub2", LIST_TYPE));
+        Assert.assertEquals(Optional.empty(), cache.get("regions", "sub1", LIST_TYPE));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+        Assert.assertEquals(1, cache.getWriteCount());
+
+        // read by another process of the same account
+        final PersistentCache another = new PersistentCache(directory, 1024 * 1024);
+        another.setPartition("account-a");
+        Assert.assertEquals(Optional.of(groups), another.get("groups", "sub1", LIST_TYPE));
+    }
+
+    @Test
+    public void partitionedByAccount() {
+        cache.put("groups", "sub1", Arrays.asList("rg1"), LIST_TYPE, TTL);
+        cache.setPartition("account-b");
+        Assert.assertEquals(Optional.empty(), cache.get("groups", "sub1", LIST_TYPE));
+        cache.setPartition(null);
+        Assert.assertEquals(Optional.empty(), cache.get("groups", "sub1", LIST_TYPE));
+        cache.put("groups", "sub2", Arrays.asList("rg2"), LIST_TYPE, TTL);
+        cache.setPartition("account-a");
+        Assert.assertEquals(Optional.of(Arrays.asList("rg1")), cache.get("groups", "sub1", LIST_TYPE));
+        Assert.assertEquals(Optional.empty(), cache.get("groups", "sub2", LIST_TYPE));
+    }
+
+    @Test
+    public void expireAfterWrite() throws Exception {
+        cache.put("groups", "sub1", Arrays.asList("rg1"), LIST_TYPE, 1);
+        Thread.sleep(10);
+        Assert.assertEquals(Optional.empty(), cache.get("groups", "sub1", LIST_TYPE));
+        Assert.assertTrue(FileUtils.listFiles(directory, new String[]{"json"}, true).isEmpty());
+    }
+
+    @Test
+    public void evictLeastRecentlyWritten() {
+        final String value = StringUtils.repeat('x', 200);
+        final PersistentCache small = new PersistentCache(directory, 1000);
+        small.setPartition("account-a");
+        for (int i = 0; i < 10; i++) {
+            small.put("values", "key" + i, Arrays.asList(value), LIST_TYPE, TTL);
+            age(directory);
+        }
+        Assert.assertTrue(small.getEvictionCount() > 0);
+        Assert.assertTrue(FileUtils.sizeOfDirectory(directory) <= 1000);
+        Assert.assertEquals(Optional.empty(), small.get("values", "key0", LIST_TYPE));
+        Assert.assertEquals(Optional.of(Arrays.asList(value)), small.get("values", "key9", LIST_TYPE));
+    }
+
+    @Test
+    public void invalidate() {
+        cache.put("groups", "sub1", Arrays.asList("rg1"), LIST_TYPE, TTL);
+        cache.put("groups", "sub2", Arrays.asList("rg2"), LIST_TYPE, TTL);
+        cache.put("regions", "sub1", Arrays.asList("eastus"), LIST_TYPE, TTL);
+        cache.invalidate("groups", "sub1");
+        Assert.assertEquals(Optional.empty(), cache.get("groups", "sub1", LIST_TYPE));
+        Assert.assertTrue(cache.get("groups", "sub2", LIST_TYPE).isPresent());
+        cache.invalidate("groups");
+        Assert.assertEquals(Optional.empty(), cache.get("groups", "sub2", LIST_TYPE));
+        Assert.assertTrue(cache.get("regions", "sub1", LIST_TYPE).isPresent());
+        cache.invalidateAll();
+        Assert.assertFalse(directory.exists());
+    }
+
+    /**
+     * make all existing entries a minute older, so the order of writes doesn't depend on the resolution of file times.
+     */
+    private static void age(final File directory) {
+        for (final File file : FileUtils.listFiles(directory, new String[]{"json"}, true)) {
+            Assert.assertTrue(file.setLastModified(file.lastModified() - 60_000));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.cache;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+public class PreloaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readIndexes() throws Exception {
+        final File index = folder.newFile("preload.index");
+        FileUtils.writeLines(index, StandardCharsets.UTF_8.name(), Arrays.asList(
+                PreloaderTest.class.getName() + Preloader.INDEX_SEPARATOR + "preload",
+                PreloaderTest.class.getName() + Preloader.INDEX_SEPARATOR + "notAnnotated",
+                "com.microsoft.azure.toolkit.NotExist" + Preloader.INDEX_SEPARATOR + "preload",
+                ""));
+        final URL missing = new File(folder.getRoot(), "missing.index").toURI().toURL();
+        final Set<Method> methods = Preloader.getIndexedPreloadingMethods(Arrays.asList(index.toURI().toURL(), missing), getClass().getClassLoader());
+        Assert.assertEquals(Collections.singleton(getDeclaredMethod("preload")), methods);
+    }
+
+    @Test
+    public void scanRootsWithoutIndex() {
+        // modules of this repo are not compiled with the PreloadProcessor in their own tests
+        final Set<Method> methods = Preloader.getPreloadingMethods();
+        Assert.assertTrue(methods.contains(getDeclaredMethod("preload")));
+        Assert.assertEquals(methods, Preloader.scanPreloadingMethods(Preloader.getRoots(getClass().getClassLoader())));
+    }
+
+    @Test
+    public void indexedRootsAreNotScanned() throws Exception {
+        final File indexed = createRoot("indexed", true);
+        final File another = createRoot("another", true);
+        final File unindexed = createRoot("unindexed", false);
+        final List<String> scans = new ArrayList<>();
+        final Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getMessage().startsWith("Scanning")) {
+                    scans.add(record.getMessage());
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        final Logger logger = Logger.getLogger(Preloader.class.getName());
+        final Level level = logger.getLevel();
+        logger.setLevel(Level.FINE);
+        logger.addHandler(handler);
+        try {
+            try (final URLClassLoader loader = new URLClassLoader(new URL[]{indexed.toURI().toURL(), another.toURI().toURL()}, null)) {
+                Assert.assertTrue(Preloader.getPreloadingMethods(loader).isEmpty());
+            }
+            Assert.assertTrue(scans.isEmpty());
+
+            try (final URLClassLoader loader = new URLClassLoader(new URL[]{indexed.toURI().toURL(), unindexed.toURI().toURL()}, null)) {
+                Assert.assertTrue(Preloader.getPreloadingMethods(loader).isEmpty());
+            }
+            Assert.assertEquals(Collections.singletonList(String.format("Scanning 1 classpath roots without %s for @Preload", Preloader.INDEX_RESOURCE)), scans);
+        } finally {
+            logger.removeHandler(handler);
+            logger.setLevel(level);
+        }
+    }
+
+    @Test
+    public void indexOfThisModuleIsComplete() throws Exception {
+        // this module can't run the PreloadProcessor on itself, its index is kept in the resources
+        final URL root = Preloader.class.getProtectionDomain().getCodeSource().getLocation();
+        final URL index = new URL(root, Preloader.INDEX_RESOURCE);
+        final Set<Method> indexed = Preloader.getIndexedPreloadingMethods(Collections.singletonList(index), getClass().getClassLoader());
+        Assert.assertEquals(Preloader.scanPreloadingMethods(Collections.singletonList(root)), indexed);
+    }
+
+    private File createRoot(final String name, final boolean withIndex) throws Exception {
+        final File root = folder.newFolder(name);
+        Assert.assertTrue(new File(root, "com/microsoft/azure/toolkit").mkdirs());
+        if (withIndex) {
+            FileUtils.writeStringToFile(new File(root, Preloader.INDEX_RESOURCE), "", StandardCharsets.UTF_8);
+        }
+        return root;
+    }
+
+    @Preload
+    public static void preload() {
+    }
+
+    public static void notAnnotated() {
+    }
+
+    private static Method getDeclaredMethod(final String name) {
+        try {
+            return PreloaderTest.class.getDeclaredMethod(name);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
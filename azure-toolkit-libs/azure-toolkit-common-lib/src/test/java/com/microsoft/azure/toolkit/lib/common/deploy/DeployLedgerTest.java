@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.deploy;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+public class DeployLedgerTest {
+    private static final String APP = "/subscriptions/sub/resourceGroups/rg/providers/Microsoft.Web/sites/app";
+    private static final String OTHER_APP = "/subscriptions/sub/resourceGroups/rg/providers/Microsoft.Web/sites/other";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private DeployLedger ledger;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), ".azure/ledger.json");
+        ledger = new DeployLedger(file);
+        ledger.setForce(false);
+    }
+
+    @Test
+    public void roundTrip() {
+        Assert.assertFalse(ledger.isDeployed(APP, null, "app.jar", "h1"));
+        ledger.record(APP, null, "app.jar", "h1");
+        Assert.assertTrue(file.isFile());
+        Assert.assertTrue(ledger.isDeployed(APP, null, "app.jar", "h1"));
+        // read back by another instance, resource ids are case insensitive
+        final DeployLedger another = new DeployLedger(file);
+        another.setForce(false);
+        Assert.assertTrue(another.isDeployed(APP.toUpperCase(), "/", "app.jar", "h1"));
+    }
+
+    @Test
+    public void mismatch() {
+        ledger.record(APP, "webapps", "app.war", "h1");
+        Assert.assertFalse(ledger.isDeployed(APP, "webapps", "app.war", "h2"));
+        Assert.assertFalse(ledger.isDeployed(APP, "static", "app.war", "h1"));
+        Assert.assertFalse(ledger.isDeployed(APP, "webapps", "other.war", "h1"));
+        Assert.assertFalse(ledger.isDeployed(OTHER_APP, "webapps", "app.war", "h1"));
+        Assert.assertTrue(ledger.isDeployed(APP, "/webapps/", "app.war", "h1"));
+    }
+
+    @Test
+    public void registeredHashIsUsedUntilFileChanges() throws Exception {
+        final File artifact = new File(folder.getRoot(), "app.zip");
+        FileUtils.writeStringToFile(artifact, "content", StandardCharsets.UTF_8);
+        final String hash = DeployLedger.hash(artifact);
+        DeployLedger.registerHash(artifact, "REGISTERED");
+        Assert.assertEquals("registered", DeployLedger.hash(artifact));
+
+        FileUtils.writeStringToFile(artifact, "changed", StandardCharsets.UTF_8);
+        Assert.assertTrue(artifact.setLastModified(artifact.lastModified() + 60000));
+        final String changed = DeployLedger.hash(artifact);
+        Assert.assertNotEquals(hash, changed);
+        Assert.assertNotEquals("registered", changed);
+    }
+
+    @Test
+    public void force() {
+        ledger.record(APP, null, "app.jar", "h1");
+        ledger.setForce(true);
+        Assert.assertFalse(ledger.isDeployed(APP, null, "app.jar", "h1"));
+        ledger.setForce(false);
+        Assert.assertTrue(ledger.isDeployed(APP, null, "app.jar", "h1"));
+    }
+
+    @Test
+    public void multipleArtifacts() {
+        ledger.record(APP, "lib/a.jar", "a.jar", "ha");
+        ledger.record(APP, "lib/b.jar", "b.jar", "hb");
+        ledger.record(APP, "static/index.html", "index.html", "hi");
+        Assert.assertTrue(ledger.isDeployed(APP, "lib/a.jar", "a.jar", "ha"));
+        Assert.assertTrue(ledger.isDeployed(APP, "lib/b.jar", "b.jar", "hb"));
+        Assert.assertTrue(ledger.isDeployed(APP, "static/index.html", "index.html", "hi"));
+    }
+
+    @Test
+    public void deploymentToSamePathReplacesRecord() {
+        ledger.record(APP, "lib", "a.jar", "ha");
+        ledger.record(APP, "lib", "b.jar", "hb");
+        Assert.assertFalse(ledger.isDeployed(APP, "lib", "a.jar", "ha"));
+        Assert.assertTrue(ledger.isDeployed(APP, "lib", "b.jar", "hb"));
+    }
+
+    @Test
+    public void deploymentReplacesRecordsBelowPath() {
+        ledger.record(APP, "lib", "a.jar", "ha");
+        ledger.record(APP, "lib/ext", "b.jar", "hb");
+        ledger.record(APP, "library", "c.jar", "hc");
+        ledger.record(OTHER_APP, null, "app.jar", "h1");
+
+        ledger.record(APP, "lib", "d.jar", "hd");
+        Assert.assertFalse(ledger.isDeployed(APP, "lib", "a.jar", "ha"));
+        Assert.assertFalse(ledger.isDeployed(APP, "lib/ext", "b.jar", "hb"));
+        Assert.assertTrue(ledger.isDeployed(APP, "library", "c.jar", "hc"));
+
+        ledger.record(APP, null, "app.zip", "hz");
+        Assert.assertFalse(ledger.isDeployed(APP, "library", "c.jar", "hc"));
+        Assert.assertFalse(ledger.isDeployed(APP, "lib", "d.jar", "hd"));
+        Assert.assertTrue(ledger.isDeployed(APP, null, "app.zip", "hz"));
+        Assert.assertTrue(ledger.isDeployed(OTHER_APP, null, "app.jar", "h1"));
+    }
+
+    @Test
+    public void invalidate() {
+        ledger.record(APP, "lib", "a.jar", "ha");
+        ledger.record(APP, "static", "index.html", "hi");
+        ledger.record(OTHER_APP, null, "app.jar", "h1");
+        ledger.invalidate(APP.toUpperCase());
+        Assert.assertFalse(ledger.isDeployed(APP, "lib", "a.jar", "ha"));
+        Assert.assertFalse(ledger.isDeployed(APP, "static", "index.html", "hi"));
+        Assert.assertTrue(ledger.isDeployed(OTHER_APP, null, "app.jar", "h1"));
+    }
+
+    @Test
+    public void ignoreLegacyAndCorruptedLedger() throws Exception {
+        FileUtils.forceMkdirParent(file);
+        FileUtils.writeStringToFile(file, "{\"" + APP + "\":{\"hash\":\"h1\",\"time\":1}}", StandardCharsets.UTF_8);
+        Assert.assertFalse(ledger.isDeployed(APP, null, "app.jar", "h1"));
+        ledger.record(APP, null, "app.jar", "h1");
+        Assert.assertTrue(ledger.isDeployed(APP, null, "app.jar", "h1"));
+
+        FileUtils.writeStringToFile(file, "not json", StandardCharsets.UTF_8);
+        Assert.assertFalse(ledger.isDeployed(APP, null, "app.jar", "h1"));
+        ledger.record(APP, null, "app.jar", "h2");
+        Assert.assertTrue(ledger.isDeployed(APP, null, "app.jar", "h2"));
+    }
+
+    @Test
+    public void fingerprintDependsOnQualifiers() {
+        Assert.assertEquals(DeployLedger.fingerprint("h", "ZIP", "lib"), DeployLedger.fingerprint("h", "ZIP", "lib"));
+        Assert.assertNotEquals(DeployLedger.fingerprint("h", "ZIP", "lib"), DeployLedger.fingerprint("h", "ZIP", "static"));
+        Assert.assertNotEquals(DeployLedger.fingerprint("h", "ZIP"), DeployLedger.fingerprint("h", "WAR"));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.event;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AzureEventBusTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private boolean async;
+
+    @Before
+    public void setUp() {
+        async = AzureEventBus.isAsync();
+        AzureEventBus.setAsync(true);
+    }
+
+    @After
+    public void tearDown() {
+        AzureEventBus.setAsync(async);
+    }
+
+    @Test
+    public void eventsOfTypeAreDispatchedInOrder() {
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        final List<Integer> others = Collections.synchronizedList(new ArrayList<>());
+        AzureEventBus.on("test/ordered", (Integer i) -> received.add(i));
+        AzureEventBus.on("test/ordered-other", (Integer i) -> others.add(i));
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            expected.add(i);
+            AzureEventBus.emit("test/ordered", i);
+            AzureEventBus.emit("test/ordered-other", i);
+        }
+        Assert.assertTrue(AzureEventBus.drain(TIMEOUT));
+        Assert.assertEquals(expected, received);
+        Assert.assertEquals(expected, others);
+        final AzureEventBus.Stats stats = AzureEventBus.getStats().get("test/ordered");
+        Assert.assertEquals(500, stats.getDispatched());
+        Assert.assertEquals(0, stats.getPending());
+    }
+
+    @Test
+    public void eventsAreDroppedWhenQueueIsFull() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        AzureEventBus.on("test/full", (Integer i) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            // the first event is taken from the queue and blocks the dispatcher
+            AzureEventBus.emit("test/full", -1);
+            Assert.assertTrue(started.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+            for (int i = 0; i < AzureEventBus.QUEUE_CAPACITY + 5; i++) {
+                AzureEventBus.emit("test/full", i);
+            }
+            final AzureEventBus.Stats stats = AzureEventBus.getStats().get("test/full");
+            Assert.assertEquals(5, stats.getDropped());
+            Assert.assertEquals(AzureEventBus.QUEUE_CAPACITY, stats.getPending());
+        } finally {
+            release.countDown();
+        }
+        Assert.assertTrue(AzureEventBus.drain(TIMEOUT));
+        Assert.assertEquals(AzureEventBus.QUEUE_CAPACITY + 1, AzureEventBus.getStats().get("test/full").getDispatched());
+    }
+
+    @Test
+    public void listenerErrorsAreCountedAsDeadLetters() {
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        AzureEventBus.on("test/failing", (Integer i) -> {
+            throw new IllegalStateException("listener failed");
+        });
+        AzureEventBus.on("test/failing", (Integer i) -> received.add(i));
+        AzureEventBus.emit("test/failing", 1);
+        AzureEventBus.emit("test/failing", 2);
+        Assert.assertTrue(AzureEventBus.drain(TIMEOUT));
+        Assert.assertEquals(2, AzureEventBus.getStats().get("test/failing").getDeadLetters());
+        Assert.assertEquals(2, received.size());
+    }
+
+    @Test
+    public void drainWaitsForSlowListeners() {
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        AzureEventBus.on("test/slow", (Integer i) -> {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(i);
+        });
+        for (int i = 0; i < 20; i++) {
+            AzureEventBus.emit("test/slow", i);
+        }
+        Assert.assertTrue(AzureEventBus.drain(TIMEOUT));
+        Assert.assertEquals(20, received.size());
+        Assert.assertEquals(0, AzureEventBus.getStats().get("test/slow").getPending());
+    }
+
+    @Test
+    public void eventsWithoutListenersAreIgnored() {
+        AzureEventBus.emit("test/nobody-listens", 1);
+        Assert.assertFalse(AzureEventBus.getStats().containsKey("test/nobody-listens"));
+
+        final AzureEventBus.EventListener<Object, AzureEvent<Object>> listener = new AzureEventBus.EventListener<>(e -> {
+        });
+        AzureEventBus.on("test/unsubscribed", listener);
+        AzureEventBus.off("test/unsubscribed", listener);
+        AzureEventBus.emit("test/unsubscribed", 1);
+        Assert.assertTrue(AzureEventBus.drain(TIMEOUT));
+        Assert.assertEquals(0, AzureEventBus.getStats().get("test/unsubscribed").getDispatched());
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.task;
+
+import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
+import com.microsoft.azure.toolkit.lib.common.messager.IAzureMessage;
+import com.microsoft.azure.toolkit.lib.common.operation.IAzureOperation;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class HeadlessAzureTaskManagerTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private HeadlessAzureTaskManager manager;
+
+    @Before
+    public void setUp() {
+        manager = new HeadlessAzureTaskManager(1);
+    }
+
+    @After
+    public void tearDown() {
+        manager.shutdown(TIMEOUT);
+    }
+
+    @Test
+    public void pooledTaskRunsInContextOfCaller() throws Exception {
+        final AtomicReference<IAzureOperation> outer = new AtomicReference<>();
+        final AtomicReference<IAzureOperation> parent = new AtomicReference<>();
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        manager.runAndWait(new AzureTask<>("outer", () -> {
+            outer.set(IAzureOperation.current());
+            manager.runOnPooledThread(() -> {
+                parent.set(IAzureOperation.current().getParent());
+                thread.set(Thread.currentThread());
+                done.countDown();
+            });
+        }));
+        Assert.assertTrue(done.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        Assert.assertNotNull(outer.get());
+        Assert.assertSame(outer.get(), parent.get());
+        Assert.assertNotSame(Thread.currentThread(), thread.get());
+    }
+
+    @Test
+    public void exceptionIsReportedToMessagerOfCaller() throws Exception {
+        final AtomicReference<IAzureMessage> error = new AtomicReference<>();
+        final CountDownLatch reported = new CountDownLatch(1);
+        manager.runAndWait(new AzureTask<>("outer", () -> {
+            AzureMessager.getContext().setMessager(message -> {
+                error.set(message);
+                reported.countDown();
+                return true;
+            });
+            manager.runInBackground("failing", () -> {
+                throw new IllegalStateException("failed in background");
+            });
+        }));
+        Assert.assertTrue(reported.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        Assert.assertEquals(IAzureMessage.Type.ERROR, error.get().getType());
+        Assert.assertEquals("failed in background", error.get().getMessage());
+        // fire-and-forget tasks are run through rx, which wraps the exception as no error handler is subscribed
+        Assert.assertTrue(ExceptionUtils.getRootCause((Throwable) error.get().getPayload()) instanceof IllegalStateException);
+    }
+
+    @Test
+    public void callerRunsTaskWhenQueueIsFull() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        manager.runOnPooledThread(() -> {
+            started.countDown();
+            await(release);
+        });
+        Assert.assertTrue(started.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        for (int i = 0; i < HeadlessAzureTaskManager.QUEUE_CAPACITY; i++) {
+            manager.runOnPooledThread(() -> {
+            });
+        }
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        manager.runOnPooledThread(() -> thread.set(Thread.currentThread()));
+        Assert.assertSame(Thread.currentThread(), thread.get());
+        Assert.assertEquals(1, manager.getStats().getCallerRuns());
+        Assert.assertEquals(HeadlessAzureTaskManager.QUEUE_CAPACITY, manager.getStats().getQueued());
+        release.countDown();
+        Assert.assertTrue(manager.shutdown(TIMEOUT));
+        Assert.assertEquals(0, manager.getStats().getRejected());
+    }
+
+    @Test
+    public void reusableAfterShutdown() throws Exception {
+        final CountDownLatch first = new CountDownLatch(1);
+        manager.runOnPooledThread(first::countDown);
+        Assert.assertTrue(first.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        Assert.assertTrue(manager.shutdown(TIMEOUT));
+
+        final CountDownLatch second = new CountDownLatch(2);
+        manager.runOnPooledThread(second::countDown);
+        manager.runLater(second::countDown);
+        Assert.assertTrue(second.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void onlyLastReleaseShutsDown() throws Exception {
+        manager.acquire();
+        manager.acquire();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        manager.runInBackground("long running", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+        });
+        Assert.assertTrue(started.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        // another goal is still running, the task is neither waited for nor interrupted
+        Assert.assertTrue(manager.release(Duration.ZERO));
+        Assert.assertEquals(1, manager.getStats().getActive());
+
+        release.countDown();
+        Assert.assertTrue(manager.release(TIMEOUT));
+        Assert.assertFalse(interrupted.get());
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
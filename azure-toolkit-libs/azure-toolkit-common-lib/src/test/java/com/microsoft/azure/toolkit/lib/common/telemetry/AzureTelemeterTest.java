@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.telemetry;
+
+import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
+import com.microsoft.azure.toolkit.lib.common.operation.AzureOperationRef;
+import com.microsoft.azure.toolkit.lib.common.operation.IAzureOperation;
+import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemetry.Properties;
+import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemetry.Property;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+public class AzureTelemeterTest {
+
+    @Test
+    public void serializeOperation() throws Exception {
+        final AzureOperationRef action = ref("deploy", "default");
+        AzureTelemetry.getContext(action).setProperty("trigger", "maven");
+        final AzureOperationRef op = ref("listFiles", "site/wwwroot", "my-app", "java", "ignored");
+        op.setParent(action);
+        AzureTelemetry.getContext(op).setProperty("custom", "value");
+
+        final Map<String, String> properties = AzureTelemeter.serialize(op);
+
+        Assert.assertEquals(legacySerialize(op), properties);
+        Assert.assertEquals("appservice", properties.get("serviceName"));
+        Assert.assertEquals("list_file", properties.get("operationName"));
+        Assert.assertEquals("appservice|file.list.dir", properties.get("op_name"));
+        Assert.assertEquals(AzureOperation.Type.SERVICE.name(), properties.get("op_type"));
+        Assert.assertEquals(action.getId(), properties.get("op_parentId"));
+        Assert.assertEquals("maven", properties.get("trigger"));
+        Assert.assertEquals("value", properties.get("custom"));
+        Assert.assertEquals("site/wwwroot", properties.get("dir"));
+        Assert.assertEquals("java", properties.get("runtime"));
+        Assert.assertEquals("JAVA", properties.get("runtimeUpperCase"));
+        Assert.assertFalse(properties.containsValue("ignored"));
+
+        // parameters are resolved once per method, values of each invocation are still serialized
+        final AzureOperationRef another = ref("listFiles", "site/wwwroot/lib", null, null, "ignored");
+        another.setParent(action);
+        final Map<String, String> anotherProperties = AzureTelemeter.serialize(another);
+        Assert.assertEquals(legacySerialize(another), anotherProperties);
+        Assert.assertEquals("site/wwwroot/lib", anotherProperties.get("dir"));
+        Assert.assertFalse(anotherProperties.containsKey("runtime"));
+    }
+
+    @Test
+    public void serializeNameWithParameters() throws Exception {
+        final AzureOperationRef op = ref("getApp", "my-app");
+
+        final Map<String, String> properties = AzureTelemeter.serialize(op);
+
+        Assert.assertEquals(legacySerialize(op), properties);
+        Assert.assertEquals("webapp.get_app(***)", properties.get("op_name"));
+        Assert.assertEquals("get_app(***)", properties.get("operationName"));
+        Assert.assertEquals("/", properties.get("op_parentId"));
+    }
+
+    @Test
+    public void stackTraceFramesAreLimited() {
+        final RuntimeException error = new RuntimeException("deep");
+        error.setStackTrace(frames(100));
+
+        final String trace = AzureTelemeter.getStackTrace(error);
+
+        Assert.assertEquals(32, StringUtils.countMatches(trace, "\tat "));
+        Assert.assertTrue(trace.contains("\t... 68 more"));
+    }
+
+    @Test
+    public void stackTraceLengthIsLimited() {
+        final RuntimeException cause = new RuntimeException(StringUtils.repeat('x', 10000));
+        final RuntimeException error = new RuntimeException("long", cause);
+
+        final String trace = AzureTelemeter.getStackTrace(error);
+
+        Assert.assertEquals(8192, trace.length());
+        Assert.assertTrue(trace.startsWith(error.toString()));
+    }
+
+    @Test
+    public void cyclicCausesAreRenderedOnce() {
+        final RuntimeException first = new RuntimeException("first");
+        final RuntimeException second = new RuntimeException("second", first);
+        first.initCause(second);
+
+        final String trace = AzureTelemeter.getStackTrace(first);
+
+        Assert.assertEquals(1, StringUtils.countMatches(trace, "Caused by: "));
+        Assert.assertTrue(trace.contains("Caused by: " + second));
+    }
+
+    private static StackTraceElement[] frames(final int count) {
+        final StackTraceElement[] frames = new StackTraceElement[count];
+        for (int i = 0; i < count; i++) {
+            frames[i] = new StackTraceElement("com.example.Service", "call" + i, "Service.java", i + 1);
+        }
+        return frames;
+    }
+
+    private static AzureOperationRef ref(final String methodName, final Object... paramValues) {
+        final Method method = findMethod(methodName);
+        return AzureOperationRef.builder()
+                .instance(new FakeOperations())
+                .method(method)
+                .paramNames(new String[method.getParameterCount()])
+                .paramValues(paramValues)
+                .build();
+    }
+
+    private static Method findMethod(final String name) {
+        for (final Method method : FakeOperations.class.getDeclaredMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    /**
+     * how operations were serialized before parameters of operation methods were resolved once per method.
+     */
+    private static Map<String, String> legacySerialize(@Nonnull final IAzureOperation op) {
+        final AzureTelemetry.Context context = AzureTelemetry.getContext(op);
+        final Map<String, String> properties = new HashMap<>();
+        final String name = op.getName().replaceAll("\\(.+\\)", "(***)");
+        final String[] parts = name.split("\\.");
+        final String[] compositeServiceName = parts[0].split("\\|");
+        properties.put("serviceName", compositeServiceName[0]);
+        properties.put("operationName", compositeServiceName.length > 1 ? parts[1] + "_" + compositeServiceName[1] : parts[1]);
+        properties.put("op_id", op.getId());
+        properties.put("op_parentId", Optional.ofNullable(op.getParent()).map(IAzureOperation::getId).orElse("/"));
+        properties.put("op_name", name);
+        properties.put("op_type", op.getType());
+        Optional.ofNullable(op.getActionParent()).map(a -> AzureTelemetry.getContext(a).getProperties()).ifPresent(properties::putAll);
+        final AzureOperationRef ref = (AzureOperationRef) op;
+        final Parameter[] parameters = ref.getMethod().getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            final Parameter param = parameters[i];
+            final Object value = ref.getParamValues()[i];
+            Optional.ofNullable(param.getAnnotation(Property.class))
+                    .map(Property::value)
+                    .map(n -> Property.PARAM_NAME.equals(n) ? param.getName() : n)
+                    .ifPresent(n -> properties.put(n, Optional.ofNullable(value).map(Object::toString).orElse("")));
+            if (param.getAnnotation(Properties.class) != null) {
+                properties.putAll(new RuntimeConverter().convert(value));
+            }
+        }
+        properties.putAll(context.getProperties());
+        return properties;
+    }
+
+    public static class RuntimeConverter implements Properties.Converter<Object> {
+        @Nonnull
+        @Override
+        public Map<String, String> convert(@Nullable final Object runtime) {
+            final Map<String, String> properties = new HashMap<>();
+            if (runtime != null) {
+                properties.put("runtime", runtime.toString());
+                properties.put("runtimeUpperCase", runtime.toString().toUpperCase());
+            }
+            return properties;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class FakeOperations {
+        @AzureOperation(name = "appservice.deploy", type = AzureOperation.Type.ACTION)
+        void deploy(@Property("deployType") String type) {
+        }
+
+        @AzureOperation(name = "appservice|file.list.dir", params = {"dir"}, type = AzureOperation.Type.SERVICE)
+        void listFiles(@Property("dir") String dir, @Property String app, @Properties(RuntimeConverter.class) String runtime, String ignored) {
+        }
+
+        @AzureOperation(name = "webapp.get_app(my-app)", type = AzureOperation.Type.TASK)
+        void getApp(String name) {
+        }
+    }
+}
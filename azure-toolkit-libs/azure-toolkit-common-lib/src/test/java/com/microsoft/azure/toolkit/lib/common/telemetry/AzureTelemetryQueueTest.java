@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.telemetry;
+
+import com.microsoft.applicationinsights.TelemetryClient;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AzureTelemetryQueueTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration NEVER = Duration.ofHours(1);
+    private static final Map<String, String> PROPERTIES = Collections.singletonMap("key", "value");
+
+    private TelemetryClient client;
+
+    @Before
+    public void setUp() {
+        client = Mockito.mock(TelemetryClient.class);
+    }
+
+    @Test
+    public void flushWhenBatchIsFull() throws Exception {
+        final AzureTelemetryQueue queue = new AzureTelemetryQueue(16, 2, NEVER);
+
+        queue.offer(client, "first", PROPERTIES);
+        queue.offer(client, "second", PROPERTIES);
+
+        Mockito.verify(client, Mockito.timeout(TIMEOUT.toMillis())).flush();
+        Mockito.verify(client).trackEvent("first", PROPERTIES, null);
+        Mockito.verify(client).trackEvent("second", PROPERTIES, null);
+        // a batch which is not full waits for the flush interval
+        queue.offer(client, "third", PROPERTIES);
+        Thread.sleep(200);
+        Mockito.verify(client, Mockito.never()).trackEvent("third", PROPERTIES, null);
+        Mockito.verify(client, Mockito.times(1)).flush();
+        Assert.assertEquals(2, queue.getSentCount());
+    }
+
+    @Test
+    public void flushWhenIntervalElapsed() {
+        final AzureTelemetryQueue queue = new AzureTelemetryQueue(16, 32, Duration.ofMillis(100));
+        final long start = System.nanoTime();
+
+        queue.offer(client, "first", PROPERTIES);
+
+        Mockito.verify(client, Mockito.timeout(TIMEOUT.toMillis())).flush();
+        Assert.assertTrue(System.nanoTime() - start >= Duration.ofMillis(100).toNanos());
+        Mockito.verify(client).trackEvent("first", PROPERTIES, null);
+        Assert.assertEquals(1, queue.getSentCount());
+    }
+
+    @Test
+    public void dropWhenQueueIsFull() throws Exception {
+        final AzureTelemetryQueue queue = new AzureTelemetryQueue(1, 1, NEVER);
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            sending.countDown();
+            release.await();
+            return null;
+        }).when(client).trackEvent(ArgumentMatchers.eq("first"), ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        Assert.assertTrue(queue.offer(client, "first", PROPERTIES));
+        Assert.assertTrue(sending.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        // the worker is busy sending the first event, the second one takes the only slot of the queue
+        Assert.assertTrue(queue.offer(client, "second", PROPERTIES));
+        Assert.assertFalse(queue.offer(client, "third", PROPERTIES));
+        Assert.assertEquals(1, queue.getDroppedCount());
+
+        release.countDown();
+        Assert.assertTrue(queue.drain(TIMEOUT));
+        Assert.assertEquals(2, queue.getSentCount());
+        Mockito.verify(client, Mockito.never()).trackEvent(ArgumentMatchers.eq("third"), ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void drainFlushesPendingEvents() {
+        final AzureTelemetryQueue queue = new AzureTelemetryQueue(16, 32, NEVER);
+        Assert.assertTrue("nothing to drain before any event is offered", queue.drain(Duration.ZERO));
+
+        queue.offer(client, "first", PROPERTIES);
+        queue.offer(client, "second", PROPERTIES);
+
+        Assert.assertTrue(queue.drain(TIMEOUT));
+        Mockito.verify(client).trackEvent("first", PROPERTIES, null);
+        Mockito.verify(client).trackEvent("second", PROPERTIES, null);
+        Mockito.verify(client).flush();
+        Assert.assertEquals(2, queue.getSentCount());
+    }
+
+    @Test
+    public void drainHonorsDeadline() throws Exception {
+        final AzureTelemetryQueue queue = new AzureTelemetryQueue(16, 1, NEVER);
+        final CountDownLatch flushing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return null;
+        }).when(client).flush();
+        try {
+            queue.offer(client, "first", PROPERTIES);
+            Assert.assertTrue(flushing.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+            queue.offer(client, "second", PROPERTIES);
+
+            final long start = System.nanoTime();
+            Assert.assertFalse(queue.drain(Duration.ofMillis(200)));
+            final long elapsed = System.nanoTime() - start;
+            Assert.assertTrue(elapsed >= Duration.ofMillis(200).toNanos());
+            Assert.assertTrue(elapsed < TIMEOUT.toNanos());
+        } finally {
+            release.countDown();
+        }
+        Assert.assertTrue(queue.drain(TIMEOUT));
+        Assert.assertEquals(2, queue.getSentCount());
+    }
+}
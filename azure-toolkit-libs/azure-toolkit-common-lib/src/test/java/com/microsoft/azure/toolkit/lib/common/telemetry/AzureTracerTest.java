@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.telemetry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
+import com.microsoft.azure.toolkit.lib.common.task.HeadlessAzureTaskManager;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class AzureTracerTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HeadlessAzureTaskManager manager;
+
+    @Before
+    public void setUp() {
+        manager = new HeadlessAzureTaskManager(2);
+        AzureTracer.getInstance().setEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        AzureTracer.getInstance().setEnabled(false);
+        manager.shutdown(TIMEOUT);
+    }
+
+    @Test
+    public void exportNestedSpansAcrossThreads() throws Exception {
+        final CountDownLatch pooled = new CountDownLatch(1);
+        manager.runAndWait(new AzureTask<>("trace/outer", () -> {
+            manager.runAndWait(new AzureTask<>("trace/inner", () -> sleep(5)));
+            manager.runInBackground("trace/pooled", () -> {
+                sleep(5);
+                pooled.countDown();
+            });
+        }));
+        Assert.assertTrue(pooled.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        Assert.assertTrue(manager.shutdown(TIMEOUT)); // the pooled span is recorded after the task exits
+        final long start = System.nanoTime();
+        AzureTracer.getInstance().record("trace/goal", "goal", start, start + 1000);
+
+        final File file = new File(folder.getRoot(), "trace/trace.json");
+        AzureTracer.getInstance().export(file);
+        final JsonNode trace = new ObjectMapper().readTree(file);
+
+        Assert.assertEquals("ms", trace.get("displayTimeUnit").asText());
+        Assert.assertEquals(0, trace.get("otherData").get("droppedSpans").asInt());
+        final List<JsonNode> events = new ArrayList<>();
+        trace.get("traceEvents").forEach(events::add);
+
+        final JsonNode outer = findSpan(events, "trace/outer");
+        final JsonNode inner = findSpan(events, "trace/inner");
+        final JsonNode background = findSpan(events, "trace/pooled");
+        final JsonNode goal = findSpan(events, "trace/goal");
+        Assert.assertEquals("goal", goal.get("cat").asText());
+        Assert.assertEquals("ASYNC", outer.get("cat").asText());
+
+        // nested on the same thread: same tid, within the parent span, linked by id
+        Assert.assertEquals(outer.get("args").get("id").asText(), inner.get("args").get("parentId").asText());
+        Assert.assertEquals(outer.get("tid").asLong(), inner.get("tid").asLong());
+        Assert.assertTrue(inner.get("ts").asDouble() >= outer.get("ts").asDouble());
+        Assert.assertTrue(inner.get("ts").asDouble() + inner.get("dur").asDouble() <= outer.get("ts").asDouble() + outer.get("dur").asDouble());
+
+        // across the task manager: another thread, linked to the parent by a flow event pair
+        Assert.assertEquals(outer.get("args").get("id").asText(), background.get("args").get("parentId").asText());
+        Assert.assertNotEquals(outer.get("tid").asLong(), background.get("tid").asLong());
+        final List<JsonNode> flows = events.stream().filter(e -> "flow".equals(e.path("cat").asText())).collect(Collectors.toList());
+        final JsonNode finish = flows.stream()
+            .filter(e -> "f".equals(e.get("ph").asText()) && e.get("tid").asLong() == background.get("tid").asLong()
+                && e.get("ts").asDouble() == background.get("ts").asDouble())
+            .findFirst().orElseThrow(() -> new AssertionError("no flow to the pooled span"));
+        Assert.assertEquals("e", finish.get("bp").asText());
+        final JsonNode flowStart = flows.stream()
+            .filter(e -> "s".equals(e.get("ph").asText()) && e.get("id").asInt() == finish.get("id").asInt())
+            .findFirst().orElseThrow(() -> new AssertionError("no flow from the outer span"));
+        Assert.assertEquals(outer.get("tid").asLong(), flowStart.get("tid").asLong());
+
+        // threads are named by metadata events
+        final List<Long> namedThreads = events.stream().filter(e -> "M".equals(e.get("ph").asText()))
+            .map(e -> e.get("tid").asLong()).collect(Collectors.toList());
+        Assert.assertTrue(namedThreads.contains(outer.get("tid").asLong()));
+        Assert.assertTrue(namedThreads.contains(background.get("tid").asLong()));
+    }
+
+    private static JsonNode findSpan(final List<JsonNode> events, final String name) {
+        return events.stream().filter(e -> "X".equals(e.get("ph").asText()) && name.equals(e.get("name").asText()))
+            .findFirst().orElseThrow(() -> new AssertionError(String.format("span '%s' is not exported", name)));
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.utils;
+
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PollerTest {
+
+    @Test
+    public void firstPollIsImmediate() {
+        final Poller.Result<Integer> result = Poller.builder().initialInterval(Duration.ofSeconds(10)).timeout(Duration.ofSeconds(30)).build()
+            .poll(() -> 1, value -> value == 1);
+        Assert.assertTrue(result.isDone());
+        Assert.assertEquals(1, result.getPolls());
+        Assert.assertEquals(Integer.valueOf(1), result.getValue());
+        Assert.assertTrue(result.getElapsed().toMillis() < 1000);
+    }
+
+    @Test
+    public void intervalGrowsUpToMaxInterval() {
+        final List<Long> times = new ArrayList<>();
+        final Poller.Result<Integer> result = Poller.builder()
+            .initialInterval(Duration.ofMillis(50)).maxInterval(Duration.ofMillis(100)).multiplier(2).jitter(0)
+            .timeout(Duration.ofSeconds(10)).build()
+            .poll(() -> {
+                times.add(System.nanoTime());
+                return times.size();
+            }, count -> count == 5);
+        Assert.assertTrue(result.isDone());
+        Assert.assertEquals(5, result.getPolls());
+        final long[] gaps = new long[times.size() - 1];
+        for (int i = 0; i < gaps.length; i++) {
+            gaps[i] = TimeUnit.NANOSECONDS.toMillis(times.get(i + 1) - times.get(i));
+        }
+        Assert.assertTrue(gaps[0] >= 50);
+        Assert.assertTrue(gaps[1] >= 100);
+        // uncapped, the intervals would be 200 and 400 ms
+        Assert.assertTrue(gaps[2] >= 100 && gaps[2] < 200);
+        Assert.assertTrue(gaps[3] >= 100 && gaps[3] < 200);
+    }
+
+    @Test
+    public void timeoutReturnsLastValue() {
+        final AtomicInteger counter = new AtomicInteger();
+        final Poller.Result<Integer> result = Poller.builder().initialInterval(Duration.ofMillis(20)).timeout(Duration.ofMillis(200)).build()
+            .poll(counter::incrementAndGet, value -> false);
+        Assert.assertEquals(Poller.Status.TIMEOUT, result.getStatus());
+        Assert.assertFalse(result.isDone());
+        Assert.assertEquals(Integer.valueOf(counter.get()), result.getValue());
+        Assert.assertEquals(counter.get(), result.getPolls());
+        Assert.assertTrue(result.getElapsed().toMillis() >= 200);
+    }
+
+    @Test
+    public void cancelledStopsPolling() {
+        final AtomicInteger counter = new AtomicInteger();
+        final Poller.Result<Integer> result = Poller.builder().initialInterval(Duration.ofMillis(10)).timeout(Duration.ofSeconds(10))
+            .cancelled(() -> counter.get() >= 3).build()
+            .poll(counter::incrementAndGet, value -> false);
+        Assert.assertEquals(Poller.Status.CANCELLED, result.getStatus());
+        Assert.assertEquals(3, result.getPolls());
+        Assert.assertEquals(Integer.valueOf(3), result.getValue());
+    }
+
+    @Test
+    public void interruptCancelsPolling() {
+        final Thread current = Thread.currentThread();
+        final Poller.Result<Integer> result;
+        try {
+            result = Poller.builder().initialInterval(Duration.ofSeconds(10)).timeout(Duration.ofSeconds(30)).build()
+                .poll(() -> {
+                    current.interrupt();
+                    return 1;
+                }, value -> false);
+            Assert.assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        Assert.assertEquals(Poller.Status.CANCELLED, result.getStatus());
+        Assert.assertEquals(1, result.getPolls());
+        Assert.assertTrue(result.getElapsed().toMillis() < 10000);
+    }
+
+    @Test
+    public void checkedExceptionIsWrapped() {
+        final IOException error = new IOException("not reachable");
+        try {
+            Poller.builder().timeout(Duration.ofSeconds(10)).build().poll(() -> {
+                throw error;
+            }, value -> true);
+            Assert.fail("exception is expected");
+        } catch (AzureToolkitRuntimeException e) {
+            Assert.assertSame(error, e.getCause());
+        }
+    }
+
+    @Test
+    public void runtimeExceptionIsRethrown() {
+        final IllegalStateException error = new IllegalStateException("failed");
+        try {
+            Poller.builder().timeout(Duration.ofSeconds(10)).build().poll(() -> {
+                throw error;
+            }, value -> true);
+            Assert.fail("exception is expected");
+        } catch (IllegalStateException e) {
+            Assert.assertSame(error, e);
+        }
+    }
+}
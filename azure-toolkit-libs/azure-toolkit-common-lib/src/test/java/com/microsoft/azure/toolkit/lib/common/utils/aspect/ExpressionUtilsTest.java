@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.utils.aspect;
+
+import com.google.common.cache.CacheStats;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExpressionUtilsTest {
+    private static final String RESOURCE_ID = "/subscriptions/sub/resourceGroups/rg/providers/Microsoft.Web/sites/app";
+
+    @Test
+    public void render() {
+        final MethodInvocation invocation = invocation("app", RESOURCE_ID);
+        Assert.assertEquals("app", ExpressionUtils.interpret("name", invocation));
+        Assert.assertEquals("deploy app to app", ExpressionUtils.render("deploy ${name} to ${nameFromResourceId(id)}", invocation));
+        Assert.assertEquals("plain text", ExpressionUtils.render("plain text", invocation));
+        Assert.assertTrue(ExpressionUtils.evaluate("name == 'app'", invocation, false));
+    }
+
+    @Test
+    public void compileTemplateOnce() {
+        final String template = "compile once ${name}";
+        final CacheStats before = ExpressionUtils.getTemplateCacheStats();
+        Assert.assertEquals("compile once a", ExpressionUtils.render(template, invocation("a", RESOURCE_ID)));
+        Assert.assertEquals("compile once b", ExpressionUtils.render(template, invocation("b", RESOURCE_ID)));
+        final CacheStats stats = ExpressionUtils.getTemplateCacheStats().minus(before);
+        Assert.assertEquals(1, stats.missCount());
+        Assert.assertEquals(1, stats.hitCount());
+    }
+
+    @Test
+    public void cacheTemplateFailedToCompile() {
+        final String template = "invalid ${name.}";
+        final CacheStats before = ExpressionUtils.getTemplateCacheStats();
+        Assert.assertEquals(template, ExpressionUtils.render(template, invocation("a", RESOURCE_ID)));
+        Assert.assertEquals(template, ExpressionUtils.render(template, invocation("b", RESOURCE_ID)));
+        final CacheStats stats = ExpressionUtils.getTemplateCacheStats().minus(before);
+        Assert.assertEquals(1, stats.missCount());
+        Assert.assertEquals(1, stats.hitCount());
+        Assert.assertEquals(0, stats.loadExceptionCount());
+    }
+
+    @Test
+    public void renderFailureIsNotCached() {
+        final String template = "length ${id.length()}";
+        Assert.assertEquals(template, ExpressionUtils.render(template, invocation("a", null)));
+        Assert.assertEquals("length 2", ExpressionUtils.render(template, invocation("a", "id")));
+    }
+
+    private static MethodInvocation invocation(final String name, final String id) {
+        return MethodInvocation.builder()
+                .paramNames(new String[]{"name", "id"})
+                .paramValues(new Object[]{name, id})
+                .build();
+    }
+}
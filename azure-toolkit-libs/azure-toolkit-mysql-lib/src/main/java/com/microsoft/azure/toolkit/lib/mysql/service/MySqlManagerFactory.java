@@ -13,6 +13,7 @@ import com.microsoft.azure.toolkit.lib.Azure;
 import com.microsoft.azure.toolkit.lib.AzureConfiguration;
 import com.microsoft.azure.toolkit.lib.auth.Account;
 import com.microsoft.azure.toolkit.lib.auth.AzureAccount;
+import com.microsoft.azure.toolkit.lib.auth.util.HttpClientProvider;
 import com.microsoft.azure.toolkit.lib.common.cache.Cacheable;
 
 import java.util.Optional;
@@ -30,6 +31,7 @@ public final class MySqlManagerFactory {
         final HttpLogDetailLevel logLevel = Optional.ofNullable(config.getLogLevel()).map(HttpLogDetailLevel::valueOf).orElse(HttpLogDetailLevel.NONE);
         final AzureProfile azureProfile = new AzureProfile(null, subscriptionId, account.getEnvironment());
         return MySqlManager.configure()
+            .withHttpClient(HttpClientProvider.getHttpClient())
             .withLogOptions(new HttpLogOptions().setLogLevel(logLevel))
             .withPolicy(getUserAgentPolicy(userAgent))
             .authenticate(account.getTokenCredential(subscriptionId), azureProfile);
@@ -16,6 +16,8 @@ import com.microsoft.azure.toolkit.lib.AzureService;
 import com.microsoft.azure.toolkit.lib.SubscriptionScoped;
 import com.microsoft.azure.toolkit.lib.auth.Account;
 import com.microsoft.azure.toolkit.lib.auth.AzureAccount;
+import com.microsoft.azure.toolkit.lib.auth.util.HttpClientProvider;
+import com.microsoft.azure.toolkit.lib.common.cache.CacheEvict;
 import com.microsoft.azure.toolkit.lib.common.cache.Cacheable;
 import com.microsoft.azure.toolkit.lib.common.cache.Preload;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
@@ -44,7 +46,7 @@ public class AzureGroup extends SubscriptionScoped<AzureGroup> implements AzureS
                 .collect(Collectors.toList());
     }
 
-    @Cacheable(cacheName = "resource/{}/groups", key = "$sid", condition = "!(force&&force[0])")
+    @Cacheable(cacheName = "resource/{}/groups", key = "$sid", condition = "!(force&&force[0])", persistent = true)
     public List<ResourceGroup> list(String sid, boolean... force) {
         return getResourceManager(sid).resourceGroups().listAsync()
                 .map(AzureGroup::fromResource)
@@ -65,6 +67,7 @@ public class AzureGroup extends SubscriptionScoped<AzureGroup> implements AzureS
         return fromResource(getResourceManager(sid).resourceGroups().getByName(name));
     }
 
+    @CacheEvict(cacheName = "resource/{}/groups", key = "${this.getDefaultSubscription().getId()}")
     public ResourceGroup create(String name, String region) {
         if (StringUtils.isNoneBlank(name, region)) {
             final com.azure.resourcemanager.resources.models.ResourceGroup result = getResourceManager(getDefaultSubscription().getId())
@@ -79,6 +82,7 @@ public class AzureGroup extends SubscriptionScoped<AzureGroup> implements AzureS
         delete(getDefaultSubscription().getId(), name);
     }
 
+    @CacheEvict(cacheName = "resource/{}/groups", key = "$subscriptionId")
     public void delete(String subscriptionId, String name) {
         getResourceManager(subscriptionId)
                 .resourceGroups().deleteByName(name);
@@ -102,6 +106,7 @@ public class AzureGroup extends SubscriptionScoped<AzureGroup> implements AzureS
                 HttpLogDetailLevel.NONE : HttpLogDetailLevel.valueOf(config.getLogLevel());
         final AzureProfile azureProfile = new AzureProfile(account.getEnvironment());
         return ResourceManager.configure()
+                .withHttpClient(HttpClientProvider.getHttpClient())
                 .withLogLevel(logDetailLevel)
                 .withPolicy(getUserAgentPolicy(userAgent)) // set user agent with policy
                 .authenticate(account.getTokenCredential(subscriptionId), azureProfile)
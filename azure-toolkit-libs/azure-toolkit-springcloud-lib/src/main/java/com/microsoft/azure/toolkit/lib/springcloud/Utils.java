@@ -6,16 +6,15 @@
 package com.microsoft.azure.toolkit.lib.springcloud;
 
 import com.azure.resourcemanager.appplatform.models.DeploymentResourceStatus;
+import com.microsoft.azure.toolkit.lib.common.utils.Poller;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
-import rx.Observable;
-import rx.schedulers.Schedulers;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 public class Utils {
@@ -45,8 +44,8 @@ public class Utils {
     }
 
     /**
-     * Get resource repeatedly until it match the predicate or timeout, will return null when meet exception
-     * with default pollingInterval = 1s
+     * Get resource repeatedly until it match the predicate or timeout, exceptions are rethrown
+     * with default initial pollingInterval = 1s
      *
      * @param callable         callable to get resource
      * @param predicate        function that evaluate the resource
@@ -58,21 +57,20 @@ public class Utils {
     }
 
     /**
-     * Get resource repeatedly until it match the predicate or timeout, will return null when meet exception
+     * Get resource repeatedly until it match the predicate or timeout, exceptions are rethrown. The resource is got
+     * immediately at first, then with intervals growing from {@code pollingInterval}, see {@link Poller}.
      *
      * @param callable         callable to get resource
      * @param predicate        function that evaluate the resource
      * @param timeOutInSeconds max time for the method
-     * @param pollingInterval  polling interval
+     * @param pollingInterval  initial polling interval
      * @return the first resource which fit the predicate or the last result before timeout
      */
     public static <T> T pollUntil(Callable<T> callable, Predicate<T> predicate, int timeOutInSeconds, int pollingInterval) {
-        final long timeout = System.currentTimeMillis() + timeOutInSeconds * 1000L;
-        return Observable.interval(pollingInterval, TimeUnit.SECONDS)
-                .timeout(timeOutInSeconds, TimeUnit.SECONDS)
-                .flatMap(aLong -> Observable.fromCallable(callable))
-                .subscribeOn(Schedulers.io())
-                .takeUntil(resource -> predicate.test(resource) || System.currentTimeMillis() > timeout)
-                .toBlocking().last();
+        return Poller.builder()
+                .initialInterval(Duration.ofSeconds(pollingInterval))
+                .timeout(Duration.ofSeconds(timeOutInSeconds))
+                .build()
+                .poll(callable, predicate).getValue();
     }
 }
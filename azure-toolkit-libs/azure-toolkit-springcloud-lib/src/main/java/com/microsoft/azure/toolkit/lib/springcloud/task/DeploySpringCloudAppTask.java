@@ -6,6 +6,7 @@
 package com.microsoft.azure.toolkit.lib.springcloud.task;
 
 import com.microsoft.azure.toolkit.lib.Azure;
+import com.microsoft.azure.toolkit.lib.common.deploy.DeployLedger;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.messager.IAzureMessager;
@@ -21,17 +22,23 @@ import com.microsoft.azure.toolkit.lib.springcloud.config.SpringCloudAppConfig;
 import com.microsoft.azure.toolkit.lib.springcloud.config.SpringCloudDeploymentConfig;
 import com.microsoft.azure.toolkit.lib.springcloud.model.ScaleSettings;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+@Slf4j
 @Getter
 public class DeploySpringCloudAppTask extends AzureTask<SpringCloudDeployment> {
     public static final String DEFAULT_DEPLOYMENT_NAME = "default";
+    private static final String SKIP_UPLOAD_ARTIFACT = "Skip uploading %s as it is identical to the last one deployed to deployment(%s), " +
+        "set -D%s=true to upload it anyway.";
 
     private final SpringCloudAppConfig config;
     private final List<AzureTask<?>> subTasks;
@@ -80,17 +87,32 @@ public class DeploySpringCloudAppTask extends AzureTask<SpringCloudDeployment> {
         final String UPDATE_DEPLOYMENT_TITLE = String.format("Update deployment(%s) of app(%s)", messager.value(deploymentName), messager.value(appName));
         final String DEPLOYMENT_TITLE = toCreateDeployment ? CREATE_DEPLOYMENT_TITLE : UPDATE_DEPLOYMENT_TITLE;
 
+        final DeployLedger ledger = DeployLedger.getInstance();
+        final String deploymentId = deployment.entity().getId();
+        final String artifactHash = hash(file);
+        // only skip uploading the artifact, other settings of the deployment are still updated if changed
+        final boolean artifactDeployed = !toCreateApp && !toCreateDeployment && artifactHash != null
+            && ledger.isDeployed(deploymentId, null, file.getName(), artifactHash);
+        if (artifactDeployed) {
+            messager.info(String.format(SKIP_UPLOAD_ARTIFACT, file.getName(), deploymentName, DeployLedger.FORCE_PROPERTY));
+        }
+
         final List<AzureTask<?>> tasks = new ArrayList<>();
         if (toCreateApp) {
             tasks.add(new AzureTask<Void>(CREATE_APP_TITLE, () -> app.create().commit()));
         }
-        tasks.add(new AzureTask<Void>(DEPLOYMENT_TITLE, () -> (toCreateDeployment ? deployment.create() : deployment.refresh().update())
-            .configEnvironmentVariables(env)
-            .configJvmOptions(jvmOptions)
-            .configScaleSettings(scaleSettings)
-            .configRuntimeVersion(runtimeVersion)
-            .configArtifact(file)
-            .commit()));
+        tasks.add(new AzureTask<Void>(DEPLOYMENT_TITLE, () -> {
+            (toCreateDeployment ? deployment.create() : deployment.refresh().update())
+                .configEnvironmentVariables(env)
+                .configJvmOptions(jvmOptions)
+                .configScaleSettings(scaleSettings)
+                .configRuntimeVersion(runtimeVersion)
+                .configArtifact(artifactDeployed ? null : file)
+                .commit();
+            if (artifactHash != null) {
+                ledger.record(deploymentId, null, file.getName(), artifactHash);
+            }
+        }));
         tasks.add(new AzureTask<Void>(UPDATE_APP_TITLE, () -> app.update()
             // active deployment should keep active.
             .activate(StringUtils.firstNonBlank(app.activeDeploymentName(), toCreateDeployment ? deploymentName : null))
@@ -99,6 +121,19 @@ public class DeploySpringCloudAppTask extends AzureTask<SpringCloudDeployment> {
         return tasks;
     }
 
+    @Nullable
+    private static String hash(@Nullable File artifact) {
+        if (artifact == null) {
+            return null;
+        }
+        try {
+            return DeployLedger.hash(artifact);
+        } catch (IOException e) {
+            log.warn(String.format("Failed to compute hash of %s: %s", artifact.getAbsolutePath(), e.getMessage()));
+            return null;
+        }
+    }
+
     @Override
     @AzureOperation(name = "springcloud|app.create_update", params = {"this.config.getAppName()"}, type = AzureOperation.Type.SERVICE)
     public SpringCloudDeployment execute() {
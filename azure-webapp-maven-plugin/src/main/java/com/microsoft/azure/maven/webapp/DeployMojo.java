@@ -9,6 +9,7 @@ import com.azure.core.management.exception.ManagementException;
 import com.azure.resourcemanager.AzureResourceManager;
 import com.azure.resourcemanager.resources.models.ResourceGroup;
 import com.microsoft.azure.maven.model.DeploymentResource;
+import com.microsoft.azure.maven.utils.TaskGraph;
 import com.microsoft.azure.maven.webapp.utils.DeployUtils;
 import com.microsoft.azure.maven.webapp.utils.Utils;
 import com.microsoft.azure.maven.webapp.utils.WebAppUtils;
@@ -102,12 +103,18 @@ public class DeployMojo extends AbstractWebAppMojo {
             throw new AzureExecutionException(NO_RUNTIME_CONFIG);
         }
         getTelemetryProxy().addDefaultProperty(CREATE_NEW_WEB_APP, String.valueOf(true));
-        final ResourceGroup resourceGroup = getOrCreateResourceGroup(webAppConfig);
-        final IAppServicePlan appServicePlan = getOrCreateAppServicePlan(webAppConfig);
+        // provision the independent resources concurrently, only the web app has to wait for all of them
+        final TaskGraph graph = new TaskGraph();
+        final TaskGraph.Step<ResourceGroup> resourceGroup = graph.add("resource group", () -> getOrCreateResourceGroup(webAppConfig));
+        final IAppServicePlan plan = getAppServicePlan(webAppConfig);
+        final TaskGraph.Step<Boolean> planExists = graph.add("app service plan lookup", plan::exists);
+        final TaskGraph.Step<IAppServicePlan> appServicePlan = graph.add("app service plan",
+                () -> planExists.get() ? plan : createAppServicePlan(plan, webAppConfig), resourceGroup, planExists);
+        graph.execute();
         AzureMessager.getMessager().info(String.format(CREATE_WEBAPP, webAppConfig.getAppName()));
         final IWebApp result = webApp.create().withName(webAppConfig.getAppName())
-                .withResourceGroup(resourceGroup.name())
-                .withPlan(appServicePlan.id())
+                .withResourceGroup(resourceGroup.get().name())
+                .withPlan(appServicePlan.get().id())
                 .withRuntime(webAppConfig.getRuntime())
                 .withDockerConfiguration(webAppConfig.getDockerConfiguration())
                 .withAppSettings(webAppConfig.getAppSettings())
@@ -153,22 +160,25 @@ public class DeployMojo extends AbstractWebAppMojo {
     }
 
     private IAppServicePlan getOrCreateAppServicePlan(final WebAppConfig webAppConfig) {
-        final String servicePlanName = StringUtils.isEmpty(webAppConfig.getServicePlanName()) ?
-                getNewAppServicePlanName(webAppConfig) : webAppConfig.getServicePlanName();
-        final String servicePlanGroup = getServicePlanResourceGroup(webAppConfig);
-        final IAppServicePlan appServicePlan = az.appServicePlan(servicePlanGroup, servicePlanName);
-        if (!appServicePlan.exists()) {
-            AzureMessager.getMessager().info(CREATE_APP_SERVICE_PLAN);
-            getTelemetryProxy().addDefaultProperty(CREATE_NEW_APP_SERVICE_PLAN, String.valueOf(true));
-            appServicePlan.create()
-                    .withName(servicePlanName)
-                    .withResourceGroup(servicePlanGroup)
-                    .withRegion(webAppConfig.getRegion())
-                    .withPricingTier(webAppConfig.getPricingTier())
-                    .withOperatingSystem(webAppConfig.getRuntime().getOperatingSystem())
-                    .commit();
-            AzureMessager.getMessager().info(String.format(CREATE_APP_SERVICE_DONE, appServicePlan.name()));
-        }
+        final IAppServicePlan appServicePlan = getAppServicePlan(webAppConfig);
+        return appServicePlan.exists() ? appServicePlan : createAppServicePlan(appServicePlan, webAppConfig);
+    }
+
+    private IAppServicePlan getAppServicePlan(final WebAppConfig webAppConfig) {
+        return az.appServicePlan(getServicePlanResourceGroup(webAppConfig), getNewAppServicePlanName(webAppConfig));
+    }
+
+    private IAppServicePlan createAppServicePlan(final IAppServicePlan appServicePlan, final WebAppConfig webAppConfig) {
+        AzureMessager.getMessager().info(CREATE_APP_SERVICE_PLAN);
+        getTelemetryProxy().addDefaultProperty(CREATE_NEW_APP_SERVICE_PLAN, String.valueOf(true));
+        appServicePlan.create()
+                .withName(getNewAppServicePlanName(webAppConfig))
+                .withResourceGroup(getServicePlanResourceGroup(webAppConfig))
+                .withRegion(webAppConfig.getRegion())
+                .withPricingTier(webAppConfig.getPricingTier())
+                .withOperatingSystem(webAppConfig.getRuntime().getOperatingSystem())
+                .commit();
+        AzureMessager.getMessager().info(String.format(CREATE_APP_SERVICE_DONE, appServicePlan.name()));
         return appServicePlan;
     }
 
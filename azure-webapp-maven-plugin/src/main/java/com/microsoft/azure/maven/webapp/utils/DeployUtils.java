@@ -12,13 +12,14 @@ import com.microsoft.azure.toolkit.lib.appservice.model.WebAppArtifact;
 import com.microsoft.azure.toolkit.lib.appservice.model.DeployType;
 import com.microsoft.azure.toolkit.lib.appservice.model.PublishingProfile;
 import com.microsoft.azure.toolkit.lib.appservice.service.IAppService;
+import com.microsoft.azure.toolkit.lib.legacy.appservice.handlers.artifact.FTPUploader;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.net.ftp.FTPClient;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.jar.JarInputStream;
@@ -28,6 +29,7 @@ import java.util.stream.Collectors;
 public class DeployUtils {
     private static final String DEFAULT_APP_SERVICE_JAR_NAME = "app.jar";
     private static final String WEB_CONFIG = "web.config";
+    private static final int DEFAULT_MAX_RETRY_TIMES = 3;
     private static final String RENAMING_MESSAGE = "Renaming %s to %s";
     private static final String RENAMING_FAILED_MESSAGE = "Failed to rename artifact to %s, which is required in Java SE environment, " +
             "refer to https://docs.microsoft.com/en-us/azure/app-service/containers/configure-language-java#set-java-runtime-options for details.";
@@ -41,15 +43,14 @@ public class DeployUtils {
         }
         final PublishingProfile publishingProfile = appService.getPublishingProfile();
         final String serverUrl = publishingProfile.getFtpUrl().split("/", 2)[0];
-        try {
-
-            final FTPClient ftpClient = FTPUtils.getFTPClient(serverUrl, publishingProfile.getFtpUsername(), publishingProfile.getFtpPassword());
-            for (final DeploymentResource externalResource : externalResources) {
-                uploadResource(externalResource, ftpClient);
-            }
-        } catch (IOException e) {
-            throw new AzureExecutionException(e.getMessage(), e);
+        // the same file could be listed by several resources with different target paths
+        final List<FTPUploader.FileToUpload> files = new ArrayList<>();
+        for (final DeploymentResource externalResource : externalResources) {
+            final String target = externalResource.getAbsoluteTargetPath();
+            Utils.getArtifacts(externalResource).forEach(file -> files.add(new FTPUploader.FileToUpload(file, target)));
         }
+        new FTPUploader().uploadFilesWithRetries(serverUrl, publishingProfile.getFtpUsername(), publishingProfile.getFtpPassword(),
+                files, DEFAULT_MAX_RETRY_TIMES);
     }
 
     public static boolean isAllWarArtifacts(List<WebAppArtifact> webAppArtifacts) {
@@ -57,14 +58,6 @@ public class DeployUtils {
         return deployTypes.size() == 1 && deployTypes.iterator().next() == DeployType.WAR;
     }
 
-    private static void uploadResource(DeploymentResource resource, FTPClient ftpClient) throws IOException {
-        final List<File> files = Utils.getArtifacts(resource);
-        final String target = resource.getAbsoluteTargetPath();
-        for (final File file : files) {
-            FTPUtils.uploadFile(ftpClient, file.getPath(), target);
-        }
-    }
-
     /**
      * Rename project jar to app.jar for java se app service
      */